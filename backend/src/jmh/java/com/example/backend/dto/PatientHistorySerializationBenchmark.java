@@ -0,0 +1,74 @@
+package com.example.backend.dto;
+
+import com.example.backend.model.AppointmentStatus;
+import com.example.backend.model.LabRequest;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of the doctor's patient history view, with a mapper set up the way Spring Boot sets up
+ * the one behind the controllers (java.time module, ISO dates).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PatientHistorySerializationBenchmark {
+
+    // appointments in the history; every other one has a prescription and a lab report
+    @Param({"10", "200"})
+    public int appointments;
+
+    private ObjectMapper objectMapper;
+    private PatientHistoryDto history;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+
+        history = new PatientHistoryDto("Patient Zero", "patient.zero@diagnote.test", "Female", 54,
+                "12 Main Street, Springfield");
+        LocalDateTime start = LocalDateTime.of(2024, 1, 8, 9, 30);
+        for (int i = 0; i < appointments; i++) {
+            LocalDateTime at = start.plusDays(3L * i);
+            boolean treated = i % 2 == 0;
+            history.getHistory().add(new AppointmentPrescriptionDto(
+                    i, "Dr. Doctor " + (i % 7), at, treated ? AppointmentStatus.COMPLETED : AppointmentStatus.CANCELLED,
+                    treated ? 10_000 + i : null, treated ? "Take one tablet twice a day after meals, for 10 days." : null,
+                    treated ? at.plusMinutes(20) : null,
+                    treated ? 20_000 + i : null, treated ? "Full blood count" : null,
+                    treated ? LabRequest.Status.COMPLETED : null,
+                    treated ? 30_000 + i : null, treated ? "3f/a2/3fa2c9e1b7d4.pdf" : null,
+                    treated ? at.plusDays(1) : null, treated ? "Lab Tech " + (i % 3) : null));
+            if (treated) {
+                history.getLabReports().add(new LabReportDto(30_000 + i, "3f/a2/3fa2c9e1b7d4.pdf", at.plusDays(1),
+                        i % 3, 20_000 + i));
+            }
+        }
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(history);
+    }
+}
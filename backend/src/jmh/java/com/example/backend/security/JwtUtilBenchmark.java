@@ -0,0 +1,50 @@
+package com.example.backend.security;
+
+import com.example.backend.model.Role;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token issue (login) and the token check of every authenticated request (JwtFilter parses the token and builds
+ * the principal from its claims).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtUtilBenchmark {
+
+    private JwtUtil jwtUtil;
+    private AuthenticatedUser user;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        // No configured keys: a random HS256 key, same as a local run
+        jwtUtil = new JwtUtil(new JwtKeyRing("", "", "", "PKCS12", ""));
+        user = new AuthenticatedUser(42, "Dr. Jane Doe", "jane.doe@diagnote.test", "", Role.DOCTOR);
+        token = jwtUtil.generateToken(user);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtil.generateToken(user);
+    }
+
+    @Benchmark
+    public AuthenticatedUser parseToPrincipal() {
+        return jwtUtil.toPrincipal(jwtUtil.parseToken(token));
+    }
+}
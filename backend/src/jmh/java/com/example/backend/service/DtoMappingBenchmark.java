@@ -0,0 +1,184 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.LabRequestDto;
+import com.example.backend.dto.PrescriptionDto;
+import com.example.backend.dto.PrescriptionResponse;
+import com.example.backend.dto.ViewLabReportDto;
+import com.example.backend.model.Appointment;
+import com.example.backend.model.AppointmentStatus;
+import com.example.backend.model.Doctor;
+import com.example.backend.model.LabRequest;
+import com.example.backend.model.LabTech;
+import com.example.backend.model.Patient;
+import com.example.backend.model.Prescription;
+import com.example.backend.model.Role;
+import com.example.backend.model.User;
+import com.example.backend.model.ViewLabReport;
+import com.example.backend.repository.ViewLabReportRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity to DTO mapping in the services, on fully loaded entities (no database): the cost of building the
+ * responses themselves. Each benchmark maps one patient's rows.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DtoMappingBenchmark {
+
+    @Param({"20", "500"})
+    public int rows;
+
+    private PrescriptionService prescriptionService;
+    private LabRequestService labRequestService;
+    private ViewLabReportService viewLabReportService;
+
+    private List<Prescription> prescriptions;
+    private List<LabRequest> labRequests;
+
+    @Setup
+    public void setUp() {
+        Patient patient = new Patient(1, user(1, "Patient Zero", Role.PATIENT), "Female", "12 Main Street", 54);
+        LabTech labTech = new LabTech(1, user(2, "Lab Tech One", Role.LABTECH), "Haematology");
+
+        prescriptions = new ArrayList<>(rows);
+        labRequests = new ArrayList<>(rows);
+        List<ViewLabReport> reports = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            Doctor doctor = new Doctor(i % 10, user(100 + i % 10, "Dr. Doctor " + i % 10, Role.DOCTOR),
+                    "Cardiology", "LIC-" + i % 10, null);
+
+            Appointment appointment = new Appointment();
+            appointment.setId(i);
+            appointment.setDoctor(doctor);
+            appointment.setPatient(patient);
+            appointment.setAppointmentDateTime(LocalDateTime.of(2024, 1, 8, 9, 30).plusDays(i));
+            appointment.setStatus(AppointmentStatus.COMPLETED);
+
+            Prescription prescription = new Prescription();
+            prescription.setId(i);
+            prescription.setAppointment(appointment);
+            prescription.setNotes("Take one tablet twice a day after meals, for 10 days.");
+            prescription.setDateIssued(appointment.getAppointmentDateTime().plusMinutes(20));
+            prescriptions.add(prescription);
+
+            LabRequest labRequest = new LabRequest(LabRequest.Status.COMPLETED, "Full blood count", appointment);
+            labRequest.setId(i);
+            labRequests.add(labRequest);
+
+            ViewLabReport report = new ViewLabReport();
+            report.setId(i);
+            report.setReportFile(i % 4 == 0 ? "legacy-report-" + i + ".pdf" : "3f/a2/3fa2c9e1b7d4" + i + ".pdf");
+            report.setDateIssued(appointment.getAppointmentDateTime().plusDays(1));
+            report.setLabTech(labTech);
+            report.setLabRequest(labRequest);
+            reports.add(report);
+        }
+
+        prescriptionService = new PrescriptionService(null, null, null);
+        labRequestService = new LabRequestService();
+        viewLabReportService = new ViewLabReportService();
+        ReflectionTestUtils.setField(viewLabReportService, "viewLabReportRepository",
+                stub(ViewLabReportRepository.class, reports));
+    }
+
+    @Benchmark
+    public void prescriptionToDto(Blackhole blackhole) {
+        for (Prescription prescription : prescriptions) {
+            PrescriptionDto dto = prescriptionService.toDto(prescription);
+            blackhole.consume(dto);
+        }
+    }
+
+    @Benchmark
+    public void labRequestToDto(Blackhole blackhole) {
+        for (LabRequest labRequest : labRequests) {
+            LabRequestDto dto = labRequestService.mapToDto(labRequest);
+            blackhole.consume(dto);
+        }
+    }
+
+    // File name, format and "Uploaded by" strings per report
+    @Benchmark
+    public List<ViewLabReportDto> labReportsForPatient() {
+        return viewLabReportService.getLabReportsForPatient(1);
+    }
+
+    // What the prescription projection query does per row (shared formatters)
+    @Benchmark
+    public List<PrescriptionResponse> prescriptionsForPatient() {
+        List<PrescriptionResponse> responses = new ArrayList<>(prescriptions.size());
+        for (Prescription prescription : prescriptions) {
+            Appointment appointment = prescription.getAppointment();
+            responses.add(new PrescriptionResponse(
+                    prescription.getId(),
+                    prescription.getNotes(),
+                    prescription.getDateIssued(),
+                    appointment.getId(),
+                    appointment.getAppointmentDateTime(),
+                    appointment.getDoctor().getUser().getName(),
+                    appointment.getDoctor().getSpecialization()));
+        }
+        return responses;
+    }
+
+    // The same responses with both formatters built for every row, as the entity mapping used to
+    @Benchmark
+    public List<PrescriptionResponse> prescriptionsForPatientFormattersPerRow() {
+        List<PrescriptionResponse> responses = new ArrayList<>(prescriptions.size());
+        for (Prescription prescription : prescriptions) {
+            Appointment appointment = prescription.getAppointment();
+            responses.add(new PrescriptionResponse(
+                    prescription.getId(),
+                    prescription.getNotes(),
+                    prescription.getDateIssued(),
+                    new PrescriptionResponse.AppointmentInfo(
+                            appointment.getId(),
+                            appointment.getAppointmentDateTime().format(DateTimeFormatter.ofPattern("yyyy-MM-dd")),
+                            appointment.getAppointmentDateTime().format(DateTimeFormatter.ofPattern("HH:mm")),
+                            new PrescriptionResponse.DoctorInfo(
+                                    appointment.getDoctor().getUser().getName(),
+                                    appointment.getDoctor().getSpecialization()))));
+        }
+        return responses;
+    }
+
+    private static User user(int id, String name, Role role) {
+        User user = new User(name, name.toLowerCase().replace(' ', '.') + "@diagnote.test", "", role);
+        user.setUserId(id);
+        return user;
+    }
+
+    // A repository whose list finders all return the given rows
+    private static <R> R stub(Class<R> repository, List<?> rows) {
+        return repository.cast(Proxy.newProxyInstance(repository.getClassLoader(), new Class<?>[]{repository},
+                (proxy, method, args) -> {
+                    if (method.getReturnType() == List.class) {
+                        return rows;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                }));
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.backend.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.flyway.FlywayConfigurationCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Flyway runs db/migration on startup. Databases restored from db_dump/init.sql already
+ * have the V1 tables but no history, so they are baselined at V1 and only get the later migrations.
+ */
+@Configuration
+public class DatabaseMigrationConfig {
+
+    @Bean
+    public FlywayConfigurationCustomizer baselineExistingSchema(
+            @Value("${spring.flyway.baseline-on-migrate:true}") boolean baselineOnMigrate,
+            @Value("${spring.flyway.baseline-version:1}") String baselineVersion) {
+        return configuration -> configuration
+                .baselineOnMigrate(baselineOnMigrate)
+                .baselineVersion(baselineVersion);
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.backend.config;
+
+import com.zaxxer.hikari.HikariConfigMXBean;
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.jdbc.DataSourceUnwrapper;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+/**
+ * Logs which threads serve requests (spring.threads.virtual.enabled, see application-virtual.properties)
+ * and the connection pool they share, and warns when virtual threads were asked for on a JVM without them.
+ */
+@Component
+public class ThreadingModeReport {
+
+    private static final Logger log = LoggerFactory.getLogger(ThreadingModeReport.class);
+    private static final int VIRTUAL_THREADS_SINCE = 21;
+
+    private final Environment environment;
+    private final ObjectProvider<DataSource> dataSource;
+
+    public ThreadingModeReport(Environment environment, ObjectProvider<DataSource> dataSource) {
+        this.environment = environment;
+        this.dataSource = dataSource;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void report() {
+        int javaVersion = Runtime.version().feature();
+        boolean requested = environment.getProperty("spring.threads.virtual.enabled", Boolean.class, false);
+        // The pool sits behind the JDBC proxy (JdbcProxyConfig); JDBC unwrap() only goes by interface
+        DataSource pooled = dataSource.getIfAvailable();
+        HikariDataSource hikari = pooled != null
+                ? DataSourceUnwrapper.unwrap(pooled, HikariConfigMXBean.class, HikariDataSource.class)
+                : null;
+        String pool = hikari != null
+                ? hikari.getMaximumPoolSize() + " connections, " + hikari.getConnectionTimeout() + " ms timeout"
+                : "not a Hikari pool";
+
+        if (requested && javaVersion < VIRTUAL_THREADS_SINCE) {
+            log.warn("spring.threads.virtual.enabled is set but Java {} has no virtual threads (21+ needed); " +
+                    "serving requests on platform threads. Connection pool: {}", javaVersion, pool);
+        } else {
+            log.info("Serving requests on {} threads (Java {}). Connection pool: {}",
+                    requested ? "virtual" : "platform", javaVersion, pool);
+        }
+    }
+}
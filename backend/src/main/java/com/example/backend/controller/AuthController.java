@@ -4,18 +4,19 @@ import com.example.backend.dto.AuthRequest;
 import com.example.backend.dto.AuthResponse;
 import com.example.backend.dto.UserRegistrationDto;
 import com.example.backend.model.User;
-import com.example.backend.repository.UserRepository;
+import com.example.backend.security.CustomUserDetailsService;
 import com.example.backend.security.JwtUtil;
+import com.example.backend.security.TokenDenylist;
 import com.example.backend.service.UserService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -27,10 +28,7 @@ import java.util.Map;
 public class AuthController {
 
     @Autowired
-    private AuthenticationManager authenticationManager;
-
-    @Autowired
-    private UserDetailsService userDetailsService;
+    private CustomUserDetailsService userDetailsService;
 
     @Autowired
     private JwtUtil jwtUtil;
@@ -39,7 +37,7 @@ public class AuthController {
     private UserService userService;
 
     @Autowired
-    private UserRepository userRepository;
+    private TokenDenylist tokenDenylist;
 
     @PostMapping("/register")
     public ResponseEntity<?> registerUser(@RequestBody UserRegistrationDto registrationDto) {
@@ -54,21 +52,31 @@ public class AuthController {
         return ResponseEntity.ok("User registered successfully with email: " + registeredUser.getEmail());
     }
     @PostMapping("/login")
-    public ResponseEntity<?> createAuthenticationToken(@RequestBody AuthRequest authRequest) throws Exception {
+    public ResponseEntity<?> createAuthenticationToken(@RequestBody AuthRequest authRequest) {
+        User user;
         try {
-            authenticationManager.authenticate(
-                    new UsernamePasswordAuthenticationToken(authRequest.getEmail(), authRequest.getPassword())
-            );
-        } catch (Exception e) {
-            throw new Exception("Incorrect username or password", e);
+            user = userService.authenticate(authRequest.getEmail(), authRequest.getPassword());
+        } catch (BadCredentialsException e) {
+            return ResponseEntity
+                    .status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("message", "Incorrect username or password"));
         }
 
-        final UserDetails userDetails = userDetailsService.loadUserByUsername(authRequest.getEmail());
-        final String jwt = jwtUtil.generateToken(userDetails);
+        final String jwt = jwtUtil.generateToken(userDetailsService.toPrincipal(user));
 
-        User user = userRepository.findByEmail(authRequest.getEmail())
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        return ResponseEntity.ok(new AuthResponse(user.getEmail(), jwt, user.getRole().name()));
+    }
 
-        return ResponseEntity.ok(new AuthResponse(authRequest.getEmail(), jwt, user.getRole().name()));
+    @PostMapping("/logout")
+    public ResponseEntity<?> logout(@RequestHeader(value = "Authorization", required = false) String authorizationHeader) {
+        if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
+            try {
+                Claims claims = jwtUtil.parseToken(authorizationHeader.substring(7));
+                tokenDenylist.revoke(claims.getId(), claims.getExpiration());
+            } catch (JwtException | IllegalArgumentException ignored) {
+                // Already invalid, nothing to revoke
+            }
+        }
+        return ResponseEntity.ok(Map.of("message", "Logged out"));
     }
 }
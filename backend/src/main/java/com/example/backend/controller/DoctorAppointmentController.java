@@ -1,8 +1,11 @@
 package com.example.backend.controller;
 
-import com.example.backend.model.Appointment;
+import com.example.backend.dto.AppointmentDto;
+import com.example.backend.dto.AvailabilityScheduleDto;
+import com.example.backend.model.AppointmentStatus;
 import com.example.backend.model.Doctor;
 import com.example.backend.service.DoctorAppointmentService;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -36,44 +39,55 @@ public class DoctorAppointmentController {
         return ResponseEntity.ok("Availability cleared");
     }
 
-    // 🔹 Filtering Endpoints
+    // Structured availability: { slotMinutes, weekly: [{day, start, end}], exceptions: [{date, start, end, available}] }
+    @GetMapping("/availability/schedule")
+    public ResponseEntity<AvailabilityScheduleDto> getSchedule() {
+        return ResponseEntity.ok(doctorAppointmentService.getSchedule());
+    }
+
+    @PutMapping("/availability/schedule")
+    public ResponseEntity<AvailabilityScheduleDto> updateSchedule(@RequestBody AvailabilityScheduleDto schedule) {
+        return ResponseEntity.ok(doctorAppointmentService.updateSchedule(schedule));
+    }
+
+    // 🔹 Filtering Endpoints (start inclusive, end exclusive, ISO date-times)
 
-  /*  // By Status
+    // By Status
     @GetMapping("/filter/status")
-    public ResponseEntity<List<Appointment>> getAppointmentsByStatus(@RequestParam Appointment.Status status) {
+    public ResponseEntity<List<AppointmentDto>> getAppointmentsByStatus(@RequestParam AppointmentStatus status) {
         return ResponseEntity.ok(doctorAppointmentService.getAppointmentsByStatus(status));
     }
-*/
+
     // By Time Range
-   /* @GetMapping("/filter/time")
-    public ResponseEntity<List<Appointment>> getAppointmentsByTimeRange(
-            @RequestParam LocalDateTime start,
-            @RequestParam LocalDateTime end) {
+    @GetMapping("/filter/time")
+    public ResponseEntity<List<AppointmentDto>> getAppointmentsByTimeRange(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end) {
         return ResponseEntity.ok(doctorAppointmentService.getAppointmentsByTimeRange(start, end));
-    }*/
+    }
 
-   /* // By Month
+    // By Month
     @GetMapping("/filter/month")
-    public ResponseEntity<List<Appointment>> getAppointmentsByMonth(
+    public ResponseEntity<List<AppointmentDto>> getAppointmentsByMonth(
             @RequestParam int month,
             @RequestParam int year) {
         return ResponseEntity.ok(doctorAppointmentService.getAppointmentsByMonth(month, year));
     }
 
-    // By Week
+    // By Week (ISO week number)
     @GetMapping("/filter/week")
-    public ResponseEntity<List<Appointment>> getAppointmentsByWeek(
+    public ResponseEntity<List<AppointmentDto>> getAppointmentsByWeek(
             @RequestParam int week,
             @RequestParam int year) {
         return ResponseEntity.ok(doctorAppointmentService.getAppointmentsByWeek(week, year));
     }
 
     // By Status + Time Range (combined)
-   /* @GetMapping("/filter/status-time")
-    public ResponseEntity<List<Appointment>> getAppointmentsByStatusAndTimeRange(
-            @RequestParam Appointment.Status status,
-            @RequestParam LocalDateTime start,
-            @RequestParam LocalDateTime end) {
+    @GetMapping("/filter/status-time")
+    public ResponseEntity<List<AppointmentDto>> getAppointmentsByStatusAndTimeRange(
+            @RequestParam AppointmentStatus status,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end) {
         return ResponseEntity.ok(doctorAppointmentService.getAppointmentsByStatusAndTimeRange(status, start, end));
-    }*/
+    }
 }
@@ -3,9 +3,14 @@ package com.example.backend.controller;
 import com.example.backend.dto.AppointmentDto;
 import com.example.backend.service.DoctorAppointmentstatService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,16 +21,33 @@ public class DoctorAppointmentstatController {
     @Autowired
     private DoctorAppointmentstatService appointmentService;
 
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int MAX_PAGE_SIZE = 500;
+
     /**
-     * GET /api/doctor/appointments?status=PENDING
-     * Get appointments for authenticated doctor
+     * GET /api/doctor/appointments?status=PENDING&from=2025-10-01T00:00&to=2025-11-01T00:00&page=0&size=50
+     * Get appointments for authenticated doctor (from inclusive, to exclusive, both optional).
+     * Without page and size the whole list comes back, as existing clients expect;
+     * with either one it is paged and X-Has-Next-Page tells whether another page follows.
      */
     @GetMapping
     public ResponseEntity<List<AppointmentDto>> getAppointments(
-            @RequestParam(name = "status", required = false) String status) {
-        List<AppointmentDto> appointments =
-                appointmentService.getAppointmentsForAuthenticatedDoctor(Optional.ofNullable(status));
-        return ResponseEntity.ok(appointments);
+            @RequestParam(name = "status", required = false) String status,
+            @RequestParam(name = "from", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(name = "to", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(name = "page", required = false) Integer page,
+            @RequestParam(name = "size", required = false) Integer size) {
+        Pageable pageable = page == null && size == null
+                ? Pageable.unpaged()
+                : PageRequest.of(page != null ? Math.max(page, 0) : 0,
+                        size != null ? Math.max(1, Math.min(size, MAX_PAGE_SIZE)) : DEFAULT_PAGE_SIZE);
+        Slice<AppointmentDto> appointments = appointmentService.getAppointmentsForAuthenticatedDoctor(
+                Optional.ofNullable(status), from, to, pageable);
+        return ResponseEntity.ok()
+                .header("X-Has-Next-Page", String.valueOf(appointments.hasNext()))
+                .body(appointments.getContent());
     }
 
     /**
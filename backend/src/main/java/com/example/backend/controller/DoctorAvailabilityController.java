@@ -0,0 +1,49 @@
+package com.example.backend.controller;
+
+import com.example.backend.dto.FreeDoctorDto;
+import com.example.backend.dto.FreeSlotDto;
+import com.example.backend.service.FreeSlotEngine;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/doctors")
+@PreAuthorize("hasRole('PATIENT')")
+public class DoctorAvailabilityController {
+
+    private static final int DEFAULT_SLOTS = 10;
+    private static final int MAX_SLOTS = 100;
+
+    private final FreeSlotEngine freeSlotEngine;
+
+    public DoctorAvailabilityController(FreeSlotEngine freeSlotEngine) {
+        this.freeSlotEngine = freeSlotEngine;
+    }
+
+    /**
+     * GET /api/doctors/{doctorId}/free-slots?from=2025-10-20T08:00&count=10
+     * Next free slots of a doctor, from now when "from" is omitted.
+     */
+    @GetMapping("/{doctorId}/free-slots")
+    public ResponseEntity<List<FreeSlotDto>> getFreeSlots(
+            @PathVariable Integer doctorId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(defaultValue = "" + DEFAULT_SLOTS) int count) {
+        return ResponseEntity.ok(freeSlotEngine.nextFreeSlots(doctorId, from, Math.max(1, Math.min(count, MAX_SLOTS))));
+    }
+
+    /**
+     * GET /api/doctors/free?at=2025-10-20T10:30
+     * Doctors who can take an appointment starting at that time.
+     */
+    @GetMapping("/free")
+    public ResponseEntity<List<FreeDoctorDto>> getDoctorsFreeAt(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at) {
+        return ResponseEntity.ok(freeSlotEngine.doctorsFreeAt(at));
+    }
+}
@@ -2,14 +2,14 @@ package com.example.backend.controller;
 
 import com.example.backend.dto.DoctorLabReportDto;
 import com.example.backend.service.DoctorLabReportService;
-import org.springframework.core.io.Resource;
+import com.example.backend.service.ReportFileStreamer;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.http.*;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
 import java.util.List;
 
 @RestController
@@ -18,9 +18,12 @@ import java.util.List;
 public class DoctorLabReportController {
 
     private final DoctorLabReportService doctorLabReportService;
+    private final ReportFileStreamer reportFileStreamer;
 
-    public DoctorLabReportController(DoctorLabReportService doctorLabReportService) {
+    public DoctorLabReportController(DoctorLabReportService doctorLabReportService,
+                                     ReportFileStreamer reportFileStreamer) {
         this.doctorLabReportService = doctorLabReportService;
+        this.reportFileStreamer = reportFileStreamer;
     }
 
     /** ✅ Fetch all lab reports belonging to the authenticated doctor */
@@ -39,19 +42,9 @@ public class DoctorLabReportController {
 
     /** ✅ Download the report file */
     @GetMapping("/files/{fileName:.+}")
-    public ResponseEntity<Resource> downloadReport(@PathVariable String fileName) {
-        Resource resource = doctorLabReportService.getLabReportFile(fileName);
-
-        String contentType = "application/octet-stream";
-        try {
-            Path path = resource.getFile().toPath();
-            contentType = Files.probeContentType(path);
-        } catch (IOException ignored) {}
-
-        return ResponseEntity.ok()
-                .contentType(MediaType.parseMediaType(contentType))
-                .header(HttpHeaders.CONTENT_DISPOSITION,
-                        "attachment; filename=\"" + resource.getFilename() + "\"")
-                .body(resource);
+    public void downloadReport(@PathVariable String fileName,
+                               HttpServletRequest request,
+                               HttpServletResponse response) throws IOException {
+        reportFileStreamer.stream(fileName, true, request, response);
     }
 }
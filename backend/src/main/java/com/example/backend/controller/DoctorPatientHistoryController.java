@@ -2,18 +2,20 @@ package com.example.backend.controller;
 
 import com.example.backend.dto.DoctorPatientHistoryDto;
 import com.example.backend.dto.PatientHistoryDto;
+import com.example.backend.dto.PatientTimelineDto;
 import com.example.backend.model.LabReport;
 import com.example.backend.service.DoctorPatientHistoryService;
+import com.example.backend.service.ReportFileStreamer;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.Resource;
 import org.springframework.http.*;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.util.Map;
 
 @RestController
@@ -24,6 +26,9 @@ public class DoctorPatientHistoryController {
     @Autowired
     private  DoctorPatientHistoryService doctorPatientHistoryService;
 
+    @Autowired
+    private ReportFileStreamer reportFileStreamer;
+
     public DoctorPatientHistoryController(DoctorPatientHistoryService doctorPatientHistoryService) {
         this.doctorPatientHistoryService = doctorPatientHistoryService;
     }
@@ -39,75 +44,28 @@ public class DoctorPatientHistoryController {
                     .body(Map.of("message", "No patient found with appointment ID: " + email));
         }
     }
+    // Paginated patient history: ?email=...&size=20, then &cursor=<nextCursor> for older appointments
+    @GetMapping("/patient-history/timeline")
+    public ResponseEntity<PatientTimelineDto> getPatientTimeline(
+            @RequestParam String email,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + DoctorPatientHistoryService.DEFAULT_TIMELINE_PAGE_SIZE) int size) {
+        return ResponseEntity.ok(doctorPatientHistoryService.getPatientTimeline(email, cursor, size));
+    }
 
 
     @GetMapping("/lab-reports/file/{fileName:.+}")
-    public ResponseEntity<Resource> getLabReportFileByName(@PathVariable String fileName) {
-        try {
-            System.out.println("🚀 Request received for file: " + fileName);
-
-            // Validate file name
-            if (fileName == null || fileName.trim().isEmpty() || fileName.contains("..")) {
-                System.err.println("❌ Invalid file name: " + fileName);
-                return ResponseEntity.badRequest().build();
-            }
-
-            // Get the file resource
-            Resource resource = doctorPatientHistoryService.getLabReportFile(fileName);
-
-            // ✅ FIXED: Use the correct path for content type detection
-            Path uploadDir = Paths.get("uploads").toAbsolutePath().normalize();
-            Path filePath = uploadDir.resolve(fileName).normalize();
-
-            String contentType = null;
-            try {
-                contentType = Files.probeContentType(filePath);
-                System.out.println("📄 Detected content type: " + contentType);
-            } catch (IOException e) {
-                System.err.println("⚠️ Could not detect content type: " + e.getMessage());
-            }
-
-            if (contentType == null) {
-                // ✅ Set appropriate content types for common file types
-                if (fileName.toLowerCase().endsWith(".pdf")) {
-                    contentType = "application/pdf";
-                } else if (fileName.toLowerCase().endsWith(".docx")) {
-                    contentType = "application/vnd.openxmlformats-officedocument.wordprocessingml.document";
-                } else if (fileName.toLowerCase().endsWith(".doc")) {
-                    contentType = "application/msword";
-                } else if (fileName.toLowerCase().endsWith(".png")) {
-                    contentType = "image/png";
-                } else if (fileName.toLowerCase().endsWith(".jpg") || fileName.toLowerCase().endsWith(".jpeg")) {
-                    contentType = "image/jpeg";
-                } else {
-                    contentType = "application/octet-stream";
-                }
-                System.out.println("📄 Using determined content type: " + contentType);
-            }
-
-            // ✅ Return file inline (preview) and allow browser download
-            return ResponseEntity.ok()
-                    .contentType(MediaType.parseMediaType(contentType))
-                    .header(HttpHeaders.CONTENT_DISPOSITION,
-                            "inline; filename=\"" + fileName + "\"")
-                    .body(resource);
+    public void getLabReportFileByName(@PathVariable String fileName,
+                                       HttpServletRequest request,
+                                       HttpServletResponse response) throws IOException {
+        // Validate file name
+        if (fileName == null || fileName.trim().isEmpty() || fileName.contains("..")) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid file name");
+        }
 
-        } catch (RuntimeException e) {
-            // Log the specific error
-            System.err.println("❌ File access error for '" + fileName + "': " + e.getMessage());
+        Path file = doctorPatientHistoryService.getLabReportFile(fileName);
 
-            // Check if it's a "not found" error
-            if (e.getMessage() != null && e.getMessage().contains("not found")) {
-                return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                        .body(null);
-            } else {
-                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                        .body(null);
-            }
-        } catch (Exception e) {
-            System.err.println("💥 Unexpected error for file '" + fileName + "': " + e.getMessage());
-            e.printStackTrace();
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
-        }
+        // ✅ Return file inline (preview) and allow browser download
+        reportFileStreamer.stream(file, fileName, false, request, response);
     }
-}
\ No newline at end of file
+}
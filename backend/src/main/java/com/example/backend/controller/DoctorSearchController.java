@@ -3,6 +3,8 @@ package com.example.backend.controller;
 import com.example.backend.dto.DoctorProfileResponse;
 import com.example.backend.service.DoctorService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
@@ -17,13 +19,36 @@ public class DoctorSearchController {
     @Autowired
     private DoctorService doctorService;
 
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int DEFAULT_SUGGESTIONS = 8;
+    private static final int MAX_SUGGESTIONS = 20;
+
+    /**
+     * GET /api/doctors?name=smi&specialization=cardio&page=0&size=20
+     * Best matches first. X-Has-Next-Page tells whether another page follows.
+     */
     @GetMapping
     public ResponseEntity<List<DoctorProfileResponse>> searchDoctors(
             @RequestParam(required = false) String name,
-            @RequestParam(required = false) String specialization) {
-
-        return ResponseEntity.ok(doctorService.searchDoctors(name, specialization));
+            @RequestParam(required = false) String specialization,
+            @RequestParam(name = "page", defaultValue = "0") int page,
+            @RequestParam(name = "size", defaultValue = "" + DEFAULT_PAGE_SIZE) int size) {
+        PageRequest pageRequest = PageRequest.of(Math.max(page, 0), Math.max(1, Math.min(size, MAX_PAGE_SIZE)));
+        Slice<DoctorProfileResponse> doctors = doctorService.searchDoctors(name, specialization, pageRequest);
+        return ResponseEntity.ok()
+                .header("X-Has-Next-Page", String.valueOf(doctors.hasNext()))
+                .body(doctors.getContent());
     }
 
-
-}
\ No newline at end of file
+    /**
+     * GET /api/doctors/suggest?q=car&limit=8
+     * Typeahead over name and specialization.
+     */
+    @GetMapping("/suggest")
+    public ResponseEntity<List<DoctorProfileResponse>> suggestDoctors(
+            @RequestParam String q,
+            @RequestParam(name = "limit", defaultValue = "" + DEFAULT_SUGGESTIONS) int limit) {
+        return ResponseEntity.ok(doctorService.suggestDoctors(q, Math.max(1, Math.min(limit, MAX_SUGGESTIONS))));
+    }
+}
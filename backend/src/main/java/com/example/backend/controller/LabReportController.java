@@ -1,18 +1,26 @@
 package com.example.backend.controller;
 
 import com.example.backend.dto.LabReportDto;
-import com.example.backend.service.FileStorageService;
+import com.example.backend.dto.UploadJobDto;
 import com.example.backend.service.LabReportService;
+import com.example.backend.service.LabReportUploadJobs;
+import com.example.backend.service.ReportFileStreamer;
+import jakarta.servlet.http.HttpServletRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.Resource;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.web.PagedModel;
 import org.springframework.http.*;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
+import java.io.UncheckedIOException;
+import java.net.URI;
 import java.util.List;
 
 @RestController
@@ -24,7 +32,16 @@ public class LabReportController {
     private LabReportService labReportService;
 
     @Autowired
-    private FileStorageService fileStorageService;
+    private ReportFileStreamer reportFileStreamer;
+
+    @Autowired
+    private LabReportUploadJobs labReportUploadJobs;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 200;
 
     @PostMapping("/upload-multiple")
     public ResponseEntity<List<LabReportDto>> uploadMultipleReports(
@@ -44,10 +61,48 @@ public class LabReportController {
         return ResponseEntity.ok(created);
     }
 
+    // 🔹 Background upload: 202 with a job id right away, progress at /jobs/{jobId}
+    @PostMapping("/upload-async")
+    public ResponseEntity<UploadJobDto> uploadReportsAsync(
+            @RequestParam("files") MultipartFile[] files,
+            @RequestParam("labRequestId") Integer labRequestId) {
+
+        UploadJobDto job = labReportUploadJobs.submit(files, labRequestId);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/lab-reports/jobs/" + job.getJobId()))
+                .body(job);
+    }
+
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<UploadJobDto> getUploadJob(@PathVariable String jobId) {
+        return ResponseEntity.ok(labReportUploadJobs.getJob(jobId));
+    }
+
     @GetMapping
-    public ResponseEntity<List<LabReportDto>> getAllReports() {
-        List<LabReportDto> reports = labReportService.getAllReports();
-        return ResponseEntity.ok(reports);
+    public ResponseEntity<PagedModel<LabReportDto>> getAllReports(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int size) {
+        PageRequest pageRequest = PageRequest.of(Math.max(page, 0), Math.max(1, Math.min(size, MAX_PAGE_SIZE)));
+        return ResponseEntity.ok(new PagedModel<>(labReportService.getAllReports(pageRequest)));
+    }
+
+    // 🔹 Every report as newline-delimited JSON, written while it is read from the database
+    @GetMapping(value = "/stream", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> streamAllReports() {
+        StreamingResponseBody body = out -> {
+            ObjectWriter writer = objectMapper.writerFor(LabReportDto.class);
+            labReportService.streamAllReports(report -> {
+                try {
+                    out.write(writer.writeValueAsBytes(report));
+                    out.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(body);
     }
 
     @GetMapping("/lab-request/{labRequestId}")
@@ -58,18 +113,9 @@ public class LabReportController {
 
     // 🔹 New endpoint to serve uploaded files
     @GetMapping("/files/{fileName:.+}")
-    public ResponseEntity<Resource> getFile(@PathVariable String fileName) {
-        Resource resource = fileStorageService.loadFileAsResource(fileName);
-
-        String contentType = "application/octet-stream";
-        try {
-            Path path = resource.getFile().toPath();
-            contentType = Files.probeContentType(path);
-        } catch (IOException ignored) {}
-
-        return ResponseEntity.ok()
-                .contentType(MediaType.parseMediaType(contentType))
-                .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + resource.getFilename() + "\"")
-                .body(resource);
+    public void getFile(@PathVariable String fileName,
+                        HttpServletRequest request,
+                        HttpServletResponse response) throws IOException {
+        reportFileStreamer.stream(fileName, false, request, response);
     }
 }
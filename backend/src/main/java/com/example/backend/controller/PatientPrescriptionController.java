@@ -1,13 +1,11 @@
 package com.example.backend.controller;
 
 import com.example.backend.dto.PrescriptionResponse;
-import com.example.backend.model.User;
-import com.example.backend.repository.UserRepository;
+import com.example.backend.security.CurrentUser;
 import com.example.backend.service.PrescriptionService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
@@ -22,16 +20,11 @@ public class PatientPrescriptionController {
     private PrescriptionService prescriptionService;
 
     @Autowired
-    private UserRepository userRepository;
+    private CurrentUser currentUser;
 
     @GetMapping
-    public ResponseEntity<?> getPatientPrescriptions(Authentication authentication) {
-        String email = authentication.getName();
-
-        User patient = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("Patient not found"));
-
-        List<PrescriptionResponse> prescriptions = prescriptionService.getPrescriptionsForPatient(patient.getUserId());
+    public ResponseEntity<?> getPatientPrescriptions() {
+        List<PrescriptionResponse> prescriptions = prescriptionService.getPrescriptionsForPatient(currentUser.userId());
         return ResponseEntity.ok(prescriptions);
     }
 }
@@ -1,22 +1,17 @@
 package com.example.backend.controller;
 
 import com.example.backend.dto.ViewLabReportDto;
-import com.example.backend.model.User;
-import com.example.backend.repository.UserRepository;
+import com.example.backend.security.CurrentUser;
+import com.example.backend.service.ReportFileStreamer;
 import com.example.backend.service.ViewLabReportService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.io.IOException;
 import java.util.List;
 
 @RestController
@@ -28,18 +23,17 @@ public class ViewLabReportController {
     private ViewLabReportService viewLabReportService;
 
     @Autowired
-    private UserRepository userRepository;
+    private CurrentUser currentUser;
+
+    @Autowired
+    private ReportFileStreamer reportFileStreamer;
 
     /**
      * ✅ Get all lab reports for the logged-in patient
      */
     @GetMapping
-    public ResponseEntity<?> getPatientLabReports(Authentication authentication) {
-        String email = authentication.getName();
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
-        List<ViewLabReportDto> reports = viewLabReportService.getLabReportsForPatient(user.getUserId());
+    public ResponseEntity<?> getPatientLabReports() {
+        List<ViewLabReportDto> reports = viewLabReportService.getLabReportsForPatient(currentUser.userId());
 
         if (reports.isEmpty()) {
             return ResponseEntity.ok("No lab reports available.");
@@ -52,35 +46,10 @@ public class ViewLabReportController {
      * ✅ Fetch and stream lab report file (PDF, image, etc.)
      */
     @GetMapping("/file/{fileName:.+}")
-    public ResponseEntity<Resource> getLabReportFile(@PathVariable String fileName) {
-        try {
-            // ✅ Path to your uploads folder (project root level)
-            Path uploadDir = Paths.get("uploads").toAbsolutePath().normalize();
-
-            // ✅ Resolve the requested file safely
-            Path filePath = uploadDir.resolve(fileName).normalize();
-            Resource resource = new UrlResource(filePath.toUri());
-
-            if (!resource.exists() || !resource.isReadable()) {
-                return ResponseEntity.notFound().build();
-            }
-
-            // ✅ Detect file content type automatically
-            String contentType = Files.probeContentType(filePath);
-            if (contentType == null) {
-                contentType = "application/octet-stream";
-            }
-
-            // ✅ Return file inline (preview) and allow browser download
-            return ResponseEntity.ok()
-                    .contentType(MediaType.parseMediaType(contentType))
-                    .header(HttpHeaders.CONTENT_DISPOSITION,
-                            "inline; filename=\"" + resource.getFilename() + "\"")
-                    .body(resource);
-
-        } catch (Exception e) {
-            e.printStackTrace();
-            return ResponseEntity.internalServerError().build();
-        }
+    public void getLabReportFile(@PathVariable String fileName,
+                                 HttpServletRequest request,
+                                 HttpServletResponse response) throws IOException {
+        // ✅ Return file inline (preview) and allow browser download
+        reportFileStreamer.stream(fileName, false, request, response);
     }
 }
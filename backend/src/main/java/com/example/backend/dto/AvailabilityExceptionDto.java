@@ -0,0 +1,34 @@
+package com.example.backend.dto;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+// Time off (available = false, whole day when start/end are omitted) or extra hours (available = true) on one date
+public class AvailabilityExceptionDto {
+
+    private LocalDate date;
+    private LocalTime start;
+    private LocalTime end;
+    private boolean available;
+
+    public AvailabilityExceptionDto() {}
+
+    public AvailabilityExceptionDto(LocalDate date, LocalTime start, LocalTime end, boolean available) {
+        this.date = date;
+        this.start = start;
+        this.end = end;
+        this.available = available;
+    }
+
+    public LocalDate getDate() { return date; }
+    public void setDate(LocalDate date) { this.date = date; }
+
+    public LocalTime getStart() { return start; }
+    public void setStart(LocalTime start) { this.start = start; }
+
+    public LocalTime getEnd() { return end; }
+    public void setEnd(LocalTime end) { this.end = end; }
+
+    public boolean isAvailable() { return available; }
+    public void setAvailable(boolean available) { this.available = available; }
+}
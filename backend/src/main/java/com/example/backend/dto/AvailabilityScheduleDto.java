@@ -0,0 +1,29 @@
+package com.example.backend.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// A doctor's structured availability: weekly windows, dated exceptions and the appointment length
+public class AvailabilityScheduleDto {
+
+    private Integer slotMinutes;
+    private List<WeeklyWindowDto> weekly = new ArrayList<>();
+    private List<AvailabilityExceptionDto> exceptions = new ArrayList<>();
+
+    public AvailabilityScheduleDto() {}
+
+    public AvailabilityScheduleDto(Integer slotMinutes, List<WeeklyWindowDto> weekly, List<AvailabilityExceptionDto> exceptions) {
+        this.slotMinutes = slotMinutes;
+        this.weekly = weekly;
+        this.exceptions = exceptions;
+    }
+
+    public Integer getSlotMinutes() { return slotMinutes; }
+    public void setSlotMinutes(Integer slotMinutes) { this.slotMinutes = slotMinutes; }
+
+    public List<WeeklyWindowDto> getWeekly() { return weekly; }
+    public void setWeekly(List<WeeklyWindowDto> weekly) { this.weekly = weekly; }
+
+    public List<AvailabilityExceptionDto> getExceptions() { return exceptions; }
+    public void setExceptions(List<AvailabilityExceptionDto> exceptions) { this.exceptions = exceptions; }
+}
@@ -0,0 +1,19 @@
+package com.example.backend.dto;
+
+import java.time.LocalDateTime;
+
+// Start of a live (not cancelled) appointment, as read by the free-slot engine
+public class BookedSlotDto {
+
+    private final Integer doctorId;
+    private final LocalDateTime start;
+
+    public BookedSlotDto(Integer doctorId, LocalDateTime start) {
+        this.doctorId = doctorId;
+        this.start = start;
+    }
+
+    public Integer getDoctorId() { return doctorId; }
+
+    public LocalDateTime getStart() { return start; }
+}
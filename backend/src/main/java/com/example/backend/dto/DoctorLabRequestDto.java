@@ -1,5 +1,7 @@
 package com.example.backend.dto;
 
+import com.example.backend.model.LabRequest;
+
 public class DoctorLabRequestDto {
 
     private Integer id;
@@ -18,6 +20,11 @@ public class DoctorLabRequestDto {
         this.patientName = patientName;
     }
 
+    // Constructor for JPQL
+    public DoctorLabRequestDto(Integer id, LabRequest.Status status, String testType, Integer appointmentId, String patientName) {
+        this(id, status != null ? status.name() : null, testType, appointmentId, patientName);
+    }
+
     public Integer getId() {
         return id;
     }
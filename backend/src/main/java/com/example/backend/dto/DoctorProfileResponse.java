@@ -1,6 +1,8 @@
 package com.example.backend.dto;
 
 public class DoctorProfileResponse {
+    // Set on search results, so patients can ask for the doctor's free slots
+    private Integer doctorId;
     private String name;
     private String email;
     private String specialization;
@@ -66,4 +68,12 @@ public class DoctorProfileResponse {
     public void setProfileComplete(boolean profileComplete) {
         this.profileComplete = profileComplete;
     }
+
+    public Integer getDoctorId() {
+        return doctorId;
+    }
+
+    public void setDoctorId(Integer doctorId) {
+        this.doctorId = doctorId;
+    }
 }
@@ -0,0 +1,21 @@
+package com.example.backend.dto;
+
+// The doctor columns the free-slot engine needs
+public class DoctorScheduleSettingsDto {
+
+    private final Integer doctorId;
+    private final Integer slotMinutes;
+    private final String availableTimes;
+
+    public DoctorScheduleSettingsDto(Integer doctorId, Integer slotMinutes, String availableTimes) {
+        this.doctorId = doctorId;
+        this.slotMinutes = slotMinutes;
+        this.availableTimes = availableTimes;
+    }
+
+    public Integer getDoctorId() { return doctorId; }
+
+    public Integer getSlotMinutes() { return slotMinutes; }
+
+    public String getAvailableTimes() { return availableTimes; }
+}
@@ -0,0 +1,40 @@
+package com.example.backend.dto;
+
+/** One doctor as held by the in-memory search index */
+public class DoctorSearchEntry {
+
+    private final Integer id;
+    private final String name;
+    private final String email;
+    private final String specialization;
+    private final String licenseNumber;
+    private final String availableTimes;
+
+    public DoctorSearchEntry(Integer id, String name, String email, String specialization,
+                             String licenseNumber, String availableTimes) {
+        this.id = id;
+        this.name = name;
+        this.email = email;
+        this.specialization = specialization;
+        this.licenseNumber = licenseNumber;
+        this.availableTimes = availableTimes;
+    }
+
+    public Integer getId() { return id; }
+
+    public String getName() { return name; }
+
+    public String getEmail() { return email; }
+
+    public String getSpecialization() { return specialization; }
+
+    public String getLicenseNumber() { return licenseNumber; }
+
+    public String getAvailableTimes() { return availableTimes; }
+
+    public DoctorProfileResponse toProfile() {
+        DoctorProfileResponse profile = new DoctorProfileResponse(name, email, specialization, licenseNumber, availableTimes, true);
+        profile.setDoctorId(id);
+        return profile;
+    }
+}
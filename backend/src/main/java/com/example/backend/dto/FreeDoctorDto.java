@@ -0,0 +1,44 @@
+package com.example.backend.dto;
+
+import java.time.LocalDateTime;
+
+// A doctor who can take an appointment starting at the requested time
+public class FreeDoctorDto {
+
+    private Integer doctorId;
+    private String name;
+    private String email;
+    private String specialization;
+    private LocalDateTime start;
+    private LocalDateTime end;
+
+    public FreeDoctorDto() {}
+
+    public FreeDoctorDto(Integer doctorId, String name, String email, String specialization,
+                         LocalDateTime start, LocalDateTime end) {
+        this.doctorId = doctorId;
+        this.name = name;
+        this.email = email;
+        this.specialization = specialization;
+        this.start = start;
+        this.end = end;
+    }
+
+    public Integer getDoctorId() { return doctorId; }
+    public void setDoctorId(Integer doctorId) { this.doctorId = doctorId; }
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public String getEmail() { return email; }
+    public void setEmail(String email) { this.email = email; }
+
+    public String getSpecialization() { return specialization; }
+    public void setSpecialization(String specialization) { this.specialization = specialization; }
+
+    public LocalDateTime getStart() { return start; }
+    public void setStart(LocalDateTime start) { this.start = start; }
+
+    public LocalDateTime getEnd() { return end; }
+    public void setEnd(LocalDateTime end) { this.end = end; }
+}
@@ -0,0 +1,22 @@
+package com.example.backend.dto;
+
+import java.time.LocalDateTime;
+
+public class FreeSlotDto {
+
+    private LocalDateTime start;
+    private LocalDateTime end;
+
+    public FreeSlotDto() {}
+
+    public FreeSlotDto(LocalDateTime start, LocalDateTime end) {
+        this.start = start;
+        this.end = end;
+    }
+
+    public LocalDateTime getStart() { return start; }
+    public void setStart(LocalDateTime start) { this.start = start; }
+
+    public LocalDateTime getEnd() { return end; }
+    public void setEnd(LocalDateTime end) { this.end = end; }
+}
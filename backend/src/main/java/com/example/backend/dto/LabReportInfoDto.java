@@ -6,6 +6,7 @@ import com.example.backend.model.LabRequest;
 import java.time.LocalDateTime;
 
 public class LabReportInfoDto {
+    private Integer appointmentId;
     private Integer labRequestId;
     private String testType;
     private String requestStatus;
@@ -41,7 +42,16 @@ public class LabReportInfoDto {
         this.labTechName = labTechName;
     }
 
+    // Constructor for the per-appointment timeline query
+    public LabReportInfoDto(Integer appointmentId, Integer labRequestId, String testType,
+                            LabRequest.Status labRequestStatus, Integer labReportId, String reportFile,
+                            LocalDateTime reportDateIssued, String labTechName) {
+        this(labRequestId, testType, labRequestStatus, labReportId, reportFile, reportDateIssued, labTechName);
+        this.appointmentId = appointmentId;
+    }
+
     // Getters
+    public Integer getAppointmentId() { return appointmentId; }
     public Integer getLabRequestId() { return labRequestId; }
     public String getTestType() { return testType; }
     public String getRequestStatus() { return requestStatus; }
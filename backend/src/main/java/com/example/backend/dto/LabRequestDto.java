@@ -1,5 +1,7 @@
 package com.example.backend.dto;
 
+import com.example.backend.model.LabRequest;
+
 public class LabRequestDto {
     private Integer id;
     private String testType;
@@ -19,6 +21,11 @@ public class LabRequestDto {
         this.patientName = patientName;
     }
 
+    // Constructor for JPQL
+    public LabRequestDto(Integer id, String testType, LabRequest.Status status, Integer appointmentId, String doctorName, String patientName) {
+        this(id, testType, status != null ? status.name() : null, appointmentId, doctorName, patientName);
+    }
+
     public Integer getId() {
         return id;
     }
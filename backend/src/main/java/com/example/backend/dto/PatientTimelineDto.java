@@ -0,0 +1,34 @@
+package com.example.backend.dto;
+
+import java.util.List;
+
+// One page of a patient's history, newest appointment first
+public class PatientTimelineDto {
+    private String patientName;
+    private String patientEmail;
+    private String gender;
+    private Integer age;
+    private String address;
+    private List<TimelineAppointmentDto> appointments;
+    // Pass back as ?cursor= to get the next (older) page, null on the last page
+    private String nextCursor;
+
+    public PatientTimelineDto(PatientHistoryDto patient, List<TimelineAppointmentDto> appointments, String nextCursor) {
+        this.patientName = patient.getPatientName();
+        this.patientEmail = patient.getPatientEmail();
+        this.gender = patient.getGender();
+        this.age = patient.getAge();
+        this.address = patient.getAddress();
+        this.appointments = appointments;
+        this.nextCursor = nextCursor;
+    }
+
+    public String getPatientName() { return patientName; }
+    public String getPatientEmail() { return patientEmail; }
+    public String getGender() { return gender; }
+    public Integer getAge() { return age; }
+    public String getAddress() { return address; }
+    public List<TimelineAppointmentDto> getAppointments() { return appointments; }
+    public String getNextCursor() { return nextCursor; }
+    public boolean isHasMore() { return nextCursor != null; }
+}
@@ -19,6 +19,19 @@ public class PrescriptionDto {
 
     public PrescriptionDto() {}
 
+    // Constructor for JPQL
+    public PrescriptionDto(Integer id, String notes, LocalDateTime dateIssued, Integer appointmentId) {
+        this.id = id;
+        this.notes = notes;
+        this.dateIssued = dateIssued;
+        this.appointmentId = appointmentId;
+    }
+
+    public PrescriptionDto(Integer id, String notes, LocalDateTime dateIssued, Integer appointmentId, String patientName) {
+        this(id, notes, dateIssued, appointmentId);
+        this.patientName = patientName;
+    }
+
     // Getters and setters
     public Integer getId() { return id; }
     public void setId(Integer id) { this.id = id; }
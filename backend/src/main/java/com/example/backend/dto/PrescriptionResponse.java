@@ -1,8 +1,12 @@
 package com.example.backend.dto;
 
 import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 
 public class PrescriptionResponse {
+    private static final DateTimeFormatter DATE = DateTimeFormatter.ISO_LOCAL_DATE;
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("HH:mm");
+
     private Integer id;
     private String notes;
     private LocalDateTime dateIssued;
@@ -17,6 +21,15 @@ public class PrescriptionResponse {
         this.appointment = appointment;
     }
 
+    // Constructor for JPQL: appointment date and time are sent as "yyyy-MM-dd" and "HH:mm"
+    public PrescriptionResponse(Integer id, String notes, LocalDateTime dateIssued, Integer appointmentId,
+                                LocalDateTime appointmentDateTime, String doctorName, String doctorSpecialization) {
+        this(id, notes, dateIssued, new AppointmentInfo(appointmentId,
+                appointmentDateTime != null ? DATE.format(appointmentDateTime) : null,
+                appointmentDateTime != null ? TIME.format(appointmentDateTime) : null,
+                new DoctorInfo(doctorName, doctorSpecialization)));
+    }
+
     // Getters and Setters
     public Integer getId() {
         return id;
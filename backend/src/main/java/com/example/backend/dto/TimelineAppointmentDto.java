@@ -0,0 +1,39 @@
+package com.example.backend.dto;
+
+import com.example.backend.model.AppointmentStatus;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// One appointment of a patient's timeline, with its prescriptions and lab reports nested
+public class TimelineAppointmentDto {
+    private Integer appointmentId;
+    private String doctorName;
+    private LocalDateTime appointmentDate;
+    private String status;
+    private List<PrescriptionDto> prescriptions = new ArrayList<>();
+    private List<LabReportInfoDto> labReports = new ArrayList<>();
+
+    // Constructor for JPQL
+    public TimelineAppointmentDto(Integer appointmentId, String doctorName,
+                                  LocalDateTime appointmentDate, AppointmentStatus status) {
+        this.appointmentId = appointmentId;
+        this.doctorName = doctorName;
+        this.appointmentDate = appointmentDate;
+        this.status = status != null ? status.name() : null;
+    }
+
+    public Integer getAppointmentId() { return appointmentId; }
+    public void setAppointmentId(Integer appointmentId) { this.appointmentId = appointmentId; }
+    public String getDoctorName() { return doctorName; }
+    public void setDoctorName(String doctorName) { this.doctorName = doctorName; }
+    public LocalDateTime getAppointmentDate() { return appointmentDate; }
+    public void setAppointmentDate(LocalDateTime appointmentDate) { this.appointmentDate = appointmentDate; }
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+    public List<PrescriptionDto> getPrescriptions() { return prescriptions; }
+    public void setPrescriptions(List<PrescriptionDto> prescriptions) { this.prescriptions = prescriptions; }
+    public List<LabReportInfoDto> getLabReports() { return labReports; }
+    public void setLabReports(List<LabReportInfoDto> labReports) { this.labReports = labReports; }
+}
@@ -0,0 +1,105 @@
+package com.example.backend.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Status of a background lab report upload: QUEUED, RUNNING, COMPLETED or FAILED
+public class UploadJobDto {
+
+    private String jobId;
+    private Integer labRequestId;
+    private String status;
+    private int totalFiles;
+    private int storedFiles;
+    private List<LabReportDto> reports;
+    private String error;
+    private LocalDateTime submittedAt;
+    private LocalDateTime finishedAt;
+
+    public UploadJobDto() {}
+
+    public UploadJobDto(String jobId, Integer labRequestId, String status, int totalFiles, int storedFiles,
+                        List<LabReportDto> reports, String error, LocalDateTime submittedAt, LocalDateTime finishedAt) {
+        this.jobId = jobId;
+        this.labRequestId = labRequestId;
+        this.status = status;
+        this.totalFiles = totalFiles;
+        this.storedFiles = storedFiles;
+        this.reports = reports;
+        this.error = error;
+        this.submittedAt = submittedAt;
+        this.finishedAt = finishedAt;
+    }
+
+    public String getJobId() {
+        return jobId;
+    }
+
+    public void setJobId(String jobId) {
+        this.jobId = jobId;
+    }
+
+    public Integer getLabRequestId() {
+        return labRequestId;
+    }
+
+    public void setLabRequestId(Integer labRequestId) {
+        this.labRequestId = labRequestId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public int getTotalFiles() {
+        return totalFiles;
+    }
+
+    public void setTotalFiles(int totalFiles) {
+        this.totalFiles = totalFiles;
+    }
+
+    public int getStoredFiles() {
+        return storedFiles;
+    }
+
+    public void setStoredFiles(int storedFiles) {
+        this.storedFiles = storedFiles;
+    }
+
+    public List<LabReportDto> getReports() {
+        return reports;
+    }
+
+    public void setReports(List<LabReportDto> reports) {
+        this.reports = reports;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public LocalDateTime getSubmittedAt() {
+        return submittedAt;
+    }
+
+    public void setSubmittedAt(LocalDateTime submittedAt) {
+        this.submittedAt = submittedAt;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(LocalDateTime finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+}
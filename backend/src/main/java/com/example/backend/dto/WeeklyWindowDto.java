@@ -0,0 +1,28 @@
+package com.example.backend.dto;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+
+public class WeeklyWindowDto {
+
+    private DayOfWeek day;
+    private LocalTime start;
+    private LocalTime end;
+
+    public WeeklyWindowDto() {}
+
+    public WeeklyWindowDto(DayOfWeek day, LocalTime start, LocalTime end) {
+        this.day = day;
+        this.start = start;
+        this.end = end;
+    }
+
+    public DayOfWeek getDay() { return day; }
+    public void setDay(DayOfWeek day) { this.day = day; }
+
+    public LocalTime getStart() { return start; }
+    public void setStart(LocalTime start) { this.start = start; }
+
+    public LocalTime getEnd() { return end; }
+    public void setEnd(LocalTime end) { this.end = end; }
+}
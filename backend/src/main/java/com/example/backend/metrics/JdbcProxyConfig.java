@@ -0,0 +1,53 @@
+package com.example.backend.metrics;
+
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+import javax.sql.DataSource;
+
+/**
+ * Puts a datasource-proxy in front of the connection pool, so every statement (JPA, JdbcTemplate, Flyway) passes
+ * the statement counter and the slow-query log, and marks Spring Data repository calls so statements can be
+ * traced back to the repository method that issued them.
+ */
+@Configuration
+public class JdbcProxyConfig {
+
+    // Static: a post-processor has to exist before the beans it changes
+    @Bean
+    static BeanPostProcessor jdbcProxyDataSource(ObjectProvider<SlowQueryLog> slowQueryLog) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)) {
+                    // unwrap() still reaches the pool, so Hikari metrics and health keep working
+                    return ProxyDataSourceBuilder.create(beanName, dataSource)
+                            .listener(new SqlStatementCounter.Listener())
+                            .listener(slowQueryLog.getObject())
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    static BeanPostProcessor repositoryMethodTracking() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+                    factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                            (proxyFactory, information) -> proxyFactory.addAdvice(
+                                    RepositoryMethodContext.interceptor(information.getRepositoryInterface()))));
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.backend.metrics;
+
+import com.example.backend.security.PasswordHashingExecutor;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.PropertySource;
+
+/**
+ * Metrics wiring. Latency per route (http.server.requests) and per repository method
+ * (spring.data.repository.invocations) come from Spring Boot, SQL statements per request from the JDBC proxy
+ * (JdbcProxyConfig). metrics.properties turns on their histograms and serves /actuator/prometheus on a
+ * loopback-only management port; any of it can be overridden in application.properties.
+ */
+@Configuration
+@PropertySource("classpath:metrics.properties")
+public class MetricsConfig {
+
+    @Bean
+    MeterBinder passwordHashingQueue(PasswordHashingExecutor passwordHashingExecutor) {
+        return registry -> Gauge.builder("security.password.hashing.queue", passwordHashingExecutor,
+                        PasswordHashingExecutor::getQueueDepth)
+                .description("Password hashes waiting for a hashing thread")
+                .register(registry);
+    }
+}
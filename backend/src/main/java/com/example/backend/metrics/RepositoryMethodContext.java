@@ -0,0 +1,45 @@
+package com.example.backend.metrics;
+
+import org.aopalliance.intercept.MethodInterceptor;
+
+import java.lang.reflect.Method;
+
+/**
+ * The repository method the current thread is inside, set by an advice on every Spring Data repository
+ * (JdbcProxyConfig), so a statement can be traced back to the call that issued it.
+ */
+final class RepositoryMethodContext {
+
+    record Origin(Class<?> repository, Method method) {
+        @Override
+        public String toString() {
+            return repository.getSimpleName() + "." + method.getName();
+        }
+    }
+
+    private static final ThreadLocal<Origin> CURRENT = new ThreadLocal<>();
+
+    private RepositoryMethodContext() {
+    }
+
+    /** The innermost repository call on this thread, or null outside of one */
+    static Origin current() {
+        return CURRENT.get();
+    }
+
+    static MethodInterceptor interceptor(Class<?> repositoryInterface) {
+        return invocation -> {
+            Origin previous = CURRENT.get();
+            CURRENT.set(new Origin(repositoryInterface, invocation.getMethod()));
+            try {
+                return invocation.proceed();
+            } finally {
+                if (previous != null) {
+                    CURRENT.set(previous);
+                } else {
+                    CURRENT.remove();
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.backend.metrics;
+
+import jakarta.annotation.PreDestroy;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Statement log that replaces spring.jpa.show-sql: only statements slower than sql.log.slow-threshold-ms, plus a
+ * sql.log.sample-rate fraction of the rest, are logged, with their time, bind parameter types (never values,
+ * they are patient data) and the repository method (or else the first application frame) that issued them.
+ * The request thread only drops an entry into a bounded buffer; a single writer thread does the logging, and
+ * entries that don't fit are counted and reported instead of blocking the request.
+ */
+@Component
+public class SlowQueryLog implements QueryExecutionListener {
+
+    private static final Logger log = LoggerFactory.getLogger(SlowQueryLog.class);
+
+    private static final String APPLICATION_PACKAGE = "com.example.backend.";
+    private static final String OWN_PACKAGE = SlowQueryLog.class.getPackageName() + ".";
+    private static final StackWalker STACK_WALKER = StackWalker.getInstance();
+
+    record Entry(boolean slow, long millis, boolean success, String sql, String parameters, String origin) {}
+
+    private final long thresholdMillis;
+    private final double sampleRate;
+    private final BlockingQueue<Entry> buffer;
+    private final AtomicLong dropped = new AtomicLong();
+    private final Thread writer;
+
+    public SlowQueryLog(@Value("${sql.log.slow-threshold-ms:200}") long thresholdMillis,
+                        @Value("${sql.log.sample-rate:0}") double sampleRate,
+                        @Value("${sql.log.buffer-size:1024}") int bufferSize,
+                        Environment environment) {
+        this.thresholdMillis = thresholdMillis;
+        this.sampleRate = sampleRate;
+        this.buffer = new ArrayBlockingQueue<>(bufferSize);
+        this.writer = new Thread(this::drain, "sql-log-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+
+        if (environment.getProperty("spring.jpa.show-sql", Boolean.class, false)) {
+            log.warn("spring.jpa.show-sql is on: every statement is printed to stdout on the request thread. " +
+                    "Turn it off; slow statements are logged by {} (sql.log.*)", SlowQueryLog.class.getSimpleName());
+        }
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        long millis = execInfo.getElapsedTime();
+        boolean slow = millis >= thresholdMillis;
+        if (!slow && (sampleRate <= 0 || ThreadLocalRandom.current().nextDouble() >= sampleRate)) {
+            return;
+        }
+        // Only the origin has to be taken here, on the thread that ran the statement
+        Entry entry = new Entry(slow, millis, execInfo.isSuccess(), sql(queryInfoList), parameters(queryInfoList), origin());
+        if (!buffer.offer(entry)) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    private void drain() {
+        try {
+            while (true) {
+                write(buffer.take());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void write(Entry entry) {
+        long lost = dropped.getAndSet(0);
+        if (lost > 0) {
+            log.warn("{} statement log entries dropped, the log buffer was full", lost);
+        }
+        String outcome = entry.success() ? "" : " (failed)";
+        if (entry.slow()) {
+            log.warn("Slow SQL {} ms{} from {}: {} params {}", entry.millis(), outcome, entry.origin(), entry.sql(), entry.parameters());
+        } else {
+            log.info("SQL {} ms{} from {}: {} params {}", entry.millis(), outcome, entry.origin(), entry.sql(), entry.parameters());
+        }
+    }
+
+    private static String sql(List<QueryInfo> queries) {
+        return queries.stream().map(QueryInfo::getQuery).collect(Collectors.joining("; "));
+    }
+
+    // "(String, Integer, null)", "(Integer) x 250" for a batch of 250 parameter sets
+    static String parameters(List<QueryInfo> queries) {
+        List<String> shapes = new ArrayList<>(queries.size());
+        for (QueryInfo query : queries) {
+            List<List<ParameterSetOperation>> sets = query.getParametersList();
+            if (sets.isEmpty()) {
+                continue;
+            }
+            String shape = sets.get(0).stream()
+                    .sorted(Comparator.comparingInt(SlowQueryLog::indexOf))
+                    .map(SlowQueryLog::typeOf)
+                    .collect(Collectors.joining(", ", "(", ")"));
+            shapes.add(sets.size() > 1 ? shape + " x " + sets.size() : shape);
+        }
+        return shapes.isEmpty() ? "()" : String.join("; ", shapes);
+    }
+
+    private static int indexOf(ParameterSetOperation operation) {
+        return operation.getArgs()[0] instanceof Integer index ? index : 0;
+    }
+
+    private static String typeOf(ParameterSetOperation operation) {
+        Object[] args = operation.getArgs();
+        if (ParameterSetOperation.isSetNullParameterOperation(operation) || args.length < 2 || args[1] == null) {
+            return "null";
+        }
+        return args[1].getClass().getSimpleName();
+    }
+
+    private static String origin() {
+        RepositoryMethodContext.Origin repositoryMethod = RepositoryMethodContext.current();
+        if (repositoryMethod != null) {
+            return repositoryMethod.toString();
+        }
+        // e.g. JdbcTemplate calls and lazy loading outside of a repository method
+        return STACK_WALKER.walk(frames -> frames
+                .filter(frame -> frame.getClassName().startsWith(APPLICATION_PACKAGE)
+                        && !frame.getClassName().startsWith(OWN_PACKAGE))
+                .findFirst()
+                .map(frame -> simpleName(frame.getClassName()) + "." + frame.getMethodName())
+                .orElse("unknown"));
+    }
+
+    private static String simpleName(String className) {
+        return className.substring(className.lastIndexOf('.') + 1);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        writer.interrupt();
+        List<Entry> remaining = new ArrayList<>();
+        buffer.drainTo(remaining);
+        remaining.forEach(this::write);
+    }
+}
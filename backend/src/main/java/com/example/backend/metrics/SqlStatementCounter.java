@@ -0,0 +1,46 @@
+package com.example.backend.metrics;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+import java.util.List;
+
+/**
+ * SQL statements sent by the current thread between {@link #start()} and {@link #stop()}, counted by a listener
+ * on the proxy around the connection pool, so JPA, JdbcTemplate and Flyway statements all count.
+ * A JDBC batch is one round trip and counts once.
+ */
+final class SqlStatementCounter {
+
+    private static final ThreadLocal<int[]> COUNT = new ThreadLocal<>();
+
+    private SqlStatementCounter() {
+    }
+
+    static void start() {
+        COUNT.set(new int[1]);
+    }
+
+    /** Statements since start(), and stop counting on this thread */
+    static int stop() {
+        int[] count = COUNT.get();
+        COUNT.remove();
+        return count != null ? count[0] : 0;
+    }
+
+    static final class Listener implements QueryExecutionListener {
+
+        @Override
+        public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        }
+
+        @Override
+        public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+            int[] count = COUNT.get();
+            if (count != null) {
+                count[0]++;
+            }
+        }
+    }
+}
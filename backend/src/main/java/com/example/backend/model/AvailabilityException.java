@@ -0,0 +1,88 @@
+package com.example.backend.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+// A one-off change on a date: time off (whole day when start/end are null) or extra hours
+@Entity
+@Table(name = "doctor_availability_exception")
+public class AvailabilityException {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    @Column(name = "doctor_id", nullable = false)
+    private Integer doctorId;
+
+    @Column(name = "exception_date", nullable = false)
+    private LocalDate date;
+
+    @Column(name = "start_time")
+    private LocalTime startTime;
+
+    @Column(name = "end_time")
+    private LocalTime endTime;
+
+    // false = not available in this range, true = available in addition to the weekly windows
+    @Column(name = "available", nullable = false)
+    private boolean available;
+
+    public AvailabilityException() {
+    }
+
+    public AvailabilityException(Integer doctorId, LocalDate date, LocalTime startTime, LocalTime endTime, boolean available) {
+        this.doctorId = doctorId;
+        this.date = date;
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.available = available;
+    }
+
+    // Getters & Setters
+    public Integer getId() {
+        return id;
+    }
+
+    public Integer getDoctorId() {
+        return doctorId;
+    }
+
+    public void setDoctorId(Integer doctorId) {
+        this.doctorId = doctorId;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public void setDate(LocalDate date) {
+        this.date = date;
+    }
+
+    public LocalTime getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(LocalTime startTime) {
+        this.startTime = startTime;
+    }
+
+    public LocalTime getEndTime() {
+        return endTime;
+    }
+
+    public void setEndTime(LocalTime endTime) {
+        this.endTime = endTime;
+    }
+
+    public boolean isAvailable() {
+        return available;
+    }
+
+    public void setAvailable(boolean available) {
+        this.available = available;
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.backend.model;
+
+import jakarta.persistence.*;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+
+// A recurring weekly opening, e.g. every Monday 09:00-17:00
+@Entity
+@Table(name = "doctor_availability_window")
+public class AvailabilityWindow {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    @Column(name = "doctor_id", nullable = false)
+    private Integer doctorId;
+
+    // ISO day number, Monday = 1
+    @Column(name = "day_of_week", nullable = false)
+    private Integer dayOfWeek;
+
+    @Column(name = "start_time", nullable = false)
+    private LocalTime startTime;
+
+    @Column(name = "end_time", nullable = false)
+    private LocalTime endTime;
+
+    public AvailabilityWindow() {
+    }
+
+    public AvailabilityWindow(Integer doctorId, DayOfWeek dayOfWeek, LocalTime startTime, LocalTime endTime) {
+        this.doctorId = doctorId;
+        this.dayOfWeek = dayOfWeek.getValue();
+        this.startTime = startTime;
+        this.endTime = endTime;
+    }
+
+    // Getters & Setters
+    public Integer getId() {
+        return id;
+    }
+
+    public Integer getDoctorId() {
+        return doctorId;
+    }
+
+    public void setDoctorId(Integer doctorId) {
+        this.doctorId = doctorId;
+    }
+
+    public DayOfWeek getDayOfWeek() {
+        return DayOfWeek.of(dayOfWeek);
+    }
+
+    public void setDayOfWeek(DayOfWeek dayOfWeek) {
+        this.dayOfWeek = dayOfWeek.getValue();
+    }
+
+    public LocalTime getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(LocalTime startTime) {
+        this.startTime = startTime;
+    }
+
+    public LocalTime getEndTime() {
+        return endTime;
+    }
+
+    public void setEndTime(LocalTime endTime) {
+        this.endTime = endTime;
+    }
+}
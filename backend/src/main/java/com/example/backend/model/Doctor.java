@@ -19,6 +19,10 @@ public class Doctor {
 
     @Column(length = 1000)
     private String availableTimes;
+
+    // Appointment length in minutes; null = appointments.default-slot-minutes
+    @Column(name = "slot_minutes")
+    private Integer slotMinutes;
     // Constructors
     public Doctor() {}
 
@@ -69,4 +73,12 @@ public class Doctor {
     public void setAvailableTimes(String availableTimes) {
         this.availableTimes = availableTimes;
     }
+
+    public Integer getSlotMinutes() {
+        return slotMinutes;
+    }
+
+    public void setSlotMinutes(Integer slotMinutes) {
+        this.slotMinutes = slotMinutes;
+    }
 }
@@ -14,6 +14,10 @@ public class LabReport {
     @Column(name = "report_file", length = 255)
     private String reportFile;
 
+    // File name as uploaded, for downloads (reportFile is the content hash)
+    @Column(name = "original_name", length = 255)
+    private String originalName;
+
     @Column(name = "date_issued")
     private LocalDateTime dateIssued;
 
@@ -49,6 +53,14 @@ public class LabReport {
         this.reportFile = reportFile;
     }
 
+    public String getOriginalName() {
+        return originalName;
+    }
+
+    public void setOriginalName(String originalName) {
+        this.originalName = originalName;
+    }
+
     public LocalDateTime getDateIssued() {
         return dateIssued;
     }
@@ -1,11 +1,15 @@
 package com.example.backend.repository;
 
+import com.example.backend.dto.AppointmentDto;
 import com.example.backend.dto.AppointmentPrescriptionDto;
+import com.example.backend.dto.BookedSlotDto;
 import com.example.backend.dto.DoctorPatientHistoryDto;
 import com.example.backend.dto.PatientHistoryDto;
+import com.example.backend.dto.TimelineAppointmentDto;
 import com.example.backend.model.Appointment;
 import com.example.backend.model.AppointmentStatus;
-import com.example.backend.model.Doctor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
@@ -18,7 +22,32 @@ import java.util.Optional;
 
 public interface AppointmentRepository extends JpaRepository<Appointment, Integer> {
 
-    boolean existsByDoctorAndAppointmentDateTime(Doctor doctor, LocalDateTime appointmentDateTime);
+    // 🔹 Slot checks: a slot is taken by any appointment that is not cancelled
+    boolean existsByDoctor_IdAndAppointmentDateTimeAndStatusNot(Integer doctorId, LocalDateTime appointmentDateTime,
+                                                                AppointmentStatus status);
+
+    boolean existsByDoctor_IdAndAppointmentDateTimeAndStatusNotAndIdNot(Integer doctorId, LocalDateTime appointmentDateTime,
+                                                                        AppointmentStatus status, Integer id);
+
+    @Query("SELECT a.doctor.id FROM Appointment a WHERE a.id = :id")
+    Optional<Integer> findDoctorIdById(@Param("id") Integer id);
+
+    // 🔹 Free-slot engine: live bookings, oldest first
+    @Query("SELECT a.appointmentDateTime FROM Appointment a " +
+            "WHERE a.doctor.id = :doctorId AND a.status <> :cancelled " +
+            "AND a.appointmentDateTime >= :from AND a.appointmentDateTime < :to " +
+            "ORDER BY a.appointmentDateTime")
+    List<LocalDateTime> findBookedTimes(@Param("doctorId") Integer doctorId,
+                                        @Param("from") LocalDateTime from,
+                                        @Param("to") LocalDateTime to,
+                                        @Param("cancelled") AppointmentStatus cancelled);
+
+    @Query("SELECT new com.example.backend.dto.BookedSlotDto(a.doctor.id, a.appointmentDateTime) " +
+            "FROM Appointment a " +
+            "WHERE a.status <> :cancelled AND a.appointmentDateTime > :from AND a.appointmentDateTime < :to")
+    List<BookedSlotDto> findBookedSlotsBetween(@Param("from") LocalDateTime from,
+                                               @Param("to") LocalDateTime to,
+                                               @Param("cancelled") AppointmentStatus cancelled);
 
     List<Appointment> findByDoctorIdAndStatusIn(Integer doctorId, List<AppointmentStatus> statuses);
 
@@ -41,6 +70,56 @@ public interface AppointmentRepository extends JpaRepository<Appointment, Intege
 
     Optional<List<Appointment>> findByPatient_Id(Integer patientId);
 
+    // Doctor's appointment tabs: filtered, windowed [from, to) and paged in the database, patient name joined in.
+    // A null status / from / to means "no filter"
+    @Query("SELECT new com.example.backend.dto.AppointmentDto(" +
+            "a.id, a.appointmentDateTime, a.status, p.id, pu.name, a.doctor.id) " +
+            "FROM Appointment a JOIN a.patient p JOIN p.user pu " +
+            "WHERE a.doctor.id = :doctorId " +
+            "AND (:status IS NULL OR a.status = :status) " +
+            "AND (:from IS NULL OR a.appointmentDateTime >= :from) " +
+            "AND (:to IS NULL OR a.appointmentDateTime < :to) " +
+            "ORDER BY a.appointmentDateTime, a.id")
+    Slice<AppointmentDto> findDoctorAppointmentDtos(@Param("doctorId") Integer doctorId,
+                                                    @Param("status") AppointmentStatus status,
+                                                    @Param("from") LocalDateTime from,
+                                                    @Param("to") LocalDateTime to,
+                                                    Pageable pageable);
+
+    // Doctor calendar: half-open [start, end) ranges on date, so (doctor_id, date) and
+    // (doctor_id, status, date) can be range-scanned instead of evaluating MONTH()/WEEK() per row
+    @Query("SELECT new com.example.backend.dto.AppointmentDto(" +
+            "a.id, a.appointmentDateTime, a.status, p.id, pu.name, a.doctor.id) " +
+            "FROM Appointment a JOIN a.patient p JOIN p.user pu " +
+            "WHERE a.doctor.id = :doctorId " +
+            "AND a.appointmentDateTime >= :start AND a.appointmentDateTime < :end " +
+            "ORDER BY a.appointmentDateTime, a.id")
+    List<AppointmentDto> findDoctorAppointmentsInRange(@Param("doctorId") Integer doctorId,
+                                                       @Param("start") LocalDateTime start,
+                                                       @Param("end") LocalDateTime end);
+
+    @Query("SELECT new com.example.backend.dto.AppointmentDto(" +
+            "a.id, a.appointmentDateTime, a.status, p.id, pu.name, a.doctor.id) " +
+            "FROM Appointment a JOIN a.patient p JOIN p.user pu " +
+            "WHERE a.doctor.id = :doctorId AND a.status = :status " +
+            "AND a.appointmentDateTime >= :start AND a.appointmentDateTime < :end " +
+            "ORDER BY a.appointmentDateTime, a.id")
+    List<AppointmentDto> findDoctorAppointmentsByStatusInRange(@Param("doctorId") Integer doctorId,
+                                                               @Param("status") AppointmentStatus status,
+                                                               @Param("start") LocalDateTime start,
+                                                               @Param("end") LocalDateTime end);
+
+    @Query("SELECT new com.example.backend.dto.AppointmentDto(" +
+            "a.id, a.appointmentDateTime, a.status, p.id, pu.name, a.doctor.id) " +
+            "FROM Appointment a JOIN a.patient p JOIN p.user pu " +
+            "WHERE a.doctor.id = :doctorId AND a.status = :status " +
+            "ORDER BY a.appointmentDateTime, a.id")
+    List<AppointmentDto> findDoctorAppointmentsByStatus(@Param("doctorId") Integer doctorId,
+                                                        @Param("status") AppointmentStatus status);
+
+    // Ownership check without loading the appointment and its doctor
+    boolean existsByIdAndDoctor_Id(Integer id, Integer doctorId);
+
 
     @Query("SELECT new com.example.backend.dto.PatientHistoryDto(" +
             "p.user.name, p.user.email, p.gender, p.age, p.address) " +
@@ -65,5 +144,37 @@ public interface AppointmentRepository extends JpaRepository<Appointment, Intege
             "ORDER BY a.appointmentDateTime DESC")
     List<AppointmentPrescriptionDto> findCompletePatientHistory(@Param("patientId") Integer patientId);
 
+    // Patient timeline, newest first. Keyset pagination on (appointmentDateTime, id):
+    // the first page has no cursor, later pages start strictly after the last row of the previous one.
+    // MySQL (and H2) sort NULL dates last under DESC, so undated appointments follow every dated one
+    @Query("SELECT new com.example.backend.dto.TimelineAppointmentDto(" +
+            "a.id, du.name, a.appointmentDateTime, a.status) " +
+            "FROM Appointment a JOIN a.doctor d JOIN d.user du " +
+            "WHERE a.patient.id = :patientId " +
+            "ORDER BY a.appointmentDateTime DESC, a.id DESC")
+    List<TimelineAppointmentDto> findTimelineFirstPage(@Param("patientId") Integer patientId, Pageable pageable);
 
-}
\ No newline at end of file
+    @Query("SELECT new com.example.backend.dto.TimelineAppointmentDto(" +
+            "a.id, du.name, a.appointmentDateTime, a.status) " +
+            "FROM Appointment a JOIN a.doctor d JOIN d.user du " +
+            "WHERE a.patient.id = :patientId " +
+            "AND (a.appointmentDateTime < :beforeDate " +
+            "OR (a.appointmentDateTime = :beforeDate AND a.id < :beforeId) " +
+            "OR a.appointmentDateTime IS NULL) " +
+            "ORDER BY a.appointmentDateTime DESC, a.id DESC")
+    List<TimelineAppointmentDto> findTimelinePageBefore(@Param("patientId") Integer patientId,
+                                                        @Param("beforeDate") LocalDateTime beforeDate,
+                                                        @Param("beforeId") Integer beforeId,
+                                                        Pageable pageable);
+
+    // After an undated row only undated rows remain
+    @Query("SELECT new com.example.backend.dto.TimelineAppointmentDto(" +
+            "a.id, du.name, a.appointmentDateTime, a.status) " +
+            "FROM Appointment a JOIN a.doctor d JOIN d.user du " +
+            "WHERE a.patient.id = :patientId " +
+            "AND a.appointmentDateTime IS NULL AND a.id < :beforeId " +
+            "ORDER BY a.id DESC")
+    List<TimelineAppointmentDto> findUndatedTimelinePageBefore(@Param("patientId") Integer patientId,
+                                                               @Param("beforeId") Integer beforeId,
+                                                               Pageable pageable);
+}
@@ -0,0 +1,23 @@
+package com.example.backend.repository;
+
+import com.example.backend.model.AvailabilityException;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+public interface AvailabilityExceptionRepository extends JpaRepository<AvailabilityException, Integer> {
+
+    List<AvailabilityException> findByDoctorIdAndDateGreaterThanEqualOrderByDateAscStartTimeAsc(Integer doctorId, LocalDate from);
+
+    // Bulk load for the free-slot engine; past exceptions never matter
+    List<AvailabilityException> findByDoctorIdInAndDateGreaterThanEqual(Collection<Integer> doctorIds, LocalDate from);
+
+    @Modifying
+    @Query("DELETE FROM AvailabilityException e WHERE e.doctorId = :doctorId")
+    int deleteByDoctorId(@Param("doctorId") Integer doctorId);
+}
@@ -0,0 +1,22 @@
+package com.example.backend.repository;
+
+import com.example.backend.model.AvailabilityWindow;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface AvailabilityWindowRepository extends JpaRepository<AvailabilityWindow, Integer> {
+
+    List<AvailabilityWindow> findByDoctorIdOrderByDayOfWeekAscStartTimeAsc(Integer doctorId);
+
+    // Bulk load for the free-slot engine
+    List<AvailabilityWindow> findByDoctorIdIn(Collection<Integer> doctorIds);
+
+    @Modifying
+    @Query("DELETE FROM AvailabilityWindow w WHERE w.doctorId = :doctorId")
+    int deleteByDoctorId(@Param("doctorId") Integer doctorId);
+}
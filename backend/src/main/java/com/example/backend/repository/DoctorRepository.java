@@ -1,5 +1,7 @@
 package com.example.backend.repository;
 
+import com.example.backend.dto.DoctorScheduleSettingsDto;
+import com.example.backend.dto.DoctorSearchEntry;
 import com.example.backend.model.Doctor;
 import com.example.backend.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -7,6 +9,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -21,8 +24,27 @@ public interface DoctorRepository extends JpaRepository<Doctor, Integer> {
     void deleteByUser(User user);
 
 
-    @Query("SELECT d FROM Doctor d " +
-            "WHERE (:name IS NULL OR LOWER(d.user.name) LIKE LOWER(CONCAT('%', :name, '%'))) " +
-            "AND (:special IS NULL OR LOWER(d.specilization) LIKE LOWER(CONCAT('%', :special, '%')))")
-    List<Doctor> searchDoctors(@Param("name") String name, @Param("special") String special);
+    // 🔹 Search index source (see DoctorSearchIndex)
+    @Query("SELECT new com.example.backend.dto.DoctorSearchEntry(" +
+            "d.id, u.name, u.email, d.specilization, d.licenseNumber, d.availableTimes) " +
+            "FROM Doctor d JOIN d.user u")
+    List<DoctorSearchEntry> findAllSearchEntries();
+
+    @Query("SELECT new com.example.backend.dto.DoctorSearchEntry(" +
+            "d.id, u.name, u.email, d.specilization, d.licenseNumber, d.availableTimes) " +
+            "FROM Doctor d JOIN d.user u WHERE d.id = :id")
+    Optional<DoctorSearchEntry> findSearchEntryById(@Param("id") Integer id);
+
+    @Query("SELECT new com.example.backend.dto.DoctorSearchEntry(" +
+            "d.id, u.name, u.email, d.specilization, d.licenseNumber, d.availableTimes) " +
+            "FROM Doctor d JOIN d.user u WHERE d.id IN :ids")
+    List<DoctorSearchEntry> findSearchEntriesByIds(@Param("ids") Collection<Integer> ids);
+
+    // 🔹 Free-slot engine sources
+    @Query("SELECT d.id FROM Doctor d")
+    List<Integer> findAllIds();
+
+    @Query("SELECT new com.example.backend.dto.DoctorScheduleSettingsDto(d.id, d.slotMinutes, d.availableTimes) " +
+            "FROM Doctor d WHERE d.id IN :ids")
+    List<DoctorScheduleSettingsDto> findScheduleSettings(@Param("ids") Collection<Integer> ids);
 }
@@ -1,7 +1,11 @@
 package com.example.backend.repository;
 
+import com.example.backend.dto.DoctorLabReportDto;
+import com.example.backend.dto.LabReportDto;
 import com.example.backend.model.LabReport;
 import com.example.backend.model.LabRequest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -19,6 +23,49 @@ public interface LabReportRepository extends JpaRepository<LabReport, Integer> {
     // Find report by lab request id
     Optional<LabReport> findByLabRequest_Id(Integer labRequestId);
 
+    // Backs ReportFileIndex (uses idx_lab_report_report_file): the download name of the newest report with this file,
+    // the reference itself for reports from before names were kept
+    @Query("SELECT COALESCE(r.originalName, r.reportFile) FROM LabReport r " +
+            "WHERE r.reportFile = :reportFile ORDER BY r.id DESC")
+    List<String> findDownloadNames(@Param("reportFile") String reportFile, Pageable pageable);
+
+    // DTO projections: read only lab_report columns, no LabTech / LabRequest entities
+    @Query("SELECT new com.example.backend.dto.LabReportDto(" +
+            "r.id, r.reportFile, r.dateIssued, r.labTech.id, r.labRequest.id) " +
+            "FROM LabReport r WHERE r.labRequest.id = :labRequestId " +
+            "ORDER BY r.id")
+    List<LabReportDto> findDtosByLabRequestId(@Param("labRequestId") Integer labRequestId);
+
+    @Query(value = "SELECT new com.example.backend.dto.LabReportDto(" +
+            "r.id, r.reportFile, r.dateIssued, r.labTech.id, r.labRequest.id) " +
+            "FROM LabReport r ORDER BY r.id DESC",
+            countQuery = "SELECT COUNT(r) FROM LabReport r")
+    Page<LabReportDto> findAllDtos(Pageable pageable);
+
+    // Doctor lab report list: one statement, names joined in instead of lazy-loaded per row
+    @Query("SELECT new com.example.backend.dto.DoctorLabReportDto(" +
+            "r.id, r.reportFile, r.dateIssued, COALESCE(ltu.name, 'Unknown'), " +
+            "lr.id, lr.testType, COALESCE(pu.name, 'Unknown')) " +
+            "FROM LabReport r " +
+            "JOIN r.labRequest lr " +
+            "JOIN lr.appointment a " +
+            "LEFT JOIN r.labTech lt LEFT JOIN lt.user ltu " +
+            "LEFT JOIN a.patient p LEFT JOIN p.user pu " +
+            "WHERE a.doctor.id = :doctorId " +
+            "ORDER BY r.dateIssued DESC, r.id DESC")
+    List<DoctorLabReportDto> findDoctorReportDtos(@Param("doctorId") Integer doctorId);
+
+    @Query("SELECT new com.example.backend.dto.DoctorLabReportDto(" +
+            "r.id, r.reportFile, r.dateIssued, COALESCE(ltu.name, 'Unknown'), " +
+            "lr.id, lr.testType, COALESCE(pu.name, 'Unknown')) " +
+            "FROM LabReport r " +
+            "JOIN r.labRequest lr " +
+            "JOIN lr.appointment a " +
+            "LEFT JOIN r.labTech lt LEFT JOIN lt.user ltu " +
+            "LEFT JOIN a.patient p LEFT JOIN p.user pu " +
+            "WHERE lr.id = :labRequestId")
+    Optional<DoctorLabReportDto> findDoctorReportDtoByLabRequestId(@Param("labRequestId") Integer labRequestId);
+
 
 
 
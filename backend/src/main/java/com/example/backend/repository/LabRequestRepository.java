@@ -1,10 +1,17 @@
 package com.example.backend.repository;
 
+import com.example.backend.dto.DoctorLabRequestDto;
+import com.example.backend.dto.LabReportInfoDto;
+import com.example.backend.dto.LabRequestDto;
 import com.example.backend.model.LabRequest;
 import com.example.backend.model.Appointment;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -25,5 +32,54 @@ public interface LabRequestRepository extends JpaRepository<LabRequest, Integer>
 
     Optional<List<LabRequest>> findByAppointment_Doctor_User_Email(String email);
 
+    // Doctor lab request lists, patient name joined in
+    @Query("SELECT new com.example.backend.dto.DoctorLabRequestDto(" +
+            "lr.id, lr.status, lr.testType, a.id, COALESCE(pu.name, 'Unknown')) " +
+            "FROM LabRequest lr JOIN lr.appointment a LEFT JOIN a.patient p LEFT JOIN p.user pu " +
+            "WHERE a.doctor.id = :doctorId " +
+            "ORDER BY lr.id DESC")
+    List<DoctorLabRequestDto> findDoctorDtosByDoctorId(@Param("doctorId") Integer doctorId);
 
+    @Query("SELECT new com.example.backend.dto.DoctorLabRequestDto(" +
+            "lr.id, lr.status, lr.testType, a.id, COALESCE(pu.name, 'Unknown')) " +
+            "FROM LabRequest lr JOIN lr.appointment a LEFT JOIN a.patient p LEFT JOIN p.user pu " +
+            "WHERE a.id = :appointmentId " +
+            "ORDER BY lr.id")
+    List<DoctorLabRequestDto> findDoctorDtosByAppointmentId(@Param("appointmentId") Integer appointmentId);
+
+    // Lab tech lists, doctor and patient names joined in
+    @Query("SELECT new com.example.backend.dto.LabRequestDto(" +
+            "lr.id, lr.testType, lr.status, a.id, COALESCE(du.name, ''), COALESCE(pu.name, '')) " +
+            "FROM LabRequest lr JOIN lr.appointment a " +
+            "LEFT JOIN a.doctor d LEFT JOIN d.user du " +
+            "LEFT JOIN a.patient p LEFT JOIN p.user pu " +
+            "ORDER BY lr.id")
+    List<LabRequestDto> findAllDtos();
+
+    @Query("SELECT new com.example.backend.dto.LabRequestDto(" +
+            "lr.id, lr.testType, lr.status, a.id, COALESCE(du.name, ''), COALESCE(pu.name, '')) " +
+            "FROM LabRequest lr JOIN lr.appointment a " +
+            "LEFT JOIN a.doctor d LEFT JOIN d.user du " +
+            "LEFT JOIN a.patient p LEFT JOIN p.user pu " +
+            "WHERE a.id = :appointmentId " +
+            "ORDER BY lr.id")
+    List<LabRequestDto> findDtosByAppointmentId(@Param("appointmentId") Integer appointmentId);
+
+    // Lab requests (with their report, if uploaded) of a page of appointments (patient timeline)
+    @Query("SELECT new com.example.backend.dto.LabReportInfoDto(" +
+            "lr.appointment.id, lr.id, lr.testType, lr.status, " +
+            "rep.id, rep.reportFile, rep.dateIssued, ltu.name) " +
+            "FROM LabRequest lr " +
+            "LEFT JOIN LabReport rep ON rep.labRequest.id = lr.id " +
+            "LEFT JOIN rep.labTech lt " +
+            "LEFT JOIN lt.user ltu " +
+            "WHERE lr.appointment.id IN :appointmentIds " +
+            "ORDER BY lr.id")
+    List<LabReportInfoDto> findReportInfoByAppointmentIds(@Param("appointmentIds") Collection<Integer> appointmentIds);
+
+    // REQUESTED -> COMPLETED in one statement; 0 means another upload got there first
+    @Modifying
+    @Query("UPDATE LabRequest lr SET lr.status = com.example.backend.model.LabRequest.Status.COMPLETED " +
+            "WHERE lr.id = :id AND lr.status = com.example.backend.model.LabRequest.Status.REQUESTED")
+    int completeRequested(@Param("id") Integer id);
 }
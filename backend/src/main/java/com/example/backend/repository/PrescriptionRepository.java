@@ -1,8 +1,13 @@
 package com.example.backend.repository;
 
+import com.example.backend.dto.PrescriptionDto;
+import com.example.backend.dto.PrescriptionResponse;
 import com.example.backend.model.Prescription;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
 
 import java.util.List;
 import java.util.Optional;
@@ -14,12 +19,33 @@ public interface PrescriptionRepository extends JpaRepository<Prescription, Inte
 
     Optional<List<Prescription>> findPrescriptionsByAppointment_Doctor_User_Email(String doctorEmail);
 
-    @Query("SELECT p FROM Prescription p WHERE p.appointment.patient.id = :patientId")
-    List<Prescription> findAllByPatientId(Integer patientId);
-
 
     Optional<List<Prescription>> findByAppointment_Patient_Id(Integer patientId);
 
-
-
+    // Doctor prescription lists, patient name joined in
+    @Query("SELECT new com.example.backend.dto.PrescriptionDto(p.id, p.notes, p.dateIssued, a.id, pu.name) " +
+            "FROM Prescription p JOIN p.appointment a LEFT JOIN a.patient pt LEFT JOIN pt.user pu " +
+            "WHERE a.doctor.id = :doctorId " +
+            "ORDER BY p.dateIssued DESC, p.id DESC")
+    List<PrescriptionDto> findDtosByDoctorId(@Param("doctorId") Integer doctorId);
+
+    @Query("SELECT new com.example.backend.dto.PrescriptionDto(p.id, p.notes, p.dateIssued, a.id, pu.name) " +
+            "FROM Prescription p JOIN p.appointment a LEFT JOIN a.patient pt LEFT JOIN pt.user pu " +
+            "WHERE a.id = :appointmentId " +
+            "ORDER BY p.dateIssued DESC, p.id DESC")
+    List<PrescriptionDto> findDtosByAppointmentId(@Param("appointmentId") Integer appointmentId);
+
+    // Patient prescription list, appointment time and doctor joined in
+    @Query("SELECT new com.example.backend.dto.PrescriptionResponse(p.id, p.notes, p.dateIssued, " +
+            "a.id, a.appointmentDateTime, du.name, d.specilization) " +
+            "FROM Prescription p JOIN p.appointment a JOIN a.doctor d JOIN d.user du " +
+            "WHERE a.patient.id = :patientId " +
+            "ORDER BY p.dateIssued DESC, p.id DESC")
+    List<PrescriptionResponse> findResponsesByPatientId(@Param("patientId") Integer patientId);
+
+    // Prescriptions of a page of appointments (patient timeline)
+    @Query("SELECT new com.example.backend.dto.PrescriptionDto(p.id, p.notes, p.dateIssued, p.appointment.id) " +
+            "FROM Prescription p WHERE p.appointment.id IN :appointmentIds " +
+            "ORDER BY p.dateIssued DESC, p.id DESC")
+    List<PrescriptionDto> findDtosByAppointmentIds(@Param("appointmentIds") Collection<Integer> appointmentIds);
 }
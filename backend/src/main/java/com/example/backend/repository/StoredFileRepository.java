@@ -0,0 +1,42 @@
+package com.example.backend.repository;
+
+import com.example.backend.model.StoredFile;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+public interface StoredFileRepository extends JpaRepository<StoredFile, String> {
+
+    // Insert the blob row or bump its reference count, atomically even when several nodes store the same content
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO stored_file (hash, size_bytes, content_type, original_name, ref_count, created_at) " +
+            "VALUES (:hash, :sizeBytes, :contentType, :originalName, 1, CURRENT_TIMESTAMP) " +
+            "ON DUPLICATE KEY UPDATE ref_count = ref_count + 1", nativeQuery = true)
+    void addReference(@Param("hash") String hash,
+                      @Param("sizeBytes") long sizeBytes,
+                      @Param("contentType") String contentType,
+                      @Param("originalName") String originalName);
+
+    // SELECT ... FOR UPDATE: serialises releasing the last reference with a concurrent addReference
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT f FROM StoredFile f WHERE f.hash = :hash")
+    Optional<StoredFile> lockByHash(@Param("hash") String hash);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE StoredFile f SET f.refCount = f.refCount - 1 WHERE f.hash = :hash AND f.refCount > 0")
+    int removeReference(@Param("hash") String hash);
+
+    // Returns 1 if the blob was unreferenced and its row is gone, so the file itself can be deleted
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM StoredFile f WHERE f.hash = :hash AND f.refCount <= 0")
+    int deleteIfUnreferenced(@Param("hash") String hash);
+}
@@ -0,0 +1,86 @@
+package com.example.backend.security;
+
+import com.example.backend.model.Role;
+import com.example.backend.model.User;
+import org.springframework.security.core.CredentialsContainer;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Principal stored in the security context for an authenticated request.
+ * Carries the ids services need so they don't have to look the user up again; the Doctor / Patient / LabTech
+ * profile shares the user's id, so userId is also the profile id.
+ */
+public class AuthenticatedUser implements UserDetails, CredentialsContainer {
+
+    private final Integer userId;
+    private final String name;
+    private final String email;
+    private String password;
+    private final Role role;
+    private final List<GrantedAuthority> authorities;
+
+    public AuthenticatedUser(Integer userId, String name, String email, String password, Role role) {
+        this.userId = userId;
+        this.name = name;
+        this.email = email;
+        this.password = password;
+        this.role = role;
+        this.authorities = List.of(new SimpleGrantedAuthority("ROLE_" + role.name()));
+    }
+
+    public static AuthenticatedUser from(User user) {
+        return new AuthenticatedUser(
+                user.getUserId(),
+                user.getName(),
+                user.getEmail(),
+                user.getPassword(),
+                user.getRole()
+        );
+    }
+
+    /** Copy without the password hash, safe to keep in caches */
+    public AuthenticatedUser withoutPassword() {
+        return new AuthenticatedUser(userId, name, email, null, role);
+    }
+
+    public Integer getUserId() {
+        return userId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public Role getRole() {
+        return role;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    @Override
+    public String getPassword() {
+        return password;
+    }
+
+    @Override
+    public String getUsername() {
+        return email;
+    }
+
+    @Override
+    public void eraseCredentials() {
+        this.password = null;
+    }
+}
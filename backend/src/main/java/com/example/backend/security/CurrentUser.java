@@ -0,0 +1,31 @@
+package com.example.backend.security;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Access to the user of the current request. Backed by the request's security context,
+ * which JwtFilter fills with an {@link AuthenticatedUser}.
+ */
+@Component
+public class CurrentUser {
+
+    public AuthenticatedUser get() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth == null || !(auth.getPrincipal() instanceof AuthenticatedUser user)) {
+            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Not authenticated");
+        }
+        return user;
+    }
+
+    public Integer userId() {
+        return get().getUserId();
+    }
+
+    public String email() {
+        return get().getEmail();
+    }
+}
@@ -1,5 +1,7 @@
 package com.example.backend.security;
 
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 
@@ -8,7 +10,6 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -23,29 +24,53 @@ public class JwtFilter extends OncePerRequestFilter {
     @Autowired
     private CustomUserDetailsService userDetailsService;
 
+    @Autowired
+    private PrincipalCache principalCache;
+
+    @Autowired
+    private TokenDenylist tokenDenylist;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
 
         final String authorizationHeader = request.getHeader("Authorization");
-        String username = null;
-        String jwt = null;
+        Claims claims = null;
 
         if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
-            jwt = authorizationHeader.substring(7);
-            username = jwtUtil.extractUsername(jwt);
+            String jwt = authorizationHeader.substring(7);
+            try {
+                // Signature and expiry are verified here, once per request
+                claims = jwtUtil.parseToken(jwt);
+            } catch (JwtException | IllegalArgumentException e) {
+                logger.debug("Rejected JWT: " + e.getMessage());
+            }
         }
 
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
+        if (claims != null && SecurityContextHolder.getContext().getAuthentication() == null
+                && !tokenDenylist.isRevoked(claims.getId())) {
+            AuthenticatedUser userDetails = resolvePrincipal(claims);
 
-            if (jwtUtil.validateToken(jwt, userDetails)) {
-                UsernamePasswordAuthenticationToken authenticationToken =
-                        new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
-                authenticationToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                SecurityContextHolder.getContext().setAuthentication(authenticationToken);
-            }
+            UsernamePasswordAuthenticationToken authenticationToken =
+                    new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+            authenticationToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+            SecurityContextHolder.getContext().setAuthentication(authenticationToken);
         }
         filterChain.doFilter(request, response);
 
     }
+
+    /**
+     * Every token issued now carries the user claims, so the principal comes straight from them.
+     * Legacy tokens issued before the claims existed are loaded once and cached for the token; they expire
+     * within 10 hours of deploying, after which this fallback and PrincipalCache can be deleted.
+     */
+    private AuthenticatedUser resolvePrincipal(Claims claims) {
+        AuthenticatedUser fromClaims = jwtUtil.toPrincipal(claims);
+        if (fromClaims != null) {
+            return fromClaims;
+        }
+        String email = claims.getSubject();
+        return principalCache.get(email, claims.getId(),
+                () -> (AuthenticatedUser) userDetailsService.loadUserByUsername(email));
+    }
 }
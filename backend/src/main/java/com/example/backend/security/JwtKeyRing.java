@@ -0,0 +1,130 @@
+package com.example.backend.security;
+
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import javax.crypto.SecretKey;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.security.Key;
+import java.security.KeyStore;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * HMAC keys used to sign and verify JWTs, identified by the token's "kid" header.
+ *
+ * Keys come from {@code jwt.keys} ("kid:base64Secret,kid2:base64Secret") and/or from the secret-key
+ * entries of a keystore ({@code jwt.keystore.path}, alias = kid). Every key verifies; only
+ * {@code jwt.active-key-id} (default: the first key) signs. To rotate, add the new key to every node,
+ * switch the active id, and drop the old key once its tokens have expired.
+ *
+ * Without configuration a random key is generated, which only suits a single dev instance.
+ */
+@Component
+public class JwtKeyRing {
+
+    private static final Logger log = LoggerFactory.getLogger(JwtKeyRing.class);
+    private static final String EPHEMERAL_KEY_ID = "ephemeral";
+
+    private final Map<String, SecretKey> keys;
+    private final String activeKeyId;
+
+    public JwtKeyRing(@Value("${jwt.keys:}") String configuredKeys,
+                      @Value("${jwt.keystore.path:}") String keystorePath,
+                      @Value("${jwt.keystore.password:}") String keystorePassword,
+                      @Value("${jwt.keystore.type:PKCS12}") String keystoreType,
+                      @Value("${jwt.active-key-id:}") String activeKeyId) {
+        Map<String, SecretKey> loaded = new LinkedHashMap<>();
+        loaded.putAll(parseKeys(configuredKeys));
+        if (StringUtils.hasText(keystorePath)) {
+            loaded.putAll(loadKeystore(keystorePath, keystorePassword, keystoreType));
+        }
+
+        if (loaded.isEmpty()) {
+            log.warn("No JWT signing keys configured (jwt.keys / jwt.keystore.path); using a random key. " +
+                    "Tokens will not survive a restart or be accepted by other instances.");
+            loaded.put(EPHEMERAL_KEY_ID, Keys.secretKeyFor(SignatureAlgorithm.HS256));
+        }
+
+        String active = StringUtils.hasText(activeKeyId) ? activeKeyId : loaded.keySet().iterator().next();
+        if (!loaded.containsKey(active)) {
+            throw new IllegalStateException("jwt.active-key-id '" + active + "' is not one of the configured keys " + loaded.keySet());
+        }
+
+        this.keys = Collections.unmodifiableMap(loaded);
+        this.activeKeyId = active;
+        log.info("Loaded {} JWT verification key(s), signing with '{}'", keys.size(), this.activeKeyId);
+    }
+
+    public String getActiveKeyId() {
+        return activeKeyId;
+    }
+
+    public SecretKey getActiveKey() {
+        return keys.get(activeKeyId);
+    }
+
+    /** Key for the token's kid; tokens without a kid are checked against the active key */
+    public SecretKey getVerificationKey(String keyId) {
+        if (keyId == null) {
+            return getActiveKey();
+        }
+        SecretKey key = keys.get(keyId);
+        if (key == null) {
+            throw new SignatureException("Unknown JWT key id: " + keyId);
+        }
+        return key;
+    }
+
+    private static Map<String, SecretKey> parseKeys(String configuredKeys) {
+        Map<String, SecretKey> result = new LinkedHashMap<>();
+        if (!StringUtils.hasText(configuredKeys)) {
+            return result;
+        }
+        for (String entry : configuredKeys.split(",")) {
+            String trimmed = entry.trim();
+            if (trimmed.isEmpty()) continue;
+
+            int separator = trimmed.indexOf(':');
+            if (separator <= 0) {
+                throw new IllegalStateException("Invalid jwt.keys entry, expected kid:base64Secret");
+            }
+            String keyId = trimmed.substring(0, separator);
+            byte[] secret = Decoders.BASE64.decode(trimmed.substring(separator + 1));
+            // Keys.hmacShaKeyFor rejects secrets shorter than 256 bits
+            result.put(keyId, Keys.hmacShaKeyFor(secret));
+        }
+        return result;
+    }
+
+    private static Map<String, SecretKey> loadKeystore(String path, String password, String type) {
+        Map<String, SecretKey> result = new LinkedHashMap<>();
+        char[] pass = password.toCharArray();
+        try (InputStream in = Files.newInputStream(Paths.get(path))) {
+            KeyStore keyStore = KeyStore.getInstance(type);
+            keyStore.load(in, pass);
+            for (String alias : Collections.list(keyStore.aliases())) {
+                if (!keyStore.entryInstanceOf(alias, KeyStore.SecretKeyEntry.class)) continue;
+
+                Key key = keyStore.getKey(alias, pass);
+                result.put(alias, Keys.hmacShaKeyFor(key.getEncoded()));
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException("Could not load JWT keystore " + path, e);
+        }
+        if (result.isEmpty()) {
+            throw new IllegalStateException("JWT keystore " + path + " contains no secret keys");
+        }
+        return result;
+    }
+}
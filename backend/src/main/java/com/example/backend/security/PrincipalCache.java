@@ -0,0 +1,38 @@
+package com.example.backend.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Bounded, TTL-evicted cache of authenticated principals keyed by email and token id, used by JwtFilter
+ * only for legacy tokens issued without the user claims.
+ * Temporary: remove with the JwtFilter fallback once the last such token has expired (10 hours after deploy).
+ */
+@Component
+public class PrincipalCache {
+
+    private static final String SEPARATOR = "|";
+
+    private final Cache<String, AuthenticatedUser> cache;
+
+    public PrincipalCache(@Value("${security.principal-cache.max-size:10000}") long maxSize,
+                          @Value("${security.principal-cache.ttl-seconds:300}") long ttlSeconds) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+    }
+
+    public AuthenticatedUser get(String email, String tokenId, Supplier<AuthenticatedUser> loader) {
+        return cache.get(key(email, tokenId), k -> loader.get().withoutPassword());
+    }
+
+    private String key(String email, String tokenId) {
+        return email + SEPARATOR + (tokenId != null ? tokenId : "");
+    }
+}
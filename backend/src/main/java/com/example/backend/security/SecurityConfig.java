@@ -1,5 +1,7 @@
 package com.example.backend.security;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
 
 
 import org.springframework.context.annotation.Bean;
@@ -32,6 +34,10 @@ public class SecurityConfig{
     @Autowired
     private JwtFilter jwtFilter;
 
+    // Raising this re-hashes existing passwords with the new work factor on their next login
+    @Value("${security.bcrypt.strength:10}")
+    private int bcryptStrength;
+
     @Bean
     public DaoAuthenticationProvider authenticationProvider() {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
@@ -47,7 +53,7 @@ public class SecurityConfig{
 
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new BCryptPasswordEncoder(bcryptStrength);
     }
 
     @Bean
@@ -57,8 +63,10 @@ public class SecurityConfig{
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth ->
                         auth.requestMatchers("/api/auth/**").permitAll()
+                                // actuator listens on a loopback-only port (metrics.properties), scraped without a token
+                                .requestMatchers(EndpointRequest.to("health", "prometheus")).permitAll()
                                 .requestMatchers("/api/doctor/**").hasRole("DOCTOR")
-                                .requestMatchers("/api/patient/**", "/api/doctors", "/api/appointments/**").hasRole("PATIENT")
+                                .requestMatchers("/api/patient/**", "/api/doctors/**", "/api/appointments/**").hasRole("PATIENT")
                                 .requestMatchers("/api/labtech/**").hasRole("LABTECH")
                                 .requestMatchers("/api/patient/prescriptions/**").hasAnyRole("PATIENT", "DOCTOR")
                                 .requestMatchers("/api/patient/view-labreports/**").hasRole("PATIENT")
@@ -81,6 +89,8 @@ public class SecurityConfig{
         configuration.setAllowedOrigins(Arrays.asList("*"));
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS"));
         configuration.setAllowedHeaders(Arrays.asList("*"));
+        // Paged lists tell the client whether another page follows
+        configuration.setExposedHeaders(Arrays.asList("X-Has-Next-Page"));
 
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
         source.registerCorsConfiguration("/**", configuration);
@@ -0,0 +1,53 @@
+package com.example.backend.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory list of revoked token ids. Entries expire together with the token they revoke,
+ * so the list only ever holds tokens that would otherwise still be accepted.
+ */
+@Component
+public class TokenDenylist {
+
+    private final Cache<String, Long> revoked;
+
+    public TokenDenylist(@Value("${security.token-denylist.max-size:100000}") long maxSize) {
+        this.revoked = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<String, Long>() {
+                    @Override
+                    public long expireAfterCreate(String tokenId, Long expiresAt, long currentTime) {
+                        long remainingMillis = Math.max(0, expiresAt - System.currentTimeMillis());
+                        return TimeUnit.MILLISECONDS.toNanos(remainingMillis);
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String tokenId, Long expiresAt, long currentTime, long currentDuration) {
+                        return expireAfterCreate(tokenId, expiresAt, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String tokenId, Long expiresAt, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    public void revoke(String tokenId, Date expiresAt) {
+        if (tokenId != null && expiresAt != null) {
+            revoked.put(tokenId, expiresAt.getTime());
+        }
+    }
+
+    public boolean isRevoked(String tokenId) {
+        return tokenId != null && revoked.getIfPresent(tokenId) != null;
+    }
+}
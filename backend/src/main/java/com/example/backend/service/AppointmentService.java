@@ -8,34 +8,53 @@ import com.example.backend.repository.DoctorRepository;
 import com.example.backend.repository.PatientRepository;
 import com.example.backend.repository.UserRepository;
 import jakarta.transaction.Transactional;
-import org.springframework.beans.factory.annotation.Autowired;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Service
 public class AppointmentService {
 
+    // Unique index on (doctor_id, date, active_slot), see V4__appointment_slot_uniqueness.sql
+    private static final String SLOT_CONSTRAINT = "uk_appointments_doctor_slot";
+
     private final AppointmentRepository appointmentRepository;
     private final DoctorRepository doctorRepository;
     private final PatientRepository patientRepository;
-
-    @Autowired
-    private UserRepository userRepository;
+    private final UserRepository userRepository;
+    private final DoctorSlotLocks doctorSlotLocks;
+    private final TransactionTemplate transactionTemplate;
 
     public AppointmentService(AppointmentRepository appointmentRepository,
                               DoctorRepository doctorRepository,
-                              PatientRepository patientRepository) {
+                              PatientRepository patientRepository,
+                              UserRepository userRepository,
+                              DoctorSlotLocks doctorSlotLocks,
+                              PlatformTransactionManager transactionManager) {
         this.appointmentRepository = appointmentRepository;
         this.doctorRepository = doctorRepository;
         this.patientRepository = patientRepository;
+        this.userRepository = userRepository;
+        this.doctorSlotLocks = doctorSlotLocks;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
-    @Transactional
+    /**
+     * Books a slot, or returns null when the doctor already has a live appointment at that time.
+     * The check and insert run in one transaction under the doctor's lock; the unique index
+     * uk_appointments_doctor_slot catches a race with another instance.
+     */
     public AppointmentResponse bookAppointment(AppointmentRequest request) {
         if (request.getDoctorEmail() == null || request.getAppointmentDateTime() == null) {
             throw new IllegalArgumentException("Doctor and appointmentDateTime are required");
@@ -44,21 +63,29 @@ public class AppointmentService {
         User doctor = userRepository.findByEmail(request.getDoctorEmail())
                 .orElseThrow(() -> new RuntimeException("Doctor not found"));
 
-        User user = userRepository.findByEmail(request.getPatientEmail()).orElseThrow();
+        return doctorSlotLocks.withDoctorLock(doctor.getUserId(), () -> reserveSlot(() -> {
+            if (appointmentRepository.existsByDoctor_IdAndAppointmentDateTimeAndStatusNot(
+                    doctor.getUserId(), request.getAppointmentDateTime(), AppointmentStatus.CANCELLED)) {
+                return null;
+            }
+
+            User user = userRepository.findByEmail(request.getPatientEmail()).orElseThrow();
 
-        Patient patient = patientRepository.findById(user.getUserId())
-                .orElseThrow(() -> new RuntimeException("Patient not found"));
+            Patient patient = patientRepository.findById(user.getUserId())
+                    .orElseThrow(() -> new RuntimeException("Patient not found"));
 
-        Doctor doctor1 = doctorRepository.findById(doctor.getUserId()).orElseThrow();
+            Doctor doctor1 = doctorRepository.findById(doctor.getUserId()).orElseThrow();
 
-        Appointment appt = new Appointment();
-        appt.setDoctor(doctor1);
-        appt.setPatient(patient);
-        appt.setAppointmentDateTime(request.getAppointmentDateTime());
-        appt.setStatus(AppointmentStatus.PENDING);
+            Appointment appt = new Appointment();
+            appt.setDoctor(doctor1);
+            appt.setPatient(patient);
+            appt.setAppointmentDateTime(request.getAppointmentDateTime());
+            appt.setStatus(AppointmentStatus.PENDING);
 
-        Appointment saved = appointmentRepository.save(appt);
-        return mapToResponse(saved);
+            Appointment saved = appointmentRepository.saveAndFlush(appt);
+            return mapToResponse(saved);
+        }, () -> appointmentRepository.existsByDoctor_IdAndAppointmentDateTimeAndStatusNot(
+                doctor.getUserId(), request.getAppointmentDateTime(), AppointmentStatus.CANCELLED)));
     }
 
 
@@ -79,24 +106,31 @@ public class AppointmentService {
         return list.stream().map(this::mapToResponse).collect(Collectors.toList());
     }
 
-    @Transactional
+    // Returns null when the doctor already has a live appointment at the new time
     public AppointmentResponse rescheduleAppointment(Integer appointmentId, LocalDateTime newDateTime) {
-        Appointment appt = appointmentRepository.findById(appointmentId)
+        Integer doctorId = appointmentRepository.findDoctorIdById(appointmentId)
                 .orElseThrow(() -> new RuntimeException("Appointment not found"));
 
-        if (appt.getStatus() == AppointmentStatus.CANCELLED) {
-            throw new RuntimeException("Cannot reschedule a cancelled appointment");
-        }
+        return doctorSlotLocks.withDoctorLock(doctorId, () -> reserveSlot(() -> {
+            Appointment appt = appointmentRepository.findById(appointmentId)
+                    .orElseThrow(() -> new RuntimeException("Appointment not found"));
 
-        if (appointmentRepository.existsByDoctorAndAppointmentDateTime(appt.getDoctor(), newDateTime)) {
-            throw new RuntimeException("Doctor not available at the requested new time");
-        }
+            if (appt.getStatus() == AppointmentStatus.CANCELLED) {
+                throw new RuntimeException("Cannot reschedule a cancelled appointment");
+            }
 
-        appt.setAppointmentDateTime(newDateTime);
-        appt.setStatus(AppointmentStatus.CONFIRMED); // Use valid enum after reschedule
-        Appointment saved = appointmentRepository.save(appt);
+            if (appointmentRepository.existsByDoctor_IdAndAppointmentDateTimeAndStatusNotAndIdNot(
+                    doctorId, newDateTime, AppointmentStatus.CANCELLED, appointmentId)) {
+                return null;
+            }
 
-        return mapToResponse(saved);
+            appt.setAppointmentDateTime(newDateTime);
+            appt.setStatus(AppointmentStatus.CONFIRMED); // Use valid enum after reschedule
+            Appointment saved = appointmentRepository.saveAndFlush(appt);
+
+            return mapToResponse(saved);
+        }, () -> appointmentRepository.existsByDoctor_IdAndAppointmentDateTimeAndStatusNotAndIdNot(
+                doctorId, newDateTime, AppointmentStatus.CANCELLED, appointmentId)));
     }
 
     @Transactional
@@ -107,6 +141,33 @@ public class AppointmentService {
         appointmentRepository.save(appt);
     }
 
+    // Runs the reservation in its own transaction, committed before the doctor's lock is released.
+    // Returns null when uk_appointments_doctor_slot shows another instance booked the slot between our check
+    // and insert; slotTaken re-checks when the driver doesn't name the constraint. Other violations propagate.
+    private AppointmentResponse reserveSlot(Supplier<AppointmentResponse> reservation, BooleanSupplier slotTaken) {
+        try {
+            return transactionTemplate.execute(status -> reservation.get());
+        } catch (DataIntegrityViolationException e) {
+            String constraint = constraintName(e);
+            boolean lostRace = constraint != null
+                    ? constraint.toLowerCase(Locale.ROOT).contains(SLOT_CONSTRAINT)
+                    : slotTaken.getAsBoolean();
+            if (lostRace) {
+                return null;
+            }
+            throw e;
+        }
+    }
+
+    private static String constraintName(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation) {
+                return violation.getConstraintName();
+            }
+        }
+        return null;
+    }
+
     private AppointmentResponse mapToResponse(Appointment appointment) {
         AppointmentResponse dto = new AppointmentResponse();
         dto.setAppointmentId(appointment.getId());
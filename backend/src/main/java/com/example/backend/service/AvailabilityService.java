@@ -0,0 +1,199 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.AvailabilityExceptionDto;
+import com.example.backend.dto.AvailabilityScheduleDto;
+import com.example.backend.dto.WeeklyWindowDto;
+import com.example.backend.model.AvailabilityException;
+import com.example.backend.model.AvailabilityWindow;
+import com.example.backend.model.Doctor;
+import com.example.backend.repository.AvailabilityExceptionRepository;
+import com.example.backend.repository.AvailabilityWindowRepository;
+import com.example.backend.repository.DoctorRepository;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.time.format.TextStyle;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Structured doctor availability. Doctor.availableTimes ("Monday 09:30-21:30, Saturday 08:00-15:00") is kept
+ * as the readable form of the weekly windows: writing either one rewrites the other.
+ */
+@Service
+public class AvailabilityService {
+
+    private static final Pattern AVAILABLE_TIME = Pattern.compile("([A-Za-z]+)\\s+(\\d{1,2}:\\d{2})\\s*-\\s*(\\d{1,2}:\\d{2})");
+    private static final int MIN_SLOT_MINUTES = 5;
+    private static final int MAX_SLOT_MINUTES = 480;
+
+    private final DoctorRepository doctorRepository;
+    private final AvailabilityWindowRepository windowRepository;
+    private final AvailabilityExceptionRepository exceptionRepository;
+    private final FreeSlotEngine freeSlotEngine;
+    private final DoctorSearchIndex doctorSearchIndex;
+    private final ProfileCache profileCache;
+
+    public AvailabilityService(DoctorRepository doctorRepository,
+                               AvailabilityWindowRepository windowRepository,
+                               AvailabilityExceptionRepository exceptionRepository,
+                               FreeSlotEngine freeSlotEngine,
+                               DoctorSearchIndex doctorSearchIndex,
+                               ProfileCache profileCache) {
+        this.doctorRepository = doctorRepository;
+        this.windowRepository = windowRepository;
+        this.exceptionRepository = exceptionRepository;
+        this.freeSlotEngine = freeSlotEngine;
+        this.doctorSearchIndex = doctorSearchIndex;
+        this.profileCache = profileCache;
+    }
+
+    @Transactional(readOnly = true)
+    public AvailabilityScheduleDto getSchedule(Integer doctorId) {
+        Doctor doctor = findDoctor(doctorId);
+        List<WeeklyWindowDto> weekly = windowRepository.findByDoctorIdOrderByDayOfWeekAscStartTimeAsc(doctorId).stream()
+                .map(w -> new WeeklyWindowDto(w.getDayOfWeek(), w.getStartTime(), w.getEndTime()))
+                .collect(Collectors.toList());
+        if (weekly.isEmpty()) {
+            weekly = parseAvailableTimes(doctor.getAvailableTimes());
+        }
+        List<AvailabilityExceptionDto> exceptions = exceptionRepository
+                .findByDoctorIdAndDateGreaterThanEqualOrderByDateAscStartTimeAsc(doctorId, LocalDate.now()).stream()
+                .map(e -> new AvailabilityExceptionDto(e.getDate(), e.getStartTime(), e.getEndTime(), e.isAvailable()))
+                .collect(Collectors.toList());
+        return new AvailabilityScheduleDto(freeSlotEngine.slotMinutesOf(doctor.getSlotMinutes()), weekly, exceptions);
+    }
+
+    /** Replace the whole schedule: slot length, weekly windows and exceptions */
+    @Transactional
+    public AvailabilityScheduleDto replaceSchedule(Integer doctorId, AvailabilityScheduleDto schedule) {
+        validate(schedule);
+        Doctor doctor = findDoctor(doctorId);
+
+        List<WeeklyWindowDto> weekly = schedule.getWeekly() != null ? schedule.getWeekly() : List.of();
+        replaceWindows(doctorId, weekly);
+
+        exceptionRepository.deleteByDoctorId(doctorId);
+        if (schedule.getExceptions() != null) {
+            exceptionRepository.saveAll(schedule.getExceptions().stream()
+                    .map(e -> new AvailabilityException(doctorId, e.getDate(), e.getStart(), e.getEnd(), e.isAvailable()))
+                    .toList());
+        }
+
+        doctor.setSlotMinutes(schedule.getSlotMinutes());
+        doctor.setAvailableTimes(formatAvailableTimes(weekly));
+        doctorRepository.save(doctor);
+
+        freeSlotEngine.invalidateAfterCommit(doctorId);
+        doctorSearchIndex.refreshAfterCommit(doctorId);
+        profileCache.evictAfterCommit(doctorId);
+        return getSchedule(doctorId);
+    }
+
+    /** Keep the weekly windows in step after a client wrote Doctor.availableTimes directly; exceptions stay */
+    @Transactional
+    public void syncWeeklyWindows(Integer doctorId, String availableTimes) {
+        replaceWindows(doctorId, parseAvailableTimes(availableTimes));
+        freeSlotEngine.invalidateAfterCommit(doctorId);
+    }
+
+    private void replaceWindows(Integer doctorId, List<WeeklyWindowDto> weekly) {
+        windowRepository.deleteByDoctorId(doctorId);
+        windowRepository.saveAll(weekly.stream()
+                .map(w -> new AvailabilityWindow(doctorId, w.getDay(), w.getStart(), w.getEnd()))
+                .toList());
+    }
+
+    private Doctor findDoctor(Integer doctorId) {
+        return doctorRepository.findById(doctorId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Doctor not found"));
+    }
+
+    private static void validate(AvailabilityScheduleDto schedule) {
+        Integer slot = schedule.getSlotMinutes();
+        if (slot != null && (slot < MIN_SLOT_MINUTES || slot > MAX_SLOT_MINUTES)) {
+            throw badRequest("slotMinutes must be between " + MIN_SLOT_MINUTES + " and " + MAX_SLOT_MINUTES);
+        }
+        if (schedule.getWeekly() != null) {
+            for (WeeklyWindowDto w : schedule.getWeekly()) {
+                if (w.getDay() == null || w.getStart() == null || w.getEnd() == null || !w.getStart().isBefore(w.getEnd())) {
+                    throw badRequest("Weekly windows need a day and start before end");
+                }
+            }
+        }
+        if (schedule.getExceptions() != null) {
+            for (AvailabilityExceptionDto e : schedule.getExceptions()) {
+                boolean wholeDay = e.getStart() == null && e.getEnd() == null;
+                boolean range = e.getStart() != null && e.getEnd() != null && e.getStart().isBefore(e.getEnd());
+                if (e.getDate() == null || !(range || (wholeDay && !e.isAvailable()))) {
+                    throw badRequest("Exceptions need a date and start before end (time off may omit both for the whole day)");
+                }
+            }
+        }
+    }
+
+    private static ResponseStatusException badRequest(String message) {
+        return new ResponseStatusException(HttpStatus.BAD_REQUEST, message);
+    }
+
+    /** "Monday 09:30-21:30, Tue 10:00-16:00" to windows; entries that don't parse are skipped */
+    public static List<WeeklyWindowDto> parseAvailableTimes(String availableTimes) {
+        if (availableTimes == null || availableTimes.isBlank()) {
+            return List.of();
+        }
+        List<WeeklyWindowDto> windows = new ArrayList<>();
+        for (String entry : availableTimes.split(",")) {
+            Matcher m = AVAILABLE_TIME.matcher(entry.trim());
+            if (!m.matches()) {
+                continue;
+            }
+            DayOfWeek day = dayOf(m.group(1));
+            try {
+                LocalTime start = LocalTime.parse(padHour(m.group(2)));
+                LocalTime end = LocalTime.parse(padHour(m.group(3)));
+                if (day != null && start.isBefore(end)) {
+                    windows.add(new WeeklyWindowDto(day, start, end));
+                }
+            } catch (DateTimeParseException ignored) {
+                // e.g. 25:00
+            }
+        }
+        windows.sort(Comparator.comparing(WeeklyWindowDto::getDay).thenComparing(WeeklyWindowDto::getStart));
+        return windows;
+    }
+
+    /** The readable form stored in Doctor.availableTimes, in the format the frontend parses */
+    public static String formatAvailableTimes(List<WeeklyWindowDto> weekly) {
+        if (weekly.isEmpty()) {
+            return null;
+        }
+        return weekly.stream()
+                .sorted(Comparator.comparing(WeeklyWindowDto::getDay).thenComparing(WeeklyWindowDto::getStart))
+                .map(w -> w.getDay().getDisplayName(TextStyle.FULL, Locale.ENGLISH) + " " + w.getStart() + "-" + w.getEnd())
+                .collect(Collectors.joining(", "));
+    }
+
+    // "Monday", "monday" or "Mon"
+    private static DayOfWeek dayOf(String name) {
+        String lower = name.toLowerCase(Locale.ROOT);
+        for (DayOfWeek day : DayOfWeek.values()) {
+            String full = day.getDisplayName(TextStyle.FULL, Locale.ENGLISH).toLowerCase(Locale.ROOT);
+            if (lower.length() >= 3 && full.startsWith(lower)) {
+                return day;
+            }
+        }
+        return null;
+    }
+
+    private static String padHour(String time) {
+        return time.length() == 4 ? "0" + time : time;
+    }
+}
@@ -1,31 +1,47 @@
 package com.example.backend.service;
 
-import com.example.backend.model.Appointment;
+import com.example.backend.dto.AppointmentDto;
+import com.example.backend.dto.AvailabilityScheduleDto;
+import com.example.backend.model.AppointmentStatus;
 import com.example.backend.model.Doctor;
-import com.example.backend.model.User;
 import com.example.backend.repository.AppointmentRepository;
 import com.example.backend.repository.DoctorRepository;
-import com.example.backend.repository.UserRepository;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
+import com.example.backend.security.AuthenticatedUser;
+import com.example.backend.security.CurrentUser;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.time.DayOfWeek;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.temporal.IsoFields;
 import java.util.List;
 
 @Service
 public class DoctorAppointmentService {
 
     private final DoctorRepository doctorRepository;
-    private final UserRepository userRepository;
     private final AppointmentRepository appointmentRepository;
+    private final CurrentUser currentUser;
+    private final DoctorSearchIndex doctorSearchIndex;
+    private final AvailabilityService availabilityService;
+    private final ProfileCache profileCache;
 
     public DoctorAppointmentService(DoctorRepository doctorRepository,
-                                    UserRepository userRepository,
-                                    AppointmentRepository appointmentRepository) {
+                                    AppointmentRepository appointmentRepository,
+                                    CurrentUser currentUser,
+                                    DoctorSearchIndex doctorSearchIndex,
+                                    AvailabilityService availabilityService,
+                                    ProfileCache profileCache) {
         this.doctorRepository = doctorRepository;
-        this.userRepository = userRepository;
         this.appointmentRepository = appointmentRepository;
+        this.currentUser = currentUser;
+        this.doctorSearchIndex = doctorSearchIndex;
+        this.availabilityService = availabilityService;
+        this.profileCache = profileCache;
     }
 
     // 🔹 Availability Methods
@@ -34,60 +50,91 @@ public class DoctorAppointmentService {
         return doctor.getAvailableTimes();
     }
 
+    @Transactional
     public Doctor updateAvailableTimes(String availableTimes) {
         Doctor doctor = getLoggedInDoctor();
         doctor.setAvailableTimes(availableTimes);
-        return doctorRepository.save(doctor);
+        Doctor saved = doctorRepository.save(doctor);
+        availabilityService.syncWeeklyWindows(saved.getId(), availableTimes);
+        // search results and the profile carry the available times
+        doctorSearchIndex.refreshAfterCommit(saved.getId());
+        profileCache.evictAfterCommit(saved.getId());
+        return saved;
     }
 
+    @Transactional
     public void clearAvailableTimes() {
         Doctor doctor = getLoggedInDoctor();
         doctor.setAvailableTimes(null);
         doctorRepository.save(doctor);
+        availabilityService.syncWeeklyWindows(doctor.getId(), null);
+        doctorSearchIndex.refreshAfterCommit(doctor.getId());
+        profileCache.evictAfterCommit(doctor.getId());
     }
 
-    // 🔹 Appointment Filtering
-/*
+    // 🔹 Structured availability (weekly windows, exceptions, slot length)
+    public AvailabilityScheduleDto getSchedule() {
+        return availabilityService.getSchedule(currentUser.userId());
+    }
+
+    public AvailabilityScheduleDto updateSchedule(AvailabilityScheduleDto schedule) {
+        return availabilityService.replaceSchedule(currentUser.userId(), schedule);
+    }
+
+    // 🔹 Appointment Filtering (all ranges are half-open: start inclusive, end exclusive)
+
     // By Status
-    public List<Appointment> getAppointmentsByStatus(Appointment.Status status) {
-        Long doctorId = getLoggedInDoctor().getId().longValue();
-        return appointmentRepository.findByDoctorIdAndStatus(doctorId, status);
+    public List<AppointmentDto> getAppointmentsByStatus(AppointmentStatus status) {
+        return appointmentRepository.findDoctorAppointmentsByStatus(currentUser.userId(), status);
     }
 
     // By Time Range
-    public List<Appointment> getAppointmentsByTimeRange(LocalDateTime start, LocalDateTime end) {
-        Long doctorId = getLoggedInDoctor().getId().longValue();
-        return appointmentRepository.findByDoctorIdAndDateBetween(doctorId, start, end);
+    public List<AppointmentDto> getAppointmentsByTimeRange(LocalDateTime start, LocalDateTime end) {
+        checkRange(start, end);
+        return appointmentRepository.findDoctorAppointmentsInRange(currentUser.userId(), start, end);
     }
 
-    // By Month
-    public List<Appointment> getAppointmentsByMonth(int month, int year) {
-        Long doctorId = getLoggedInDoctor().getId().longValue();
-        return appointmentRepository.findByDoctorAndMonth(doctorId, month, year);
+    // By Month: [1st of month, 1st of next month)
+    public List<AppointmentDto> getAppointmentsByMonth(int month, int year) {
+        if (month < 1 || month > 12) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Month must be between 1 and 12");
+        }
+        LocalDateTime start = YearMonth.of(year, month).atDay(1).atStartOfDay();
+        return appointmentRepository.findDoctorAppointmentsInRange(currentUser.userId(), start, start.plusMonths(1));
     }
 
-    // By Week
-    public List<Appointment> getAppointmentsByWeek(int week, int year) {
-        Long doctorId = getLoggedInDoctor().getId().longValue();
-        return appointmentRepository.findByDoctorAndWeek(doctorId, week, year);
+    // By ISO week (Monday to Monday)
+    public List<AppointmentDto> getAppointmentsByWeek(int week, int year) {
+        LocalDate anyDayOfYear = LocalDate.of(year, 6, 1);
+        if (!IsoFields.WEEK_OF_WEEK_BASED_YEAR.rangeRefinedBy(anyDayOfYear).isValidValue(week)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid week " + week + " for " + year);
+        }
+        LocalDateTime start = anyDayOfYear
+                .with(IsoFields.WEEK_OF_WEEK_BASED_YEAR, week)
+                .with(DayOfWeek.MONDAY)
+                .atStartOfDay();
+        return appointmentRepository.findDoctorAppointmentsInRange(currentUser.userId(), start, start.plusWeeks(1));
     }
 
     // By Status + Time Range
-    public List<Appointment> getAppointmentsByStatusAndTimeRange(Appointment.Status status,
-                                                                 LocalDateTime start,
-                                                                 LocalDateTime end) {
-        Long doctorId = getLoggedInDoctor().getId().longValue();
-        return appointmentRepository.findByDoctorIdAndStatusAndDateBetween(doctorId, status, start, end);
-    }*/
+    public List<AppointmentDto> getAppointmentsByStatusAndTimeRange(AppointmentStatus status,
+                                                                    LocalDateTime start,
+                                                                    LocalDateTime end) {
+        checkRange(start, end);
+        return appointmentRepository.findDoctorAppointmentsByStatusInRange(currentUser.userId(), status, start, end);
+    }
+
+    private void checkRange(LocalDateTime start, LocalDateTime end) {
+        if (!start.isBefore(end)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "start must be before end");
+        }
+    }
 
     // 🔹 Helper to get logged-in doctor
     private Doctor getLoggedInDoctor() {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        String username = auth.getName(); // email from JWT
-        User user = userRepository.findByEmail(username)
-                .orElseThrow(() -> new RuntimeException("User not found: " + username));
+        AuthenticatedUser user = currentUser.get();
 
-        return doctorRepository.findByUser(user)
-                .orElseThrow(() -> new RuntimeException("Doctor not found for user: " + username));
+        return doctorRepository.findById(user.getUserId())
+                .orElseThrow(() -> new RuntimeException("Doctor not found for user: " + user.getEmail()));
     }
 }
@@ -4,17 +4,18 @@ import com.example.backend.dto.AppointmentDto;
 import com.example.backend.exception.AppointmentNotFoundException;
 import com.example.backend.model.Appointment;
 import com.example.backend.model.AppointmentStatus;
-import com.example.backend.model.User;
 import com.example.backend.repository.AppointmentRepository;
-import com.example.backend.repository.UserRepository;
+import com.example.backend.security.AuthenticatedUser;
+import com.example.backend.security.CurrentUser;
 import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.time.LocalDateTime;
 import java.util.Optional;
 
 @Service
@@ -25,46 +26,36 @@ public class DoctorAppointmentstatService {
     private AppointmentRepository appointmentRepository;
 
     @Autowired
-    private UserRepository userRepository;
-
-    /**
-     * Get the currently authenticated user from Spring Security context
-     */
-    private User getAuthenticatedUser() {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        if (auth == null) return null;
-
-        String email = auth.getName(); // JWT username = email
-        return userRepository.findByEmail(email).orElse(null);
-    }
+    private CurrentUser currentUser;
 
     /**
      * Get authenticated doctor ID
      */
     public Integer getAuthenticatedDoctorId() {
-        User doctor = getAuthenticatedUser();
-        if (doctor == null) throw new RuntimeException("User not authenticated");
-        return doctor.getUserId(); // <-- replace with your actual User ID getter
+        AuthenticatedUser doctor = currentUser.get();
+        return doctor.getUserId();
     }
 
     /**
-     * Get all appointments for the authenticated doctor
-     * Optional filter by status: PENDING, CONFIRMED, CANCELLED, etc.
+     * Get appointments for the authenticated doctor, one page at a time
+     * Optional filter by status (PENDING, CONFIRMED, CANCELLED, etc.) and date window [from, to)
      */
-    public List<AppointmentDto> getAppointmentsForAuthenticatedDoctor(Optional<String> statusFilter) {
+    public Slice<AppointmentDto> getAppointmentsForAuthenticatedDoctor(Optional<String> statusFilter,
+                                                                       LocalDateTime from,
+                                                                       LocalDateTime to,
+                                                                       Pageable pageable) {
         Integer doctorId = getAuthenticatedDoctorId();
-        List<Appointment> appointments = appointmentRepository.findByDoctorId(doctorId);
 
+        AppointmentStatus status = null;
         if (statusFilter.isPresent()) {
-            String status = statusFilter.get().toUpperCase();
-            appointments.removeIf(a -> !a.getStatus().name().equals(status));
+            try {
+                status = AppointmentStatus.valueOf(statusFilter.get().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown status: " + statusFilter.get());
+            }
         }
 
-        List<AppointmentDto> dtoList = new ArrayList<>();
-        for (Appointment a : appointments) {
-            dtoList.add(mapToDto(a));
-        }
-        return dtoList;
+        return appointmentRepository.findDoctorAppointmentDtos(doctorId, status, from, to, pageable);
     }
 
     /**
@@ -103,20 +94,12 @@ public class DoctorAppointmentstatService {
      * Map Appointment entity to DTO
      */
     private AppointmentDto mapToDto(Appointment a) {
-        String patientName = "";
-        if (a.getPatient().getId() != null) {
-            User patient = userRepository.findById(a.getPatient().getId()).orElse(null);
-            if (patient != null) {
-                patientName = patient.getName(); // <-- replace with your actual User name getter
-            }
-        }
-
         return new AppointmentDto(
                 a.getId(),
                 a.getAppointmentDateTime(),
                 a.getStatus(),
                 a.getPatient().getId(),
-                patientName,
+                a.getPatient().getUser().getName(),
                 a.getDoctor().getId()
         );
     }
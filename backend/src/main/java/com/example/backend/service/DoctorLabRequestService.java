@@ -3,30 +3,29 @@ package com.example.backend.service;
 import com.example.backend.dto.DoctorLabRequestDto;
 import com.example.backend.model.*;
 import com.example.backend.repository.*;
+import com.example.backend.security.AuthenticatedUser;
+import com.example.backend.security.CurrentUser;
 import org.springframework.http.HttpStatus;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 public class DoctorLabRequestService {
 
     private final LabRequestRepository labRequestRepository;
     private final AppointmentRepository appointmentRepository;
-    private final UserRepository userRepository;
+    private final CurrentUser currentUser;
 
 
 
     public DoctorLabRequestService(LabRequestRepository labRequestRepository,
                                    AppointmentRepository appointmentRepository,
-                                   UserRepository userRepository) { // add this
+                                   CurrentUser currentUser) {
         this.labRequestRepository = labRequestRepository;
         this.appointmentRepository = appointmentRepository;
-        this.userRepository = userRepository; // assign it!
+        this.currentUser = currentUser;
     }
 
 
@@ -47,12 +46,12 @@ public class DoctorLabRequestService {
 
     // ✅ Get all lab requests by appointment
     public List<DoctorLabRequestDto> getLabRequestsByAppointment(Integer appointmentId) {
-        Appointment appointment = appointmentRepository.findById(appointmentId)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Appointment not found"));
+        List<DoctorLabRequestDto> requests = labRequestRepository.findDoctorDtosByAppointmentId(appointmentId);
 
-        return labRequestRepository.findByAppointment(appointment).stream()
-                .map(this::mapToDto)
-                .collect(Collectors.toList());
+        if (requests.isEmpty() && !appointmentRepository.existsById(appointmentId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Appointment not found");
+        }
+        return requests;
     }
 
     // ✅ Get single lab request
@@ -80,23 +79,14 @@ public class DoctorLabRequestService {
 
 
     public List<DoctorLabRequestDto> getAllLabRequestsByDoctor() {
-        User doctor = getAuthenticatedDoctor();
-
-        List<LabRequest> labRequests = labRequestRepository
-                .findByAppointment_Doctor_User_Email(doctor.getEmail())
-                .orElseThrow(() -> new RuntimeException("No lab requests found for this doctor"));
+        AuthenticatedUser doctor = getAuthenticatedDoctor();
 
-        return labRequests.stream()
-                .map(this::mapToDto)
-                .collect(Collectors.toList());
+        return labRequestRepository.findDoctorDtosByDoctorId(doctor.getUserId());
     }
 
     // Helper method to get the logged-in doctor
-    private User getAuthenticatedDoctor() {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        String email = auth.getName(); // assuming username is email
-        return userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("Authenticated doctor not found"));
+    private AuthenticatedUser getAuthenticatedDoctor() {
+        return currentUser.get();
     }
 
 
@@ -2,39 +2,50 @@ package com.example.backend.service;
 
 import com.example.backend.dto.AppointmentPrescriptionDto;
 import com.example.backend.dto.DoctorPatientHistoryDto;
+import com.example.backend.dto.LabReportInfoDto;
 import com.example.backend.dto.PatientHistoryDto;
+import com.example.backend.dto.PatientTimelineDto;
+import com.example.backend.dto.PrescriptionDto;
+import com.example.backend.dto.TimelineAppointmentDto;
 import com.example.backend.model.Appointment;
 import com.example.backend.model.Patient;
 import com.example.backend.model.Prescription;
 import com.example.backend.model.User;
 import com.example.backend.repository.AppointmentRepository;
+import com.example.backend.repository.LabRequestRepository;
 import com.example.backend.repository.PatientRepository;
 import com.example.backend.repository.PrescriptionRepository;
 import com.example.backend.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
 
 
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
 import org.springframework.beans.factory.annotation.Autowired;
 import com.example.backend.repository.LabReportRepository;
 import com.example.backend.model.LabReport;
 
-import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.NoSuchElementException;
 
 import java.util.List;
 import java.util.NoSuchElementException;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 @Service
 public class DoctorPatientHistoryService {
 
+    private static final Logger log = LoggerFactory.getLogger(DoctorPatientHistoryService.class);
+
     @Autowired
     private  PatientRepository patientRepository;
 
@@ -50,6 +61,18 @@ public class DoctorPatientHistoryService {
     @Autowired
     private LabReportRepository labReportRepository;
 
+    @Autowired
+    private LabRequestRepository labRequestRepository;
+
+    @Autowired
+    private FileStorageService fileStorageService;
+
+    @Autowired
+    private ReportFileIndex reportFileIndex;
+
+    public static final int DEFAULT_TIMELINE_PAGE_SIZE = 20;
+    public static final int MAX_TIMELINE_PAGE_SIZE = 100;
+
 
     // ✅ Fetch patient history using appointment ID (Integer)
     public PatientHistoryDto getPatientHistoryByPatientEmail(String email) {
@@ -69,84 +92,87 @@ public class DoctorPatientHistoryService {
 
 
     /**
-     * ✅ Fetch and stream lab report file (PDF, image, etc.)
+     * One page of a patient's timeline, newest appointment first.
+     * Three bounded queries per page (appointments, their prescriptions, their lab requests/reports)
+     * instead of one row per appointment x prescription x lab request combination.
      */
-    public Resource getLabReportFile(String fileName) {
-        try {
-            // ✅ FIXED: Use the correct path - files are in uploads/ not uploads/lab-reports/
-            Path uploadDir = Paths.get("uploads").toAbsolutePath().normalize();
-
-            System.out.println("🔍 DEBUG - Current working directory: " + Paths.get("").toAbsolutePath());
-            System.out.println("🔍 DEBUG - Upload directory path: " + uploadDir.toString());
-
-            // ✅ Create directory if it doesn't exist
-            if (!Files.exists(uploadDir)) {
-                System.out.println("📁 Directory doesn't exist, creating: " + uploadDir);
-                Files.createDirectories(uploadDir);
-                System.out.println("✅ Directory created successfully");
-            } else {
-                System.out.println("✅ Directory exists: " + uploadDir);
-            }
+    public PatientTimelineDto getPatientTimeline(String email, String cursor, int size) {
+        Integer patientId = userRepository.findByEmail(email)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Patient not found"))
+                .getUserId();
+
+        PatientHistoryDto patient = appointmentRepository.findPatientBasicInfo(patientId);
+        if (patient == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Patient not found");
+        }
 
-            // ✅ Resolve the requested file safely
-            Path filePath = uploadDir.resolve(fileName).normalize();
-            System.out.println("🔍 DEBUG - Full file path: " + filePath.toString());
+        int pageSize = Math.max(1, Math.min(size, MAX_TIMELINE_PAGE_SIZE));
+        // Fetch one extra row to know whether there is a next page
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+
+        List<TimelineAppointmentDto> appointments;
+        if (cursor == null || cursor.isBlank()) {
+            appointments = appointmentRepository.findTimelineFirstPage(patientId, limit);
+        } else {
+            TimelineCursor after = TimelineCursor.decode(cursor);
+            appointments = after.date() == null
+                    ? appointmentRepository.findUndatedTimelinePageBefore(patientId, after.id(), limit)
+                    : appointmentRepository.findTimelinePageBefore(patientId, after.date(), after.id(), limit);
+        }
 
-            // ✅ Security check: ensure the file path doesn't escape the upload directory
-            if (!filePath.startsWith(uploadDir)) {
-                throw new SecurityException("Invalid file path attempt: " + fileName);
-            }
+        String nextCursor = null;
+        if (appointments.size() > pageSize) {
+            appointments = appointments.subList(0, pageSize);
+            TimelineAppointmentDto last = appointments.get(pageSize - 1);
+            nextCursor = new TimelineCursor(last.getAppointmentDate(), last.getAppointmentId()).encode();
+        }
 
-            // ✅ Check if file exists
-            if (!Files.exists(filePath)) {
-                // List available files for debugging
-                System.out.println("❌ File not found. Available files in directory:");
-                try (Stream<Path> files = Files.list(uploadDir)) {
-                    List<String> fileList = files.map(path -> path.getFileName().toString())
-                            .collect(Collectors.toList());
-                    if (fileList.isEmpty()) {
-                        System.out.println("   📁 Directory is EMPTY");
-                    } else {
-                        fileList.forEach(f -> System.out.println("   - " + f));
-                    }
-                } catch (IOException e) {
-                    System.out.println("   ❌ Could not list directory: " + e.getMessage());
-                }
-                throw new RuntimeException("File not found: " + fileName + " at path: " + filePath);
-            }
+        if (!appointments.isEmpty()) {
+            Map<Integer, TimelineAppointmentDto> byId = new LinkedHashMap<>();
+            appointments.forEach(a -> byId.put(a.getAppointmentId(), a));
 
-            // ✅ Check if file is readable
-            if (!Files.isReadable(filePath)) {
-                throw new RuntimeException("File exists but is not readable: " + fileName);
+            for (PrescriptionDto prescription : prescriptionRepository.findDtosByAppointmentIds(byId.keySet())) {
+                byId.get(prescription.getAppointmentId()).getPrescriptions().add(prescription);
+            }
+            for (LabReportInfoDto labReport : labRequestRepository.findReportInfoByAppointmentIds(byId.keySet())) {
+                byId.get(labReport.getAppointmentId()).getLabReports().add(labReport);
             }
+        }
 
-            // ✅ Get file info for debugging
-            long fileSize = Files.size(filePath);
-            System.out.println("✅ File found - Size: " + fileSize + " bytes, Readable: " + Files.isReadable(filePath));
+        return new PatientTimelineDto(patient, appointments, nextCursor);
+    }
 
-            Resource resource = new UrlResource(filePath.toUri());
+    // Opaque page token: base64url("<appointmentDateTime>|<appointmentId>") of the last row returned.
+    // Appointments without a date sort after all dated ones and get an empty date part
+    record TimelineCursor(LocalDateTime date, Integer id) {
 
-            // ✅ Double-check resource
-            if (!resource.exists()) {
-                throw new RuntimeException("UrlResource reports file doesn't exist: " + fileName);
-            }
+        String encode() {
+            String raw = (date != null ? date.toString() : "") + "|" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
 
-            if (!resource.isReadable()) {
-                throw new RuntimeException("UrlResource reports file not readable: " + fileName);
+        static TimelineCursor decode(String cursor) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int sep = raw.lastIndexOf('|');
+                String date = raw.substring(0, sep);
+                return new TimelineCursor(date.isEmpty() ? null : LocalDateTime.parse(date),
+                        Integer.valueOf(raw.substring(sep + 1)));
+            } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
             }
+        }
+    }
 
-            System.out.println("🎯 Successfully loaded file: " + fileName);
-            return resource;
-
-        } catch (SecurityException e) {
-            System.err.println("🔒 Security violation for file: " + fileName);
-            throw new RuntimeException("Security violation: " + e.getMessage(), e);
-        } catch (IOException e) {
-            System.err.println("💾 I/O Error for file: " + fileName);
-            throw new RuntimeException("I/O error accessing file: " + fileName + " - " + e.getMessage(), e);
-        } catch (Exception e) {
-            System.err.println("❌ Unexpected error for file: " + fileName);
-            throw new RuntimeException("Error accessing file: " + fileName + " - " + e.getMessage(), e);
+    /**
+     * ✅ Resolve a lab report file (PDF, image, etc.) for streaming.
+     * Existence comes from the report index, so a miss never touches the upload directory.
+     */
+    public Path getLabReportFile(String fileName) {
+        if (!reportFileIndex.contains(fileName)) {
+            log.debug("Lab report file {} is not referenced by any report", fileName);
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Report file not found");
         }
+        return fileStorageService.getFilePath(fileName);
     }
 }
@@ -0,0 +1,310 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.DoctorSearchEntry;
+import com.example.backend.repository.DoctorRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.text.Normalizer;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory doctor search over name and specialization, so the patient search box never runs a
+ * LIKE '%...%' scan of doctor/users. Each field is indexed by trigrams (substring matches) and by the
+ * first one or two letters of every word (short typeahead input). Candidates from the postings are
+ * checked against the entry, ranked (exact, prefix, word prefix, substring) and paged.
+ * Changes through DoctorService / DoctorAppointmentService are applied after commit; a full reload every
+ * doctor.search.max-age-seconds picks up changes made by other instances.
+ */
+@Component
+public class DoctorSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(DoctorSearchIndex.class);
+
+    private static final int GRAM = 3;
+    private static final String WORD_PREFIX = "^";
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+
+    private static final Comparator<Match> RANKING = Comparator.comparingInt(Match::score).reversed()
+            .thenComparing(m -> m.doctor().name())
+            .thenComparing(m -> m.doctor().entry().getId());
+
+    private final DoctorRepository doctorRepository;
+    private final long maxAgeNanos;
+    // A lock rather than synchronized: it is held across JDBC calls, which would pin a virtual thread's carrier
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final AtomicBoolean reloading = new AtomicBoolean();
+
+    private volatile Snapshot snapshot;
+    private volatile long loadedAt;
+
+    public DoctorSearchIndex(DoctorRepository doctorRepository,
+                             @Value("${doctor.search.max-age-seconds:300}") long maxAgeSeconds) {
+        this.doctorRepository = doctorRepository;
+        this.maxAgeNanos = Duration.ofSeconds(maxAgeSeconds).toNanos();
+    }
+
+    private record Indexed(DoctorSearchEntry entry, String name, String specialization) {}
+
+    private record Match(Indexed doctor, int score) {}
+
+    // Postings are mutated in place for single doctor updates; a full reload builds a new snapshot and swaps it
+    private static final class Snapshot {
+        final Map<Integer, Indexed> doctors = new ConcurrentHashMap<>();
+        final Map<String, Set<Integer>> nameKeys = new ConcurrentHashMap<>();
+        final Map<String, Set<Integer>> specializationKeys = new ConcurrentHashMap<>();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        current();
+    }
+
+    /**
+     * Doctors matching both filters (a blank filter matches everyone), best match first.
+     * Terms of three or more characters match anywhere in the field, shorter ones match the start of a word.
+     */
+    public Slice<DoctorSearchEntry> search(String name, String specialization, Pageable pageable) {
+        Snapshot index = current();
+        String nameTerm = normalize(name);
+        String specializationTerm = normalize(specialization);
+
+        Collection<Integer> candidates;
+        if (nameTerm.isEmpty() && specializationTerm.isEmpty()) {
+            candidates = index.doctors.keySet();
+        } else if (specializationTerm.isEmpty()) {
+            candidates = candidates(index.nameKeys, nameTerm);
+        } else if (nameTerm.isEmpty()) {
+            candidates = candidates(index.specializationKeys, specializationTerm);
+        } else {
+            Set<Integer> both = candidates(index.nameKeys, nameTerm);
+            both.retainAll(candidates(index.specializationKeys, specializationTerm));
+            candidates = both;
+        }
+
+        List<Match> matches = new ArrayList<>();
+        for (Integer id : candidates) {
+            Indexed doctor = index.doctors.get(id);
+            if (doctor == null) {
+                continue;
+            }
+            int nameScore = nameTerm.isEmpty() ? 0 : score(doctor.name(), nameTerm);
+            int specializationScore = specializationTerm.isEmpty() ? 0 : score(doctor.specialization(), specializationTerm);
+            if ((nameTerm.isEmpty() || nameScore > 0) && (specializationTerm.isEmpty() || specializationScore > 0)) {
+                matches.add(new Match(doctor, nameScore + specializationScore));
+            }
+        }
+        matches.sort(RANKING);
+
+        long offset = pageable.getOffset();
+        int from = (int) Math.min(offset, matches.size());
+        int to = (int) Math.min(offset + pageable.getPageSize(), matches.size());
+        List<DoctorSearchEntry> page = matches.subList(from, to).stream().map(m -> m.doctor().entry()).toList();
+        return new SliceImpl<>(page, pageable, to < matches.size());
+    }
+
+    /** Typeahead: the best few doctors whose name or specialization matches the input */
+    public List<DoctorSearchEntry> suggest(String query, int limit) {
+        String term = normalize(query);
+        if (term.isEmpty()) {
+            return List.of();
+        }
+        Snapshot index = current();
+        Set<Integer> candidates = candidates(index.nameKeys, term);
+        candidates.addAll(candidates(index.specializationKeys, term));
+
+        List<Match> matches = new ArrayList<>(candidates.size());
+        for (Integer id : candidates) {
+            Indexed doctor = index.doctors.get(id);
+            if (doctor == null) {
+                continue;
+            }
+            // A name hit ranks above the same kind of specialization hit
+            int score = Math.max(score(doctor.name(), term) * 2, score(doctor.specialization(), term) * 2 - 1);
+            if (score > 0) {
+                matches.add(new Match(doctor, score));
+            }
+        }
+        return matches.stream().sorted(RANKING).limit(limit).map(m -> m.doctor().entry()).toList();
+    }
+
+    /** Re-read one doctor once the current transaction (if any) has committed */
+    public void refreshAfterCommit(Integer doctorId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    refresh(doctorId);
+                }
+            });
+        } else {
+            refresh(doctorId);
+        }
+    }
+
+    public void refresh(Integer doctorId) {
+        current();
+        writeLock.lock();
+        try {
+            // read under the lock: a reload may have swapped the snapshot meanwhile
+            Snapshot target = snapshot;
+            unindex(target, doctorId);
+            doctorRepository.findSearchEntryById(doctorId).ifPresent(entry -> index(target, entry));
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private Snapshot current() {
+        Snapshot index = snapshot;
+        if (index == null) {
+            writeLock.lock();
+            try {
+                if (snapshot == null) {
+                    reload();
+                }
+                return snapshot;
+            } finally {
+                writeLock.unlock();
+            }
+        }
+        if (System.nanoTime() - loadedAt > maxAgeNanos && reloading.compareAndSet(false, true)) {
+            // One caller rebuilds, everyone else keeps searching the current snapshot
+            writeLock.lock();
+            try {
+                reload();
+            } finally {
+                writeLock.unlock();
+                reloading.set(false);
+            }
+        }
+        return snapshot;
+    }
+
+    private void reload() {
+        long start = System.nanoTime();
+        Snapshot fresh = new Snapshot();
+        List<DoctorSearchEntry> entries = doctorRepository.findAllSearchEntries();
+        entries.forEach(entry -> index(fresh, entry));
+        snapshot = fresh;
+        loadedAt = System.nanoTime();
+        log.debug("Indexed {} doctors in {} ms", entries.size(), Duration.ofNanos(loadedAt - start).toMillis());
+    }
+
+    private static void index(Snapshot index, DoctorSearchEntry entry) {
+        Indexed doctor = new Indexed(entry, normalize(entry.getName()), normalize(entry.getSpecialization()));
+        index.doctors.put(entry.getId(), doctor);
+        for (String key : keysOf(doctor.name())) {
+            index.nameKeys.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(entry.getId());
+        }
+        for (String key : keysOf(doctor.specialization())) {
+            index.specializationKeys.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(entry.getId());
+        }
+    }
+
+    private static void unindex(Snapshot index, Integer doctorId) {
+        Indexed doctor = index.doctors.remove(doctorId);
+        if (doctor == null) {
+            return;
+        }
+        removePostings(index.nameKeys, keysOf(doctor.name()), doctorId);
+        removePostings(index.specializationKeys, keysOf(doctor.specialization()), doctorId);
+    }
+
+    private static void removePostings(Map<String, Set<Integer>> postings, Set<String> keys, Integer doctorId) {
+        for (String key : keys) {
+            Set<Integer> ids = postings.get(key);
+            if (ids != null) {
+                ids.remove(doctorId);
+                if (ids.isEmpty()) {
+                    postings.remove(key, ids);
+                }
+            }
+        }
+    }
+
+    // Intersection of the postings for every key of the term, smallest list first
+    private static Set<Integer> candidates(Map<String, Set<Integer>> postings, String term) {
+        List<Set<Integer>> lists = new ArrayList<>();
+        for (String key : termKeys(term)) {
+            Set<Integer> ids = postings.get(key);
+            if (ids == null) {
+                return new HashSet<>();
+            }
+            lists.add(ids);
+        }
+        lists.sort(Comparator.comparingInt(Set::size));
+        Set<Integer> result = new HashSet<>(lists.get(0));
+        for (int i = 1; i < lists.size() && !result.isEmpty(); i++) {
+            result.retainAll(lists.get(i));
+        }
+        return result;
+    }
+
+    private static Set<String> termKeys(String term) {
+        if (term.length() < GRAM) {
+            return Set.of(WORD_PREFIX + term);
+        }
+        Set<String> keys = new HashSet<>();
+        for (int i = 0; i + GRAM <= term.length(); i++) {
+            keys.add(term.substring(i, i + GRAM));
+        }
+        return keys;
+    }
+
+    private static Set<String> keysOf(String field) {
+        Set<String> keys = new HashSet<>();
+        for (int i = 0; i + GRAM <= field.length(); i++) {
+            keys.add(field.substring(i, i + GRAM));
+        }
+        if (!field.isEmpty()) {
+            for (String word : field.split(" ")) {
+                keys.add(WORD_PREFIX + word.charAt(0));
+                if (word.length() > 1) {
+                    keys.add(WORD_PREFIX + word.substring(0, 2));
+                }
+            }
+        }
+        return keys;
+    }
+
+    private static int score(String field, String term) {
+        if (field.equals(term)) {
+            return 100;
+        }
+        if (field.startsWith(term)) {
+            return 80;
+        }
+        if (field.contains(" " + term)) {
+            return 60;
+        }
+        if (term.length() >= GRAM && field.contains(term)) {
+            return 30;
+        }
+        return 0;
+    }
+
+    // Lower case, accents stripped, anything but letters and digits collapsed to one space
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String stripped = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        return SEPARATORS.matcher(stripped.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+}
@@ -2,14 +2,16 @@ package com.example.backend.service;
 
 import com.example.backend.dto.DoctorDetailsDto;
 import com.example.backend.dto.DoctorProfileResponse;
+import com.example.backend.dto.DoctorSearchEntry;
 import com.example.backend.model.Doctor;
-import com.example.backend.model.User;
 import com.example.backend.repository.DoctorRepository;
 import com.example.backend.repository.UserRepository;
+import com.example.backend.security.AuthenticatedUser;
+import com.example.backend.security.CurrentUser;
 import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -25,12 +27,29 @@ public class DoctorService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private CurrentUser currentUser;
+
+    @Autowired
+    private ProfileCache profileCache;
+
+    @Autowired
+    private DoctorSearchIndex doctorSearchIndex;
+
+    @Autowired
+    private AvailabilityService availabilityService;
+
+    @Autowired
+    private FreeSlotEngine freeSlotEngine;
+
+    // 🔹 Served from memory; the row is read only on a miss
     public DoctorProfileResponse getDoctorProfile() {
-        String email = ((UserDetails) SecurityContextHolder.getContext().getAuthentication().getPrincipal()).getUsername();
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        AuthenticatedUser user = currentUser.get();
+        return profileCache.doctor(user.getUserId(), userId -> loadDoctorProfile(user));
+    }
 
-        Optional<Doctor> doctorOpt = doctorRepository.findByUser(user);
+    private DoctorProfileResponse loadDoctorProfile(AuthenticatedUser user) {
+        Optional<Doctor> doctorOpt = doctorRepository.findById(user.getUserId());
 
         if (doctorOpt.isPresent()) {
             Doctor doctor = doctorOpt.get();
@@ -56,18 +75,16 @@ public class DoctorService {
 
     @Transactional
     public void saveOrUpdateDoctorDetails(DoctorDetailsDto doctorDetailsDto) {
-        String email = ((UserDetails) SecurityContextHolder.getContext().getAuthentication().getPrincipal()).getUsername();
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        AuthenticatedUser user = currentUser.get();
 
-        Optional<Doctor> existingDoctor = doctorRepository.findByUser(user);
+        Optional<Doctor> existingDoctor = doctorRepository.findById(user.getUserId());
 
         Doctor doctor;
         if (existingDoctor.isPresent()) {
             doctor = existingDoctor.get();
         } else {
             doctor = new Doctor();
-            doctor.setUser(user); // This sets the ID to match user ID
+            doctor.setUser(userRepository.getReferenceById(user.getUserId())); // This sets the ID to match user ID
         }
 
         doctor.setSpecialization(doctorDetailsDto.getSpecialization());
@@ -75,27 +92,29 @@ public class DoctorService {
         doctor.setAvailableTimes(doctorDetailsDto.getAvailableTimes());
 
         doctorRepository.save(doctor);
+        availabilityService.syncWeeklyWindows(user.getUserId(), doctorDetailsDto.getAvailableTimes());
+        profileCache.evictAfterCommit(user.getUserId());
+        doctorSearchIndex.refreshAfterCommit(user.getUserId());
     }
 
     @Transactional
     public void deleteDoctorProfile() {
-        String email = ((UserDetails) SecurityContextHolder.getContext().getAuthentication().getPrincipal()).getUsername();
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        AuthenticatedUser user = currentUser.get();
+
+        doctorRepository.deleteById(user.getUserId());
+        profileCache.evictAfterCommit(user.getUserId());
+        doctorSearchIndex.refreshAfterCommit(user.getUserId());
+        freeSlotEngine.invalidateAfterCommit(user.getUserId());
+    }
 
-        doctorRepository.deleteByUser(user);
+    // Ranked, paged search over the in-memory index (no table scan per keystroke)
+    public Slice<DoctorProfileResponse> searchDoctors(String name, String specialization, Pageable pageable) {
+        return doctorSearchIndex.search(name, specialization, pageable).map(DoctorSearchEntry::toProfile);
     }
 
-    public List<DoctorProfileResponse> searchDoctors(String name, String specization) {
-        return doctorRepository.searchDoctors(name, specization).stream()
-                .map(d -> new DoctorProfileResponse(
-                        d.getUser().getName(),
-                        d.getUser().getEmail(),
-                        d.getSpecialization(),
-                        d.getLicenseNumber(),
-                        d.getAvailableTimes(),
-                        true
-                ))
+    public List<DoctorProfileResponse> suggestDoctors(String query, int limit) {
+        return doctorSearchIndex.suggest(query, limit).stream()
+                .map(DoctorSearchEntry::toProfile)
                 .collect(Collectors.toList());
     }
 }
@@ -0,0 +1,49 @@
+package com.example.backend.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Striped per-doctor locks for slot reservation: bookings for the same doctor queue up in this instance
+ * instead of racing to the unique index, while different doctors book in parallel. Correctness across
+ * instances comes from uk_appointments_doctor_slot, not from these locks.
+ */
+@Component
+public class DoctorSlotLocks {
+
+    private final ReentrantLock[] stripes;
+    private final long timeoutMillis;
+
+    public DoctorSlotLocks(@Value("${appointments.lock-stripes:64}") int stripes,
+                           @Value("${appointments.lock-timeout-ms:5000}") long timeoutMillis) {
+        this.stripes = new ReentrantLock[Math.max(1, stripes)];
+        for (int i = 0; i < this.stripes.length; i++) {
+            this.stripes[i] = new ReentrantLock();
+        }
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /** Run the action (including its transaction commit) while holding the doctor's stripe */
+    public <T> T withDoctorLock(Integer doctorId, Supplier<T> action) {
+        ReentrantLock lock = stripes[Math.floorMod(doctorId.hashCode(), stripes.length)];
+        try {
+            if (!lock.tryLock(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Booking is busy, please retry");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Booking interrupted");
+        }
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
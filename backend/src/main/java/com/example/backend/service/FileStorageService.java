@@ -1,32 +1,89 @@
 package com.example.backend.service;
 
+import com.example.backend.repository.StoredFileRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.UrlResource;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.MalformedURLException;
 import java.nio.file.*;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 @Service
 public class FileStorageService {
 
+    // "<sha256>" or "<sha256>.<ext>" - the extension only keeps file type detection working for clients
+    private static final Pattern CONTENT_REFERENCE = Pattern.compile("([0-9a-f]{64})(\\.[a-z0-9]{1,10})?");
+    private static final Pattern EXTENSION = Pattern.compile("\\.([A-Za-z0-9]{1,10})$");
+    private static final String TEMP_DIR = ".tmp";
+
     private final Path fileStorageLocation;
+    private final Path tempLocation;
+    private final boolean contentAddressed;
+    private final StoredFileRepository storedFileRepository;
+    private final MeterRegistry meterRegistry;
+    private final DistributionSummary uploadedBytes;
 
-    public FileStorageService(@Value("${file.upload-dir:uploads}") String uploadDir) {
+    public FileStorageService(@Value("${file.upload-dir:uploads}") String uploadDir,
+                              @Value("${file.storage-mode:content-addressed}") String storageMode,
+                              StoredFileRepository storedFileRepository,
+                              ObjectProvider<MeterRegistry> meterRegistry) {
         this.fileStorageLocation = Paths.get(uploadDir).toAbsolutePath().normalize();
+        this.tempLocation = this.fileStorageLocation.resolve(TEMP_DIR);
+        this.storedFileRepository = storedFileRepository;
+        // Without a registry (slice tests) the global one records nothing
+        this.meterRegistry = meterRegistry.getIfAvailable(() -> Metrics.globalRegistry);
+        this.uploadedBytes = DistributionSummary.builder("storage.uploaded")
+                .description("Size of stored uploads")
+                .baseUnit("bytes")
+                .register(this.meterRegistry);
+
+        if ("content-addressed".equalsIgnoreCase(storageMode)) {
+            this.contentAddressed = true;
+        } else if ("legacy".equalsIgnoreCase(storageMode)) {
+            this.contentAddressed = false;
+        } else {
+            throw new IllegalStateException("Unknown file.storage-mode: " + storageMode + " (content-addressed or legacy)");
+        }
 
         try {
             Files.createDirectories(this.fileStorageLocation);
+            Files.createDirectories(this.tempLocation);
         } catch (Exception ex) {
             throw new RuntimeException("Could not create the directory for file uploads.", ex);
         }
     }
 
+    /**
+     * Store an upload and return the reference to save in LabReport.reportFile.
+     * Content-addressed mode: the hash of the content (plus extension), legacy mode: the original file name.
+     */
+    @Transactional
     public String storeFile(MultipartFile file) {
+        String reference = timed("store", () -> store(file));
+        uploadedBytes.record(file.getSize());
+        return reference;
+    }
+
+    private String store(MultipartFile file) {
         String fileName = StringUtils.cleanPath(file.getOriginalFilename());
 
         try {
@@ -34,6 +91,10 @@ public class FileStorageService {
                 throw new RuntimeException("Invalid path sequence " + fileName);
             }
 
+            if (contentAddressed) {
+                return storeContentAddressed(file, fileName);
+            }
+
             Path targetLocation = this.fileStorageLocation.resolve(fileName);
             Files.copy(file.getInputStream(), targetLocation, StandardCopyOption.REPLACE_EXISTING);
 
@@ -43,12 +104,127 @@ public class FileStorageService {
         }
     }
 
+    private String storeContentAddressed(MultipartFile file, String fileName) throws IOException {
+        // Hash while writing to a temp file, so the upload is read exactly once
+        Path temp = Files.createTempFile(tempLocation, "upload-", ".part");
+        String hash;
+        long size;
+        try {
+            MessageDigest digest = sha256();
+            try (InputStream in = new DigestInputStream(file.getInputStream(), digest)) {
+                size = Files.copy(in, temp, StandardCopyOption.REPLACE_EXISTING);
+            }
+            hash = HexFormat.of().formatHex(digest.digest());
+        } catch (IOException | RuntimeException ex) {
+            Files.deleteIfExists(temp);
+            throw ex;
+        }
+
+        // Count the reference before touching the blob. Its row stays locked until this transaction ends, so a
+        // concurrent release of the last reference either finished first (row and file gone, both are written
+        // again) or sees this reference and keeps the file
+        try {
+            storedFileRepository.addReference(hash, size, file.getContentType(), fileName);
+        } catch (RuntimeException ex) {
+            Files.deleteIfExists(temp);
+            throw ex;
+        }
+
+        // Always move, even when the blob exists (dedup): it may be the one a release is about to delete,
+        // and renaming identical bytes over it is harmless
+        try {
+            Path target = blobPath(hash);
+            Files.createDirectories(target.getParent());
+            moveAtomically(temp, target);
+        } catch (IOException | RuntimeException ex) {
+            // The reference rolls back with the transaction
+            Files.deleteIfExists(temp);
+            throw ex;
+        }
+        return hash + extensionOf(fileName);
+    }
+
+    private void moveAtomically(Path temp, Path target) throws IOException {
+        try {
+            // Replaces an existing blob with identical bytes (rename semantics on POSIX)
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (FileAlreadyExistsException e) {
+            Files.deleteIfExists(temp);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Drop one reference to a stored file, deleting the blob once no lab report points at it.
+     * Legacy (name based) files are left alone since several reports may share a name.
+     * The blob is deleted while its row is locked, so a concurrent store of the same content waits
+     * for this transaction and then writes the file again.
+     */
+    @Transactional
+    public void releaseFile(String reference) {
+        timed("release", () -> {
+            release(reference);
+            return null;
+        });
+    }
+
+    private void release(String reference) {
+        Matcher m = CONTENT_REFERENCE.matcher(reference);
+        if (!m.matches()) {
+            return;
+        }
+        String hash = m.group(1);
+        if (storedFileRepository.lockByHash(hash).isEmpty()) {
+            return;
+        }
+        storedFileRepository.removeReference(hash);
+        if (storedFileRepository.deleteIfUnreferenced(hash) > 0) {
+            try {
+                Files.deleteIfExists(blobPath(hash));
+            } catch (IOException ex) {
+                throw new RuntimeException("Could not delete file " + reference, ex);
+            }
+        }
+    }
+
+    /** File name an upload is downloaded under: no client side directories, at most 255 characters (keeps the end) */
+    public static String originalNameOf(MultipartFile file) {
+        String name = StringUtils.getFilename(StringUtils.cleanPath(String.valueOf(file.getOriginalFilename())));
+        if (!StringUtils.hasText(name) || "null".equals(name)) {
+            return null;
+        }
+        return name.length() > 255 ? name.substring(name.length() - 255) : name;
+    }
+
+    /** Content hash of a reference, or null for legacy (name based) files */
+    public String contentHashOf(String reference) {
+        Matcher m = CONTENT_REFERENCE.matcher(reference);
+        return m.matches() ? m.group(1) : null;
+    }
+
+    public boolean isContentAddressed() {
+        return contentAddressed;
+    }
+
+    // Resolves both content references and legacy file names (older reports) inside the upload directory
     public Path getFilePath(String fileName) {
-        return this.fileStorageLocation.resolve(fileName).normalize();
+        Matcher m = CONTENT_REFERENCE.matcher(fileName);
+        Path path = m.matches()
+                ? blobPath(m.group(1))
+                : this.fileStorageLocation.resolve(fileName).normalize();
+        if (!path.startsWith(this.fileStorageLocation)) {
+            throw new RuntimeException("Invalid path sequence " + fileName);
+        }
+        return path;
     }
 
     // 🔹 New method to load file as Resource (for download/view)
     public Resource loadFileAsResource(String fileName) {
+        return timed("load", () -> load(fileName));
+    }
+
+    private Resource load(String fileName) {
         try {
             Path filePath = getFilePath(fileName);
             Resource resource = new UrlResource(filePath.toUri());
@@ -61,4 +237,42 @@ public class FileStorageService {
             throw new RuntimeException("File not found: " + fileName, ex);
         }
     }
+
+    // storage.operations{operation, outcome}
+    private <T> T timed(String operation, Supplier<T> action) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "failure";
+        try {
+            T result = action.get();
+            outcome = "success";
+            return result;
+        } finally {
+            sample.stop(Timer.builder("storage.operations")
+                    .description("Lab report file storage operations")
+                    .tag("operation", operation)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+        }
+    }
+
+    // uploads/ab/cd/abcd...
+    private Path blobPath(String hash) {
+        return this.fileStorageLocation
+                .resolve(hash.substring(0, 2))
+                .resolve(hash.substring(2, 4))
+                .resolve(hash);
+    }
+
+    private static String extensionOf(String fileName) {
+        Matcher m = EXTENSION.matcher(fileName);
+        return m.find() ? "." + m.group(1).toLowerCase(Locale.ROOT) : "";
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
 }
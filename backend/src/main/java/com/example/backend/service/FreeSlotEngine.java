@@ -0,0 +1,245 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.BookedSlotDto;
+import com.example.backend.dto.DoctorScheduleSettingsDto;
+import com.example.backend.dto.DoctorSearchEntry;
+import com.example.backend.dto.FreeDoctorDto;
+import com.example.backend.dto.FreeSlotDto;
+import com.example.backend.dto.WeeklyWindowDto;
+import com.example.backend.model.AppointmentStatus;
+import com.example.backend.model.AvailabilityException;
+import com.example.backend.model.AvailabilityWindow;
+import com.example.backend.repository.AppointmentRepository;
+import com.example.backend.repository.AvailabilityExceptionRepository;
+import com.example.backend.repository.AvailabilityWindowRepository;
+import com.example.backend.repository.DoctorRepository;
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Free appointment slots: each doctor's open hours for a day (weekly windows + extra hours - time off) as
+ * sorted minute intervals, walked against the sorted start times of live bookings. Schedules are cached
+ * per doctor and bulk loaded, so "who is free at T" over every doctor costs two queries when warm.
+ * Every booking occupies one slot of its doctor's length from its start time.
+ */
+@Component
+public class FreeSlotEngine {
+
+    private static final int MINUTES_PER_DAY = 24 * 60;
+
+    private final DoctorRepository doctorRepository;
+    private final AvailabilityWindowRepository windowRepository;
+    private final AvailabilityExceptionRepository exceptionRepository;
+    private final AppointmentRepository appointmentRepository;
+    private final int defaultSlotMinutes;
+    private final int horizonDays;
+    private final LoadingCache<Integer, DoctorSchedule> schedules;
+
+    public FreeSlotEngine(DoctorRepository doctorRepository,
+                          AvailabilityWindowRepository windowRepository,
+                          AvailabilityExceptionRepository exceptionRepository,
+                          AppointmentRepository appointmentRepository,
+                          @Value("${appointments.default-slot-minutes:30}") int defaultSlotMinutes,
+                          @Value("${appointments.free-slot-horizon-days:60}") int horizonDays,
+                          @Value("${appointments.schedule-cache-seconds:600}") long cacheSeconds) {
+        this.doctorRepository = doctorRepository;
+        this.windowRepository = windowRepository;
+        this.exceptionRepository = exceptionRepository;
+        this.appointmentRepository = appointmentRepository;
+        this.defaultSlotMinutes = defaultSlotMinutes;
+        this.horizonDays = horizonDays;
+        // Expiry also picks up changes made on other instances and drops exceptions that are now in the past
+        this.schedules = Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfterWrite(Duration.ofSeconds(cacheSeconds))
+                .build(new CacheLoader<Integer, DoctorSchedule>() {
+                    @Override
+                    public DoctorSchedule load(Integer doctorId) {
+                        return loadSchedules(Set.of(doctorId)).get(doctorId);
+                    }
+
+                    @Override
+                    public Map<Integer, DoctorSchedule> loadAll(Set<? extends Integer> doctorIds) {
+                        return loadSchedules(doctorIds);
+                    }
+                });
+    }
+
+    // Open minutes per ISO weekday (index 1-7), plus dated extra hours and time off
+    private record DoctorSchedule(int slotMinutes, int[][] weekly, Map<LocalDate, int[]> extra, Map<LocalDate, int[]> blocked) {
+
+        int[] openOn(LocalDate date) {
+            int[] open = Intervals.union(weekly[date.getDayOfWeek().getValue()], extra.getOrDefault(date, Intervals.EMPTY));
+            return Intervals.subtract(open, blocked.getOrDefault(date, Intervals.EMPTY));
+        }
+    }
+
+    /** The next free slots of one doctor at or after from (now if earlier), up to the configured horizon */
+    public List<FreeSlotDto> nextFreeSlots(Integer doctorId, LocalDateTime from, int count) {
+        DoctorSchedule schedule = schedules.get(doctorId);
+        if (schedule == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Doctor not found");
+        }
+        LocalDateTime now = LocalDateTime.now();
+        if (from == null || from.isBefore(now)) {
+            from = now;
+        }
+
+        LocalDate firstDay = from.toLocalDate();
+        LocalDateTime base = firstDay.atStartOfDay();
+        int slot = schedule.slotMinutes();
+        // A booking that starts shortly before midnight still covers the first minutes of the next day
+        long[] booked = appointmentRepository.findBookedTimes(doctorId, base.minusMinutes(slot),
+                        base.plusDays(horizonDays), AppointmentStatus.CANCELLED).stream()
+                .mapToLong(time -> Duration.between(base, time).toMinutes())
+                .toArray();
+        long earliest = (Duration.between(base, from).getSeconds() + 59) / 60;
+
+        List<FreeSlotDto> free = new ArrayList<>(count);
+        int next = 0;
+        for (int day = 0; day < horizonDays && free.size() < count; day++) {
+            int[] open = schedule.openOn(firstDay.plusDays(day));
+            long dayStart = (long) day * MINUTES_PER_DAY;
+            for (int i = 0; i < open.length && free.size() < count; i += 2) {
+                long end = dayStart + open[i + 1];
+                for (long start = dayStart + open[i]; start + slot <= end && free.size() < count; start += slot) {
+                    if (start < earliest) {
+                        continue;
+                    }
+                    // Slots only move forward, so bookings that ended before this slot can be skipped for good
+                    while (next < booked.length && booked[next] + slot <= start) {
+                        next++;
+                    }
+                    if (next < booked.length && booked[next] < start + slot) {
+                        continue;
+                    }
+                    free.add(new FreeSlotDto(base.plusMinutes(start), base.plusMinutes(start + slot)));
+                }
+            }
+        }
+        return free;
+    }
+
+    /** Every doctor who could take an appointment starting at the given time, by name */
+    public List<FreeDoctorDto> doctorsFreeAt(LocalDateTime at) {
+        Map<Integer, DoctorSchedule> all = schedules.getAll(doctorRepository.findAllIds());
+        if (all.isEmpty()) {
+            return List.of();
+        }
+        int longestSlot = all.values().stream().mapToInt(DoctorSchedule::slotMinutes).max().orElse(defaultSlotMinutes);
+        Map<Integer, List<LocalDateTime>> booked = appointmentRepository.findBookedSlotsBetween(
+                        at.minusMinutes(longestSlot), at.plusMinutes(longestSlot), AppointmentStatus.CANCELLED).stream()
+                .collect(Collectors.groupingBy(BookedSlotDto::getDoctorId,
+                        Collectors.mapping(BookedSlotDto::getStart, Collectors.toList())));
+
+        LocalDate date = at.toLocalDate();
+        int minute = at.toLocalTime().toSecondOfDay() / 60;
+        Map<Integer, Integer> freeSlotLength = new HashMap<>();
+        all.forEach((doctorId, schedule) -> {
+            int slot = schedule.slotMinutes();
+            if (minute + slot > MINUTES_PER_DAY || !Intervals.covers(schedule.openOn(date), minute, minute + slot)) {
+                return;
+            }
+            LocalDateTime end = at.plusMinutes(slot);
+            for (LocalDateTime start : booked.getOrDefault(doctorId, List.of())) {
+                if (start.isBefore(end) && start.plusMinutes(slot).isAfter(at)) {
+                    return;
+                }
+            }
+            freeSlotLength.put(doctorId, slot);
+        });
+        if (freeSlotLength.isEmpty()) {
+            return List.of();
+        }
+
+        return doctorRepository.findSearchEntriesByIds(freeSlotLength.keySet()).stream()
+                .sorted(Comparator.comparing(DoctorSearchEntry::getName, Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER)))
+                .map(d -> new FreeDoctorDto(d.getId(), d.getName(), d.getEmail(), d.getSpecialization(),
+                        at, at.plusMinutes(freeSlotLength.get(d.getId()))))
+                .collect(Collectors.toList());
+    }
+
+    public int slotMinutesOf(Integer slotMinutes) {
+        return slotMinutes != null ? slotMinutes : defaultSlotMinutes;
+    }
+
+    /** Drop a doctor's cached schedule once the current transaction (if any) has committed */
+    public void invalidateAfterCommit(Integer doctorId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    schedules.invalidate(doctorId);
+                }
+            });
+        } else {
+            schedules.invalidate(doctorId);
+        }
+    }
+
+    // Three queries for any number of doctors
+    private Map<Integer, DoctorSchedule> loadSchedules(Set<? extends Integer> doctorIds) {
+        List<Integer> ids = new ArrayList<>(doctorIds);
+        Map<Integer, List<AvailabilityWindow>> windows = windowRepository.findByDoctorIdIn(ids).stream()
+                .collect(Collectors.groupingBy(AvailabilityWindow::getDoctorId));
+        Map<Integer, List<AvailabilityException>> exceptions = exceptionRepository
+                .findByDoctorIdInAndDateGreaterThanEqual(ids, LocalDate.now()).stream()
+                .collect(Collectors.groupingBy(AvailabilityException::getDoctorId));
+
+        Map<Integer, DoctorSchedule> loaded = new HashMap<>();
+        for (DoctorScheduleSettingsDto doctor : doctorRepository.findScheduleSettings(ids)) {
+            loaded.put(doctor.getDoctorId(), buildSchedule(doctor,
+                    windows.getOrDefault(doctor.getDoctorId(), List.of()),
+                    exceptions.getOrDefault(doctor.getDoctorId(), List.of())));
+        }
+        return loaded;
+    }
+
+    private DoctorSchedule buildSchedule(DoctorScheduleSettingsDto doctor,
+                                         List<AvailabilityWindow> windows,
+                                         List<AvailabilityException> exceptions) {
+        // Doctors who only have the old free-text availability get it parsed
+        List<WeeklyWindowDto> weeklyWindows = windows.isEmpty()
+                ? AvailabilityService.parseAvailableTimes(doctor.getAvailableTimes())
+                : windows.stream().map(w -> new WeeklyWindowDto(w.getDayOfWeek(), w.getStartTime(), w.getEndTime())).toList();
+
+        int[][] weekly = new int[8][];
+        for (int day = 1; day <= 7; day++) {
+            int dayOfWeek = day;
+            weekly[day] = Intervals.normalize(weeklyWindows.stream()
+                    .filter(w -> w.getDay().getValue() == dayOfWeek)
+                    .flatMapToInt(w -> Arrays.stream(new int[]{minuteOf(w.getStart()), minuteOf(w.getEnd())}))
+                    .toArray());
+        }
+
+        Map<LocalDate, int[]> extra = new HashMap<>();
+        Map<LocalDate, int[]> blocked = new HashMap<>();
+        for (AvailabilityException exception : exceptions) {
+            Map<LocalDate, int[]> target = exception.isAvailable() ? extra : blocked;
+            int[] range = exception.getStartTime() == null || exception.getEndTime() == null
+                    ? new int[]{0, MINUTES_PER_DAY}
+                    : new int[]{minuteOf(exception.getStartTime()), minuteOf(exception.getEndTime())};
+            target.merge(exception.getDate(), Intervals.normalize(range), Intervals::union);
+        }
+
+        return new DoctorSchedule(slotMinutesOf(doctor.getSlotMinutes()), weekly, extra, blocked);
+    }
+
+    private static int minuteOf(LocalTime time) {
+        return time.toSecondOfDay() / 60;
+    }
+}
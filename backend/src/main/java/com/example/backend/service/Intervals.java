@@ -0,0 +1,98 @@
+package com.example.backend.service;
+
+import java.util.Arrays;
+
+/**
+ * Half-open integer intervals packed in sorted arrays: [start0, end0, start1, end1, ...],
+ * sorted by start and non-overlapping once normalized. Used by the free-slot engine with minutes of the day.
+ */
+final class Intervals {
+
+    static final int[] EMPTY = new int[0];
+
+    private Intervals() {
+    }
+
+    /** Sort by start and merge overlapping or touching intervals; empty ones are dropped */
+    static int[] normalize(int[] pairs) {
+        int count = pairs.length / 2;
+        if (count == 0) {
+            return EMPTY;
+        }
+        long[] packed = new long[count];
+        for (int i = 0; i < count; i++) {
+            packed[i] = ((long) pairs[2 * i] << 32) | (pairs[2 * i + 1] & 0xffffffffL);
+        }
+        Arrays.sort(packed);
+
+        int[] out = new int[pairs.length];
+        int n = 0;
+        for (long p : packed) {
+            int start = (int) (p >> 32);
+            int end = (int) p;
+            if (end <= start) {
+                continue;
+            }
+            if (n > 0 && start <= out[n - 1]) {
+                out[n - 1] = Math.max(out[n - 1], end);
+            } else {
+                out[n++] = start;
+                out[n++] = end;
+            }
+        }
+        return n == out.length ? out : Arrays.copyOf(out, n);
+    }
+
+    static int[] union(int[] a, int[] b) {
+        if (b.length == 0) {
+            return a;
+        }
+        if (a.length == 0) {
+            return b;
+        }
+        int[] both = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, both, a.length, b.length);
+        return normalize(both);
+    }
+
+    /** a minus b, both normalized */
+    static int[] subtract(int[] a, int[] b) {
+        if (a.length == 0 || b.length == 0) {
+            return a;
+        }
+        int[] out = new int[a.length + b.length];
+        int n = 0;
+        int j = 0;
+        for (int i = 0; i < a.length; i += 2) {
+            int start = a[i];
+            int end = a[i + 1];
+            while (j < b.length && b[j + 1] <= start) {
+                j += 2;
+            }
+            int k = j;
+            while (k < b.length && b[k] < end) {
+                if (b[k] > start) {
+                    out[n++] = start;
+                    out[n++] = b[k];
+                }
+                start = Math.max(start, b[k + 1]);
+                k += 2;
+            }
+            if (start < end) {
+                out[n++] = start;
+                out[n++] = end;
+            }
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    /** Whether [start, end) lies inside one interval of the normalized array */
+    static boolean covers(int[] intervals, int start, int end) {
+        for (int i = 0; i < intervals.length && intervals[i] <= start; i += 2) {
+            if (end <= intervals[i + 1]) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,185 @@
+package com.example.backend.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The pieces of a multi-file lab report upload: files are written in parallel on a small bounded pool,
+ * rows go in as one JDBC batch on the caller's transaction. Stored files are released again if anything
+ * fails, including a rollback of the surrounding transaction after this class is done.
+ */
+@Component
+public class LabReportIngestor {
+
+    private static final Logger log = LoggerFactory.getLogger(LabReportIngestor.class);
+
+    private static final String INSERT_REPORT = "INSERT INTO lab_report " +
+            "(report_file, original_name, date_issued, lab_tech_labtech_id, lab_request_id) VALUES (?, ?, ?, ?, ?)";
+
+    private final FileStorageService fileStorageService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate ownTransaction;
+    private final ThreadPoolExecutor executor;
+
+    public LabReportIngestor(FileStorageService fileStorageService,
+                             JdbcTemplate jdbcTemplate,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${lab-reports.ingest.threads:4}") int threads,
+                             @Value("${lab-reports.ingest.queue-capacity:256}") int queueCapacity) {
+        this.fileStorageService = fileStorageService;
+        this.jdbcTemplate = jdbcTemplate;
+        // Files are stored (and their references counted) outside the caller's transaction, also when the caller's
+        // thread stores one itself, and released the same way: the caller's transaction may roll back, or already has
+        this.ownTransaction = new TransactionTemplate(transactionManager);
+        this.ownTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        AtomicInteger counter = new AtomicInteger();
+        // Disk (and hashing) bound: a few threads are enough; when the queue is full the uploading thread helps out
+        this.executor = new ThreadPoolExecutor(
+                threads, threads,
+                0L, TimeUnit.MILLISECONDS,
+                queueCapacity > 0 ? new ArrayBlockingQueue<>(queueCapacity) : new SynchronousQueue<>(),
+                r -> {
+                    Thread t = new Thread(r, "lab-report-ingest-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy()
+        );
+    }
+
+    /**
+     * Store every file, in order of the input. If one fails the others are released and the first failure
+     * is rethrown; otherwise the files are released again should the current transaction roll back.
+     */
+    public List<String> storeFiles(List<MultipartFile> files) {
+        return storeFiles(files, () -> {});
+    }
+
+    /** Same, calling onStored (from a pool thread) after each file is written */
+    public List<String> storeFiles(List<MultipartFile> files, Runnable onStored) {
+        List<Future<String>> pending = new ArrayList<>(files.size());
+        for (MultipartFile file : files) {
+            pending.add(executor.submit(() -> {
+                String reference = ownTransaction.execute(status -> fileStorageService.storeFile(file));
+                onStored.run();
+                return reference;
+            }));
+        }
+
+        List<String> stored = new ArrayList<>(files.size());
+        RuntimeException failure = null;
+        // Wait for everything, even after a failure, so no write is still running when we clean up
+        for (Future<String> future : pending) {
+            try {
+                stored.add(future.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failure = failure != null ? failure : new IllegalStateException("Interrupted while storing lab reports", e);
+                pending.forEach(f -> f.cancel(true));
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = e.getCause() instanceof RuntimeException cause
+                            ? cause
+                            : new RuntimeException("Could not store lab report", e.getCause());
+                }
+            }
+        }
+
+        if (failure != null) {
+            release(stored);
+            throw failure;
+        }
+        releaseOnRollback(stored);
+        return stored;
+    }
+
+    /** Insert one lab_report row per file (with the name it was uploaded under) in a single batch and return the generated ids, in order */
+    public List<Integer> insertReports(List<String> reportFiles, List<String> originalNames, LocalDateTime dateIssued,
+                                       Integer labTechId, Integer labRequestId) {
+        KeyHolder keys = new GeneratedKeyHolder();
+        Timestamp issued = Timestamp.valueOf(dateIssued);
+        jdbcTemplate.batchUpdate(
+                connection -> connection.prepareStatement(INSERT_REPORT, Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        ps.setString(1, reportFiles.get(i));
+                        ps.setString(2, originalNames.get(i));
+                        ps.setTimestamp(3, issued);
+                        ps.setInt(4, labTechId);
+                        ps.setInt(5, labRequestId);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return reportFiles.size();
+                    }
+                },
+                keys);
+
+        List<Integer> ids = new ArrayList<>(reportFiles.size());
+        for (Map<String, Object> row : keys.getKeyList()) {
+            ids.add(((Number) row.values().iterator().next()).intValue());
+        }
+        return ids;
+    }
+
+    private void releaseOnRollback(List<String> stored) {
+        if (stored.isEmpty() || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    release(stored);
+                }
+            }
+        });
+    }
+
+    // Best effort: a file that can't be released is logged, the original failure matters more
+    private void release(List<String> stored) {
+        for (String reference : stored) {
+            try {
+                ownTransaction.executeWithoutResult(status -> fileStorageService.releaseFile(reference));
+            } catch (RuntimeException e) {
+                log.warn("Could not release lab report file {}", reference, e);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
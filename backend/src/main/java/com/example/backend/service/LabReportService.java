@@ -1,25 +1,31 @@
 package com.example.backend.service;
 
 import com.example.backend.dto.LabReportDto;
-import com.example.backend.model.LabReport;
 import com.example.backend.model.LabRequest;
-import com.example.backend.model.LabTech;
-import com.example.backend.model.User;
 import com.example.backend.repository.LabReportRepository;
 import com.example.backend.repository.LabRequestRepository;
 import com.example.backend.repository.LabTechRepository;
-import com.example.backend.repository.UserRepository;
+import com.example.backend.security.CurrentUser;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.MySQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class LabReportService {
@@ -34,68 +40,75 @@ public class LabReportService {
     private LabRequestRepository labRequestRepository;
 
     @Autowired
-    private FileStorageService fileStorageService;
+    private CurrentUser currentUser;
 
     @Autowired
-    private UserRepository userRepository;
+    private ReportFileIndex reportFileIndex;
+
+    @Autowired
+    private LabReportIngestor labReportIngestor;
+
+    @PersistenceContext
+    private EntityManager entityManager;
 
 
     /**
-     * 🔹 Upload a single lab report
+     * 🔹 Upload a single lab report (same path as a batch of one: file released on rollback, request completed once)
      */
+    @Transactional
     public LabReportDto uploadReport(MultipartFile file, Integer labRequestId) {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        if (auth == null) return null;
+        return uploadReports(List.of(file), labRequestId, currentUser.userId(), () -> {}).get(0);
+    }
 
-        String email = auth.getName(); // JWT username = email
-        User user = userRepository.findByEmail(email).orElse(null);
+    /**
+     * 🔹 Upload multiple lab reports for the same Lab Request
+     */
+    @Transactional
+    public List<LabReportDto> uploadMultipleReports(MultipartFile[] files, Integer labRequestId) {
+        List<MultipartFile> uploads = Arrays.stream(files).filter(file -> !file.isEmpty()).toList();
+        return uploadReports(uploads, labRequestId, currentUser.userId(), () -> {});
+    }
 
-        LabTech labTech = labTechRepository.findById(user.getUserId())
-                .orElseThrow(() -> new RuntimeException("Lab technician not found"));
+    /**
+     * 🔹 Upload reports on behalf of a lab technician (also used by background upload jobs)
+     * Files are written in parallel, rows inserted as one batch and the request completed with one update;
+     * on any failure nothing is kept, files included.
+     */
+    @Transactional
+    public List<LabReportDto> uploadReports(List<MultipartFile> uploads, Integer labRequestId,
+                                            Integer labTechId, Runnable onFileStored) {
+        checkUploadAllowed(labRequestId, labTechId);
+        if (uploads.isEmpty()) {
+            return List.of();
+        }
 
-        LabRequest labRequest = labRequestRepository.findById(labRequestId)
-                .orElseThrow(() -> new RuntimeException("Lab request not found"));
+        List<String> storedFileNames = labReportIngestor.storeFiles(uploads, onFileStored);
+        LocalDateTime dateIssued = LocalDateTime.now();
+        List<String> originalNames = uploads.stream().map(FileStorageService::originalNameOf).toList();
+        List<Integer> ids = labReportIngestor.insertReports(storedFileNames, originalNames, dateIssued,
+                labTechId, labRequestId);
 
-        if (!"REQUESTED".equalsIgnoreCase(labRequest.getStatus().name())) {
+        // Once all uploads are done, mark request COMPLETED (fails the whole upload if a parallel one won)
+        if (labRequestRepository.completeRequested(labRequestId) == 0) {
             throw new RuntimeException("Only REQUESTED lab tests can have reports uploaded");
         }
 
-        // Store file physically
-        String storedFileName = fileStorageService.storeFile(file);
-
-        LabReport report = new LabReport();
-        report.setReportFile(storedFileName);
-        report.setDateIssued(LocalDateTime.now());
-        report.setLabTech(labTech);
-        report.setLabRequest(labRequest);
-
-        LabReport saved = labReportRepository.save(report);
-
-        // Update lab request status to COMPLETED after first upload
-        labRequest.setStatus(LabRequest.Status.COMPLETED);
-        labRequestRepository.save(labRequest);
-
-        return new LabReportDto(
-                saved.getId(),
-                saved.getReportFile(),
-                saved.getDateIssued(),
-                saved.getLabTech().getId(),
-                saved.getLabRequest().getId()
-        );
+        List<LabReportDto> uploadedReports = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            reportFileIndex.invalidateAfterCommit(storedFileNames.get(i));
+            uploadedReports.add(new LabReportDto(ids.get(i), storedFileNames.get(i), dateIssued, labTechId, labRequestId));
+        }
+        return uploadedReports;
     }
 
     /**
-     * 🔹 Upload multiple lab reports for the same Lab Request
+     * 🔹 Fail fast if the lab technician can't upload reports for this request
      */
-    public List<LabReportDto> uploadMultipleReports(MultipartFile[] files, Integer labRequestId) {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        if (auth == null) return null;
-
-        String email = auth.getName();
-        User user = userRepository.findByEmail(email).orElse(null);
-
-        LabTech labTech = labTechRepository.findById(user.getUserId())
-                .orElseThrow(() -> new RuntimeException("Lab technician not found"));
+    @Transactional(readOnly = true)
+    public void checkUploadAllowed(Integer labRequestId, Integer labTechId) {
+        if (!labTechRepository.existsById(labTechId)) {
+            throw new RuntimeException("Lab technician not found");
+        }
 
         LabRequest labRequest = labRequestRepository.findById(labRequestId)
                 .orElseThrow(() -> new RuntimeException("Lab request not found"));
@@ -103,79 +116,52 @@ public class LabReportService {
         if (!"REQUESTED".equalsIgnoreCase(labRequest.getStatus().name())) {
             throw new RuntimeException("Only REQUESTED lab tests can have reports uploaded");
         }
+    }
 
-        List<LabReportDto> uploadedReports = new ArrayList<>();
-
-        for (MultipartFile file : files) {
-            if (file.isEmpty()) continue;
-
-            String storedFileName = fileStorageService.storeFile(file);
-
-            LabReport report = new LabReport();
-            report.setReportFile(storedFileName);
-            report.setDateIssued(LocalDateTime.now());
-            report.setLabTech(labTech);
-            report.setLabRequest(labRequest);
-
-            LabReport saved = labReportRepository.save(report);
-
-            uploadedReports.add(new LabReportDto(
-                    saved.getId(),
-                    saved.getReportFile(),
-                    saved.getDateIssued(),
-                    saved.getLabTech().getId(),
-                    saved.getLabRequest().getId()
-            ));
-        }
+    /**
+     * 🔹 Get all reports, one page at a time (newest first)
+     */
+    public Page<LabReportDto> getAllReports(Pageable pageable) {
+        return labReportRepository.findAllDtos(pageable);
+    }
 
-        // Once all uploads are done, mark request COMPLETED
-        if (!uploadedReports.isEmpty()) {
-            labRequest.setStatus(LabRequest.Status.COMPLETED);
-            labRequestRepository.save(labRequest);
+    /**
+     * 🔹 Hand every report to the consumer without loading the table into memory
+     */
+    @Transactional(readOnly = true)
+    public void streamAllReports(Consumer<LabReportDto> consumer) {
+        Dialect dialect = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect();
+        try (Stream<LabReportDto> reports = entityManager.createQuery(
+                        "SELECT new com.example.backend.dto.LabReportDto(" +
+                                "r.id, r.reportFile, r.dateIssued, r.labTech.id, r.labRequest.id) " +
+                                "FROM LabReport r ORDER BY r.id DESC", LabReportDto.class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, streamFetchSize(dialect))
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream()) {
+            reports.forEach(consumer);
         }
-
-        return uploadedReports;
     }
 
     /**
-     * 🔹 Get all reports
+     * Connector/J ignores a positive fetch size unless the URL sets useCursorFetch=true and reads the whole
+     * result first; Integer.MIN_VALUE on a forward-only, read-only statement makes it hand over one row at a
+     * time instead. Other drivers (H2 in tests) reject negative sizes and page with a positive one.
      */
-    public List<LabReportDto> getAllReports() {
-        return labReportRepository.findAll().stream()
-                .map(r -> new LabReportDto(
-                        r.getId(),
-                        r.getReportFile(),
-                        r.getDateIssued(),
-                        r.getLabTech().getId(),
-                        r.getLabRequest().getId()
-                ))
-                .collect(Collectors.toList());
+    static int streamFetchSize(Dialect dialect) {
+        return dialect instanceof MySQLDialect ? Integer.MIN_VALUE : 500;
     }
 
     /**
      * 🔹 Get reports by LabRequest
      */
     public List<LabReportDto> getReportsByLabRequest(Integer labRequestId) {
-        LabRequest labRequest = labRequestRepository.findById(labRequestId)
-                .orElseThrow(() -> new RuntimeException("Lab request not found"));
+        List<LabReportDto> reports = labReportRepository.findDtosByLabRequestId(labRequestId);
 
-        List<LabReport> reports = labReportRepository.findAll()
-                .stream()
-                .filter(r -> r.getLabRequest().getId().equals(labRequestId))
-                .collect(Collectors.toList());
-
-        return reports.stream()
-                .map(r -> new LabReportDto(
-                        r.getId(),
-                        r.getReportFile(),
-                        r.getDateIssued(),
-                        r.getLabTech().getId(),
-                        r.getLabRequest().getId()
-                ))
-                .collect(Collectors.toList());
+        // Only an empty result needs the extra lookup to tell "no reports" from "no such request"
+        if (reports.isEmpty() && !labRequestRepository.existsById(labRequestId)) {
+            throw new RuntimeException("Lab request not found");
+        }
+        return reports;
     }
 }
-
-
-
-
@@ -0,0 +1,222 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.LabReportDto;
+import com.example.backend.dto.UploadJobDto;
+import com.example.backend.security.CurrentUser;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Background lab report uploads. The request only moves its parts into a spool directory and gets a job id
+ * back; a small worker pool then stores, indexes and records the files through LabReportService, so large
+ * lab batches don't hold Tomcat threads for the whole write. Job status lives in memory on the node that
+ * took the upload and is kept for a while after the job finishes.
+ */
+@Component
+public class LabReportUploadJobs {
+
+    private static final Logger log = LoggerFactory.getLogger(LabReportUploadJobs.class);
+
+    private final LabReportService labReportService;
+    private final CurrentUser currentUser;
+    private final Path spoolLocation;
+    private final ThreadPoolExecutor executor;
+    private final Cache<String, UploadJob> jobs;
+
+    public LabReportUploadJobs(LabReportService labReportService,
+                               CurrentUser currentUser,
+                               @Value("${file.upload-dir:uploads}") String uploadDir,
+                               @Value("${lab-reports.async.threads:2}") int threads,
+                               @Value("${lab-reports.async.queue-capacity:100}") int queueCapacity,
+                               @Value("${lab-reports.async.job-ttl-minutes:60}") long jobTtlMinutes,
+                               @Value("${spring.servlet.multipart.location:}") String multipartLocation) {
+        this.labReportService = labReportService;
+        this.currentUser = currentUser;
+        this.spoolLocation = Paths.get(uploadDir).toAbsolutePath().normalize().resolve(".spool");
+        this.jobs = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMinutes(jobTtlMinutes))
+                .build();
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                threads, threads,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "lab-report-upload-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+
+        try {
+            Files.createDirectories(spoolLocation);
+            removeStaleSpools(Duration.ofMinutes(jobTtlMinutes));
+        } catch (IOException ex) {
+            throw new RuntimeException("Could not create the spool directory for uploads.", ex);
+        }
+        warnIfSpoolingCopies(multipartLocation);
+    }
+
+    // Spooling is a rename only when Tomcat writes its temp files on the spool's file system
+    private void warnIfSpoolingCopies(String multipartLocation) {
+        // Without a location Tomcat uses its work directory, under java.io.tmpdir
+        Path partLocation = Paths.get(multipartLocation.isBlank() ? System.getProperty("java.io.tmpdir") : multipartLocation);
+        try {
+            if (Files.isDirectory(partLocation)
+                    && !Files.getFileStore(partLocation).equals(Files.getFileStore(spoolLocation))) {
+                log.warn("Uploads are written to {} on another file system than the spool directory {}, so every async "
+                        + "upload is copied; set spring.servlet.multipart.location to an absolute path on the same file "
+                        + "system", partLocation, spoolLocation);
+            }
+        } catch (IOException ex) {
+            log.debug("Could not compare the file systems of {} and {}", partLocation, spoolLocation, ex);
+        }
+    }
+
+    private enum State { QUEUED, RUNNING, COMPLETED, FAILED }
+
+    private static final class UploadJob {
+        final String id = UUID.randomUUID().toString();
+        final Integer labTechId;
+        final Integer labRequestId;
+        final int totalFiles;
+        final LocalDateTime submittedAt = LocalDateTime.now();
+        final AtomicInteger storedFiles = new AtomicInteger();
+        volatile State state = State.QUEUED;
+        volatile List<LabReportDto> reports = List.of();
+        volatile String error;
+        volatile LocalDateTime finishedAt;
+
+        UploadJob(Integer labTechId, Integer labRequestId, int totalFiles) {
+            this.labTechId = labTechId;
+            this.labRequestId = labRequestId;
+            this.totalFiles = totalFiles;
+        }
+
+        UploadJobDto toDto() {
+            return new UploadJobDto(id, labRequestId, state.name(), totalFiles, storedFiles.get(),
+                    reports, error, submittedAt, finishedAt);
+        }
+    }
+
+    /**
+     * Check the request, spool the files and queue the job. Anything that can be rejected up front
+     * (unknown or already completed lab request, no files, full queue) is rejected here.
+     */
+    public UploadJobDto submit(MultipartFile[] files, Integer labRequestId) {
+        Integer labTechId = currentUser.userId();
+        labReportService.checkUploadAllowed(labRequestId, labTechId);
+
+        List<MultipartFile> uploads = new ArrayList<>();
+        for (MultipartFile file : files) {
+            if (!file.isEmpty()) {
+                uploads.add(file);
+            }
+        }
+        if (uploads.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "No files to upload");
+        }
+
+        UploadJob job = new UploadJob(labTechId, labRequestId, uploads.size());
+        Path spool = spoolLocation.resolve(job.id);
+        List<MultipartFile> spooled = new ArrayList<>(uploads.size());
+        try {
+            Files.createDirectories(spool);
+            for (int i = 0; i < uploads.size(); i++) {
+                spooled.add(SpooledUpload.spool(uploads.get(i), spool.resolve(Integer.toString(i))));
+            }
+        } catch (IOException | RuntimeException ex) {
+            deleteSpool(spool);
+            throw new RuntimeException("Could not spool upload", ex);
+        }
+
+        jobs.put(job.id, job);
+        try {
+            executor.execute(() -> run(job, spooled, spool));
+        } catch (RejectedExecutionException e) {
+            jobs.invalidate(job.id);
+            deleteSpool(spool);
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many uploads in progress, please try again shortly");
+        }
+        return job.toDto();
+    }
+
+    /** A job of the current lab technician; other users' jobs look like unknown ones */
+    public UploadJobDto getJob(String jobId) {
+        UploadJob job = jobs.getIfPresent(jobId);
+        if (job == null || !job.labTechId.equals(currentUser.userId())) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Upload job not found");
+        }
+        return job.toDto();
+    }
+
+    private void run(UploadJob job, List<MultipartFile> files, Path spool) {
+        job.state = State.RUNNING;
+        try {
+            job.reports = labReportService.uploadReports(files, job.labRequestId, job.labTechId,
+                    job.storedFiles::incrementAndGet);
+            job.state = State.COMPLETED;
+        } catch (RuntimeException e) {
+            log.warn("Upload job {} for lab request {} failed", job.id, job.labRequestId, e);
+            job.error = e.getMessage();
+            job.state = State.FAILED;
+        } finally {
+            job.finishedAt = LocalDateTime.now();
+            deleteSpool(spool);
+            // Keep the result around for the full TTL after it is known
+            jobs.put(job.id, job);
+        }
+    }
+
+    // Spools of jobs that were lost with a previous run of this node
+    private void removeStaleSpools(Duration maxAge) throws IOException {
+        Instant cutoff = Instant.now().minus(maxAge);
+        try (Stream<Path> spools = Files.list(spoolLocation)) {
+            for (Path spool : spools.toList()) {
+                if (Files.getLastModifiedTime(spool).toInstant().isBefore(cutoff)) {
+                    deleteSpool(spool);
+                }
+            }
+        }
+    }
+
+    private static void deleteSpool(Path spool) {
+        try {
+            FileSystemUtils.deleteRecursively(spool);
+        } catch (IOException e) {
+            log.warn("Could not delete upload spool {}", spool, e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
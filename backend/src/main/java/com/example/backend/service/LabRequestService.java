@@ -12,7 +12,6 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 public class LabRequestService {
@@ -40,18 +39,12 @@ public class LabRequestService {
 
     // 🔹 Get all lab requests
     public List<LabRequestDto> getAllLabRequests() {
-        return labRequestRepository.findAll()
-                .stream()
-                .map(this::mapToDto)
-                .collect(Collectors.toList());
+        return labRequestRepository.findAllDtos();
     }
 
     // 🔹 Get all lab requests by appointment
     public List<LabRequestDto> getLabRequestsByAppointment(Integer appointmentId) {
-        return labRequestRepository.findByAppointmentId(appointmentId)
-                .stream()
-                .map(this::mapToDto)
-                .collect(Collectors.toList());
+        return labRequestRepository.findDtosByAppointmentId(appointmentId);
     }
 
     // 🔹 Update lab request status (e.g., mark as COMPLETED)
@@ -66,7 +59,7 @@ public class LabRequestService {
     }
 
     // 🔹 Helper: Map entity → DTO with doctor and patient names
-    private LabRequestDto mapToDto(LabRequest request) {
+    LabRequestDto mapToDto(LabRequest request) {
         Appointment appointment = request.getAppointment();
 
         String doctorName = "";
@@ -3,13 +3,12 @@ package com.example.backend.service;
 import com.example.backend.dto.LabTechDetailsDto;
 import com.example.backend.dto.LabTechProfileResponse;
 import com.example.backend.model.LabTech;
-import com.example.backend.model.User;
 import com.example.backend.repository.LabTechRepository;
 import com.example.backend.repository.UserRepository;
+import com.example.backend.security.AuthenticatedUser;
+import com.example.backend.security.CurrentUser;
 import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 import java.util.Optional;
@@ -23,12 +22,20 @@ public class LabTechService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private CurrentUser currentUser;
+
+    @Autowired
+    private ProfileCache profileCache;
+
+    // 🔹 Served from memory; the row is read only on a miss
     public LabTechProfileResponse getLabTechProfile() {
-        String email = ((UserDetails) SecurityContextHolder.getContext().getAuthentication().getPrincipal()).getUsername();
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        AuthenticatedUser user = currentUser.get();
+        return profileCache.labTech(user.getUserId(), userId -> loadLabTechProfile(user));
+    }
 
-        Optional<LabTech> labTechOpt = labTechRepository.findByUser(user);
+    private LabTechProfileResponse loadLabTechProfile(AuthenticatedUser user) {
+        Optional<LabTech> labTechOpt = labTechRepository.findById(user.getUserId());
 
         if (labTechOpt.isPresent()) {
             LabTech labTech = labTechOpt.get();
@@ -50,31 +57,29 @@ public class LabTechService {
 
     @Transactional
     public void saveOrUpdateLabTechDetails(LabTechDetailsDto labTechDetailsDto) {
-        String email = ((UserDetails) SecurityContextHolder.getContext().getAuthentication().getPrincipal()).getUsername();
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        AuthenticatedUser user = currentUser.get();
 
-        Optional<LabTech> existingLabTech = labTechRepository.findByUser(user);
+        Optional<LabTech> existingLabTech = labTechRepository.findById(user.getUserId());
 
         LabTech labTech;
         if (existingLabTech.isPresent()) {
             labTech = existingLabTech.get();
         } else {
             labTech = new LabTech();
-            labTech.setUser(user);
+            labTech.setUser(userRepository.getReferenceById(user.getUserId()));
         }
 
         labTech.setDepartment(labTechDetailsDto.getDepartment());
 
         labTechRepository.save(labTech);
+        profileCache.evictAfterCommit(user.getUserId());
     }
 
     @Transactional
     public void deleteLabTechProfile() {
-        String email = ((UserDetails) SecurityContextHolder.getContext().getAuthentication().getPrincipal()).getUsername();
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        AuthenticatedUser user = currentUser.get();
 
-        labTechRepository.deleteByUser(user);
+        labTechRepository.deleteById(user.getUserId());
+        profileCache.evictAfterCommit(user.getUserId());
     }
 }
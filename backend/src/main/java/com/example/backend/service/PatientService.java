@@ -4,13 +4,12 @@ package com.example.backend.service;
 import com.example.backend.dto.PatientDetailsDto;
 import com.example.backend.dto.PatientProfileResponse;
 import com.example.backend.model.Patient;
-import com.example.backend.model.User;
 import com.example.backend.repository.PatientRepository;
 import com.example.backend.repository.UserRepository;
+import com.example.backend.security.AuthenticatedUser;
+import com.example.backend.security.CurrentUser;
 import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 import java.util.Optional;
@@ -23,12 +22,20 @@ public class PatientService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private CurrentUser currentUser;
+
+    @Autowired
+    private ProfileCache profileCache;
+
+    // 🔹 Served from memory; the row is read only on a miss
     public PatientProfileResponse getPatientProfile() {
-        String email = ((UserDetails) SecurityContextHolder.getContext().getAuthentication().getPrincipal()).getUsername();
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        AuthenticatedUser user = currentUser.get();
+        return profileCache.patient(user.getUserId(), userId -> loadPatientProfile(user));
+    }
 
-        Optional<Patient> patientOpt = patientRepository.findByUser(user);
+    private PatientProfileResponse loadPatientProfile(AuthenticatedUser user) {
+        Optional<Patient> patientOpt = patientRepository.findById(user.getUserId());
 
         if (patientOpt.isPresent()) {
             Patient patient = patientOpt.get();
@@ -54,18 +61,16 @@ public class PatientService {
 
     @Transactional
     public void saveOrUpdatePatientDetails(PatientDetailsDto patientDetailsDto) {
-        String email = ((UserDetails) SecurityContextHolder.getContext().getAuthentication().getPrincipal()).getUsername();
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        AuthenticatedUser user = currentUser.get();
 
-        Optional<Patient> existingPatient = patientRepository.findByUser(user);
+        Optional<Patient> existingPatient = patientRepository.findById(user.getUserId());
 
         Patient patient;
         if (existingPatient.isPresent()) {
             patient = existingPatient.get();
         } else {
             patient = new Patient();
-            patient.setUser(user);
+            patient.setUser(userRepository.getReferenceById(user.getUserId()));
         }
 
         patient.setGender(patientDetailsDto.getGender());
@@ -73,14 +78,14 @@ public class PatientService {
         patient.setAge(patientDetailsDto.getAge());
 
         patientRepository.save(patient);
+        profileCache.evictAfterCommit(user.getUserId());
     }
 
     @Transactional
     public void deletePatientProfile() {
-        String email = ((UserDetails) SecurityContextHolder.getContext().getAuthentication().getPrincipal()).getUsername();
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        AuthenticatedUser user = currentUser.get();
 
-        patientRepository.deleteByUser(user);
+        patientRepository.deleteById(user.getUserId());
+        profileCache.evictAfterCommit(user.getUserId());
     }
 }
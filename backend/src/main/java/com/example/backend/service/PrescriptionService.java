@@ -4,14 +4,12 @@ import com.example.backend.dto.PrescriptionDto;
 import com.example.backend.model.Appointment;
 import com.example.backend.model.AppointmentStatus;
 import com.example.backend.model.Prescription;
-import com.example.backend.model.User;
 import com.example.backend.repository.AppointmentRepository;
 import com.example.backend.repository.PrescriptionRepository;
-import com.example.backend.repository.UserRepository;
+import com.example.backend.security.AuthenticatedUser;
+import com.example.backend.security.CurrentUser;
 import jakarta.transaction.Transactional;
 import org.springframework.http.HttpStatus;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
 
@@ -23,27 +21,25 @@ import com.example.backend.repository.PrescriptionRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.time.format.DateTimeFormatter;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 public class PrescriptionService {
 
     private final PrescriptionRepository prescriptionRepository;
     private final AppointmentRepository appointmentRepository;
-    private final UserRepository userRepository;
+    private final CurrentUser currentUser;
 
     public PrescriptionService(PrescriptionRepository prescriptionRepository,
             AppointmentRepository appointmentRepository,
-            UserRepository userRepository) {
+            CurrentUser currentUser) {
         this.prescriptionRepository = prescriptionRepository;
         this.appointmentRepository = appointmentRepository;
-        this.userRepository = userRepository;
+        this.currentUser = currentUser;
     }
 
     // ---------------- Helper Methods ----------------
-    private PrescriptionDto toDto(Prescription p) {
+    PrescriptionDto toDto(Prescription p) {
         PrescriptionDto dto = new PrescriptionDto();
         dto.setId(p.getId());
         dto.setNotes(p.getNotes());
@@ -64,20 +60,14 @@ public class PrescriptionService {
         return notes.length() > 1000 ? notes.substring(0, 1000) : notes;
     }
 
-    private User getAuthenticatedDoctor() {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        if (auth == null)
-            throw new RuntimeException("Not authenticated");
-
-        String email = auth.getName(); // JWT username = email
-        return userRepository.findByEmail(email)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED, "User not found"));
+    private AuthenticatedUser getAuthenticatedDoctor() {
+        return currentUser.get();
     }
 
     // ---------------- Create Prescription ----------------
     @Transactional
     public PrescriptionDto createPrescription(Integer appointmentId, PrescriptionDto dto) {
-        User doctor = getAuthenticatedDoctor();
+        AuthenticatedUser doctor = getAuthenticatedDoctor();
 
         Appointment appointment = appointmentRepository.findById(appointmentId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Appointment not found"));
@@ -112,7 +102,7 @@ public class PrescriptionService {
     // ---------------- Update Prescription ----------------
     @Transactional
     public PrescriptionDto updatePrescription(Integer prescriptionId, PrescriptionDto dto) {
-        User doctor = getAuthenticatedDoctor();
+        AuthenticatedUser doctor = getAuthenticatedDoctor();
 
         Prescription p = prescriptionRepository.findById(prescriptionId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Prescription not found"));
@@ -136,7 +126,7 @@ public class PrescriptionService {
     // ---------------- Delete Prescription ----------------
     @Transactional
     public void deletePrescription(Integer prescriptionId) {
-        User doctor = getAuthenticatedDoctor();
+        AuthenticatedUser doctor = getAuthenticatedDoctor();
 
         Prescription p = prescriptionRepository.findById(prescriptionId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Prescription not found"));
@@ -150,7 +140,7 @@ public class PrescriptionService {
 
     // ---------------- Get by ID ----------------
     public PrescriptionDto getById(Integer prescriptionId) {
-        User doctor = getAuthenticatedDoctor();
+        AuthenticatedUser doctor = getAuthenticatedDoctor();
 
         Prescription p = prescriptionRepository.findById(prescriptionId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Prescription not found"));
@@ -164,28 +154,26 @@ public class PrescriptionService {
 
     // ---------------- Get by Appointment ----------------
     public List<PrescriptionDto> getByAppointmentId(Integer appointmentId) {
-        User doctor = getAuthenticatedDoctor();
+        AuthenticatedUser doctor = getAuthenticatedDoctor();
 
-        List<Prescription> prescriptions = prescriptionRepository.findByAppointment_Id(appointmentId);
+        List<PrescriptionDto> prescriptions = prescriptionRepository.findDtosByAppointmentId(appointmentId);
 
         if (prescriptions.isEmpty()) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND,
                     "No prescriptions found for this appointment");
         }
 
-        // Authorization check
-        prescriptions.forEach(p -> {
-            if (!p.getAppointment().getDoctor().getUser().getUserId().equals(doctor.getUserId())) {
-                throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Not authorized");
-            }
-        });
+        // Authorization check (all rows share the appointment)
+        if (!appointmentRepository.existsByIdAndDoctor_Id(appointmentId, doctor.getUserId())) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Not authorized");
+        }
 
-        return prescriptions.stream().map(this::toDto).collect(Collectors.toList());
+        return prescriptions;
     }
 
     // ---------------- Updated: Prescription + Patient Details ----------------
     public Map<String, Object> getPrescriptionWithPatientName(Integer prescriptionId) {
-        User doctor = getAuthenticatedDoctor();
+        AuthenticatedUser doctor = getAuthenticatedDoctor();
 
         Prescription p = prescriptionRepository.findById(prescriptionId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Prescription not found"));
@@ -214,18 +202,14 @@ public class PrescriptionService {
     // ---------------- All Prescriptions by Doctor ----------------
     public List<PrescriptionDto> getAllPrescriptionsByDoctorId() {
 
-        User doctor = getAuthenticatedDoctor();
-
-        List<Prescription> prescriptions = prescriptionRepository
-                .findPrescriptionsByAppointment_Doctor_User_Email(doctor.getEmail())
-                .orElseThrow(() -> new RuntimeException("Doctor not found"));
+        AuthenticatedUser doctor = getAuthenticatedDoctor();
 
-        return prescriptions.stream().map(this::toDto).collect(Collectors.toList());
+        return prescriptionRepository.findDtosByDoctorId(doctor.getUserId());
     }
 
     // ---------------- Get Patient Details by Appointment ----------------
     public Map<String, Object> getPatientDetailsByAppointmentId(Integer appointmentId) {
-        User doctor = getAuthenticatedDoctor();
+        AuthenticatedUser doctor = getAuthenticatedDoctor();
 
         // Fetch the appointment
         Appointment appointment = appointmentRepository.findById(appointmentId)
@@ -250,24 +234,8 @@ public class PrescriptionService {
         return patientDetails;
     }
 
+    // One statement: doctor and appointment time are joined into the projection
     public List<PrescriptionResponse> getPrescriptionsForPatient(Integer patientId) {
-        List<Prescription> prescriptions = prescriptionRepository.findAllByPatientId(patientId);
-
-        return prescriptions.stream().map(prescription -> {
-            PrescriptionResponse.AppointmentInfo appointmentInfo = new PrescriptionResponse.AppointmentInfo(
-                    prescription.getAppointment().getId(),
-                    prescription.getAppointment().getAppointmentDateTime()
-                            .format(DateTimeFormatter.ofPattern("yyyy-MM-dd")),
-                    prescription.getAppointment().getAppointmentDateTime().format(DateTimeFormatter.ofPattern("HH:mm")),
-                    new PrescriptionResponse.DoctorInfo(
-                            prescription.getAppointment().getDoctor().getUser().getName(),
-                            prescription.getAppointment().getDoctor().getSpecialization()));
-
-            return new PrescriptionResponse(
-                    prescription.getId(),
-                    prescription.getNotes(),
-                    prescription.getDateIssued(),
-                    appointmentInfo);
-        }).collect(Collectors.toList());
+        return prescriptionRepository.findResponsesByPatientId(patientId);
     }
 }
@@ -0,0 +1,108 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.DoctorProfileResponse;
+import com.example.backend.dto.LabTechProfileResponse;
+import com.example.backend.dto.PatientProfileResponse;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Read-through caches of the "my profile" responses of doctors, patients and lab technicians, keyed by user id.
+ * Profiles change only through their own service, which evicts the user after commit; the TTL bounds how long
+ * a change made through another instance can stay invisible here. Hit/miss counts are kept per cache and
+ * published as cache.gets / cache.evictions metrics.
+ */
+@Component
+public class ProfileCache implements MeterBinder {
+
+    private final Cache<Integer, DoctorProfileResponse> doctors;
+    private final Cache<Integer, PatientProfileResponse> patients;
+    private final Cache<Integer, LabTechProfileResponse> labTechs;
+
+    public ProfileCache(@Value("${profiles.cache.max-size:10000}") long maxSize,
+                        @Value("${profiles.cache.ttl-seconds:600}") long ttlSeconds) {
+        Duration ttl = Duration.ofSeconds(ttlSeconds);
+        this.doctors = build(maxSize, ttl);
+        this.patients = build(maxSize, ttl);
+        this.labTechs = build(maxSize, ttl);
+    }
+
+    private static <V> Cache<Integer, V> build(long maxSize, Duration ttl) {
+        return Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    public DoctorProfileResponse doctor(Integer userId, Function<Integer, DoctorProfileResponse> loader) {
+        return doctors.get(userId, loader);
+    }
+
+    public PatientProfileResponse patient(Integer userId, Function<Integer, PatientProfileResponse> loader) {
+        return patients.get(userId, loader);
+    }
+
+    public LabTechProfileResponse labTech(Integer userId, Function<Integer, LabTechProfileResponse> loader) {
+        return labTechs.get(userId, loader);
+    }
+
+    /**
+     * Forget a user's profile once the current transaction (if any) has committed. Evicting only before the
+     * commit would let a concurrent read cache the old row again.
+     */
+    public void evictAfterCommit(Integer userId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(userId);
+                }
+            });
+        } else {
+            evict(userId);
+        }
+    }
+
+    public void evict(Integer userId) {
+        // A user has one role, so at most one of these holds an entry
+        doctors.invalidate(userId);
+        patients.invalidate(userId);
+        labTechs.invalidate(userId);
+    }
+
+    public void clear() {
+        doctors.invalidateAll();
+        patients.invalidateAll();
+        labTechs.invalidateAll();
+    }
+
+    /** Hit/miss/eviction counts per cache */
+    public Map<String, CacheStats> stats() {
+        Map<String, CacheStats> stats = new LinkedHashMap<>();
+        stats.put("doctor-profiles", doctors.stats());
+        stats.put("patient-profiles", patients.stats());
+        stats.put("labtech-profiles", labTechs.stats());
+        return stats;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, doctors, "doctor-profiles");
+        CaffeineCacheMetrics.monitor(registry, patients, "patient-profiles");
+        CaffeineCacheMetrics.monitor(registry, labTechs, "labtech-profiles");
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.backend.service;
+
+import com.example.backend.repository.LabReportRepository;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Which report file references exist, answered from lab_report.report_file (indexed) and cached in memory,
+ * so a download never has to list or probe the upload directory to find out.
+ * Also caches the name the file is downloaded under.
+ */
+@Component
+public class ReportFileIndex {
+
+    private static final PageRequest FIRST = PageRequest.of(0, 1);
+
+    private final LoadingCache<String, Optional<String>> known;
+
+    public ReportFileIndex(LabReportRepository labReportRepository,
+                           @Value("${file.index.max-size:50000}") long maxSize,
+                           @Value("${file.index.ttl-seconds:3600}") long ttlSeconds,
+                           @Value("${file.index.miss-ttl-seconds:30}") long missTtlSeconds) {
+        long hitTtl = Duration.ofSeconds(ttlSeconds).toNanos();
+        // Misses expire quickly so a report uploaded through another node shows up soon
+        long missTtl = Duration.ofSeconds(missTtlSeconds).toNanos();
+        this.known = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<String, Optional<String>>() {
+                    @Override
+                    public long expireAfterCreate(String reference, Optional<String> name, long currentTime) {
+                        return name.isPresent() ? hitTtl : missTtl;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String reference, Optional<String> name, long currentTime, long currentDuration) {
+                        return expireAfterCreate(reference, name, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String reference, Optional<String> name, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build(reference -> labReportRepository.findDownloadNames(reference, FIRST).stream().findFirst());
+    }
+
+    public boolean contains(String reference) {
+        return known.get(reference).isPresent();
+    }
+
+    /**
+     * File name to download a reference under, or null if no report uses it. Reports sharing content
+     * (same reference) under different names get the name of the newest one.
+     */
+    public String downloadName(String reference) {
+        return known.get(reference).orElse(null);
+    }
+
+    /** Forget a cached answer once the current transaction (if any) has committed, e.g. after an upload */
+    public void invalidateAfterCommit(String reference) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    known.invalidate(reference);
+                }
+            });
+        } else {
+            known.invalidate(reference);
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package com.example.backend.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Sends stored lab report files for every download endpoint: Range / 206 partial responses,
+ * strong ETags with If-None-Match / If-Range, Cache-Control, and zero-copy sending
+ * (Tomcat sendfile when the connector supports it, FileChannel.transferTo otherwise).
+ */
+@Component
+public class ReportFileStreamer {
+
+    private static final Logger log = LoggerFactory.getLogger(ReportFileStreamer.class);
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    // Content-addressed files never change; name based (legacy) files may be overwritten, so revalidate those
+    private static final String CACHE_IMMUTABLE = "private, max-age=31536000, immutable";
+    private static final String CACHE_REVALIDATE = "private, no-cache";
+
+    private static final Map<String, String> CONTENT_TYPES = Map.ofEntries(
+            Map.entry("pdf", "application/pdf"),
+            Map.entry("png", "image/png"),
+            Map.entry("jpg", "image/jpeg"),
+            Map.entry("jpeg", "image/jpeg"),
+            Map.entry("gif", "image/gif"),
+            Map.entry("webp", "image/webp"),
+            Map.entry("txt", "text/plain"),
+            Map.entry("csv", "text/csv"),
+            Map.entry("dcm", "application/dicom"),
+            Map.entry("doc", "application/msword"),
+            Map.entry("docx", "application/vnd.openxmlformats-officedocument.wordprocessingml.document")
+    );
+
+    private final FileStorageService fileStorageService;
+    private final ReportFileIndex reportFileIndex;
+    private final DistributionSummary fullDownloads;
+    private final DistributionSummary partialDownloads;
+
+    public ReportFileStreamer(FileStorageService fileStorageService, ReportFileIndex reportFileIndex,
+                              ObjectProvider<MeterRegistry> meterRegistry) {
+        this.fileStorageService = fileStorageService;
+        this.reportFileIndex = reportFileIndex;
+        MeterRegistry registry = meterRegistry.getIfAvailable(() -> Metrics.globalRegistry);
+        this.fullDownloads = downloaded(registry, "full");
+        this.partialDownloads = downloaded(registry, "partial");
+    }
+
+    private static DistributionSummary downloaded(MeterRegistry registry, String range) {
+        return DistributionSummary.builder("storage.downloaded")
+                .description("Bytes of lab report files sent to clients")
+                .baseUnit("bytes")
+                .tag("range", range)
+                .register(registry);
+    }
+
+    /** Stream a stored file by its reference (content hash or legacy file name) */
+    public void stream(String reference, boolean attachment,
+                       HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String downloadName = reportFileIndex.downloadName(reference);
+        if (downloadName == null) {
+            log.debug("Report file {} is not referenced by any report", reference);
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Report file not found");
+        }
+        stream(fileStorageService.getFilePath(reference), reference, downloadName, attachment, request, response);
+    }
+
+    /** Stream an already resolved file; reference is what the client asked for */
+    public void stream(Path file, String reference, boolean attachment,
+                       HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String downloadName = reportFileIndex.downloadName(reference);
+        stream(file, reference, downloadName != null ? downloadName : reference, attachment, request, response);
+    }
+
+    private void stream(Path file, String reference, String downloadName, boolean attachment,
+                        HttpServletRequest request, HttpServletResponse response) throws IOException {
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(file, StandardOpenOption.READ);
+        } catch (NoSuchFileException e) {
+            // Referenced by a report but gone from disk
+            log.warn("Report file {} is missing at {}", reference, file);
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Report file not found");
+        }
+
+        try (channel) {
+            long size = channel.size();
+            String hash = fileStorageService.contentHashOf(reference);
+            String etag = hash != null
+                    ? "\"" + hash + "\""
+                    : "\"" + Long.toHexString(size) + "-" + Long.toHexString(file.toFile().lastModified()) + "\"";
+
+            response.setHeader(HttpHeaders.ETAG, etag);
+            response.setHeader(HttpHeaders.CACHE_CONTROL, hash != null ? CACHE_IMMUTABLE : CACHE_REVALIDATE);
+            response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+            if (matchesAny(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+                response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                return;
+            }
+
+            response.setContentType(contentTypeOf(reference));
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                    (attachment ? ContentDisposition.attachment() : ContentDisposition.inline())
+                            .filename(downloadName, StandardCharsets.UTF_8)
+                            .build().toString());
+
+            long start = 0;
+            long end = size - 1;
+            HttpRange range = requestedRange(request, etag);
+            if (range != null) {
+                try {
+                    start = range.getRangeStart(size);
+                    end = range.getRangeEnd(size);
+                } catch (IllegalArgumentException e) {
+                    start = 0;
+                    end = -1;
+                }
+                if (end < start) {
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+                    response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                    return;
+                }
+                response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + size);
+            } else {
+                response.setStatus(HttpServletResponse.SC_OK);
+            }
+
+            long length = end - start + 1;
+            response.setContentLengthLong(length);
+
+            if (HttpMethod.HEAD.matches(request.getMethod()) || length <= 0) {
+                return;
+            }
+
+            if (log.isDebugEnabled()) {
+                log.debug("Sending report file {} bytes {}-{}/{}", reference, start, end, size);
+            }
+            (range != null ? partialDownloads : fullDownloads).record(length);
+
+            if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+                // Tomcat sends the bytes with sendfile(2) once the request returns
+                request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+                request.setAttribute(SENDFILE_START, start);
+                request.setAttribute(SENDFILE_END, end + 1);
+                return;
+            }
+
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            long remaining = length;
+            while (remaining > 0) {
+                long sent = channel.transferTo(position, remaining, out);
+                if (sent <= 0) {
+                    break;
+                }
+                position += sent;
+                remaining -= sent;
+            }
+            response.flushBuffer();
+        }
+    }
+
+    public String contentTypeOf(String reference) {
+        int dot = reference.lastIndexOf('.');
+        if (dot < 0) {
+            return "application/octet-stream";
+        }
+        return CONTENT_TYPES.getOrDefault(reference.substring(dot + 1).toLowerCase(Locale.ROOT), "application/octet-stream");
+    }
+
+    // Single byte range only; multiple ranges get the full file, which RFC 9110 allows
+    private HttpRange requestedRange(HttpServletRequest request, String etag) {
+        String header = request.getHeader(HttpHeaders.RANGE);
+        if (header == null) {
+            return null;
+        }
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange != null && !ifRange.trim().equals(etag)) {
+            return null;
+        }
+        try {
+            List<HttpRange> ranges = HttpRange.parseRanges(header);
+            return ranges.size() == 1 ? ranges.get(0) : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private boolean matchesAny(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
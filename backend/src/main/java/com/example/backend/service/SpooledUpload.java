@@ -0,0 +1,84 @@
+package com.example.backend.service;
+
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * An uploaded part that was moved to the spool directory before its request ended, so a background job can
+ * hand it to FileStorageService like any other upload.
+ */
+final class SpooledUpload implements MultipartFile {
+
+    private final Path path;
+    private final String originalFilename;
+    private final String contentType;
+    private final long size;
+
+    SpooledUpload(Path path, String originalFilename, String contentType, long size) {
+        this.path = path;
+        this.originalFilename = originalFilename;
+        this.contentType = contentType;
+        this.size = size;
+    }
+
+    /**
+     * Hand the upload over to the spool directory. transferTo(File) goes through Part.write, which renames
+     * Tomcat's temp file when it is on the same file system (transferTo(Path) always copies the stream);
+     * otherwise, or for parts held in memory, the bytes are copied.
+     */
+    static SpooledUpload spool(MultipartFile file, Path target) throws IOException {
+        file.transferTo(target.toFile());
+        return new SpooledUpload(target, file.getOriginalFilename(), file.getContentType(), file.getSize());
+    }
+
+    @Override
+    public String getName() {
+        return "files";
+    }
+
+    @Override
+    public String getOriginalFilename() {
+        return originalFilename;
+    }
+
+    @Override
+    public String getContentType() {
+        return contentType;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public long getSize() {
+        return size;
+    }
+
+    @Override
+    public byte[] getBytes() throws IOException {
+        return Files.readAllBytes(path);
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        return Files.newInputStream(path);
+    }
+
+    @Override
+    public void transferTo(File dest) throws IOException {
+        transferTo(dest.toPath());
+    }
+
+    @Override
+    public void transferTo(Path dest) throws IOException {
+        Files.copy(path, dest, StandardCopyOption.REPLACE_EXISTING);
+    }
+}
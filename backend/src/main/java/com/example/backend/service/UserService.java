@@ -3,7 +3,9 @@ package com.example.backend.service;
 import com.example.backend.dto.UserRegistrationDto;
 import com.example.backend.model.User;
 import com.example.backend.repository.UserRepository;
+import com.example.backend.security.PasswordHashingExecutor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
@@ -15,6 +17,9 @@ public class UserService {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private PasswordHashingExecutor passwordHashingExecutor;
+
 
     public Boolean emailValidation(String email){
         if (userRepository.existsByEmail(email)){
@@ -32,9 +37,33 @@ public class UserService {
         User user = new User();
         user.setName(registrationDto.getName());
         user.setEmail(registrationDto.getEmail());
-        user.setPassword(passwordEncoder.encode(registrationDto.getPassword()));
+        user.setPassword(passwordHashingExecutor.run(() -> passwordEncoder.encode(registrationDto.getPassword())));
         user.setRole(registrationDto.getRole());
 
         return userRepository.save(user);
     }
+
+    /**
+     * Checks the credentials with a single users lookup. Unknown accounts fail before any BCrypt work,
+     * and hashes below the configured work factor are upgraded on a successful login.
+     */
+    public User authenticate(String email, String rawPassword) {
+        if (email == null || rawPassword == null) {
+            throw new BadCredentialsException("Incorrect username or password");
+        }
+
+        User user = userRepository.findByEmail(email)
+                .orElseThrow(() -> new BadCredentialsException("Incorrect username or password"));
+
+        boolean matches = passwordHashingExecutor.run(() -> passwordEncoder.matches(rawPassword, user.getPassword()));
+        if (!matches) {
+            throw new BadCredentialsException("Incorrect username or password");
+        }
+
+        if (passwordEncoder.upgradeEncoding(user.getPassword())) {
+            user.setPassword(passwordHashingExecutor.run(() -> passwordEncoder.encode(rawPassword)));
+            userRepository.save(user);
+        }
+        return user;
+    }
 }
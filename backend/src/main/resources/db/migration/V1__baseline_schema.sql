@@ -0,0 +1,82 @@
+-- Schema as shipped in db_dump/init.sql before migrations were introduced.
+-- Databases restored from that dump are baselined at this version instead of running it.
+
+CREATE TABLE users (
+  user_id int NOT NULL AUTO_INCREMENT,
+  name varchar(45) NOT NULL,
+  email varchar(45) NOT NULL,
+  password varchar(255) NOT NULL,
+  role enum('DOCTOR','PATIENT','LABTECH') NOT NULL,
+  PRIMARY KEY (user_id)
+);
+
+CREATE TABLE doctor (
+  user_id int NOT NULL,
+  specilization varchar(45) DEFAULT NULL,
+  license_number varchar(45) DEFAULT NULL,
+  available_times varchar(100) DEFAULT NULL,
+  PRIMARY KEY (user_id),
+  CONSTRAINT fk_doctor_users1 FOREIGN KEY (user_id) REFERENCES users (user_id)
+);
+
+CREATE TABLE patient (
+  user_id int NOT NULL,
+  gender varchar(45) NOT NULL,
+  address varchar(255) NOT NULL,
+  age varchar(45) NOT NULL,
+  PRIMARY KEY (user_id),
+  CONSTRAINT fk_patient_users FOREIGN KEY (user_id) REFERENCES users (user_id)
+);
+
+CREATE TABLE lab_tech (
+  user_id int NOT NULL,
+  department varchar(45) DEFAULT NULL,
+  PRIMARY KEY (user_id),
+  CONSTRAINT fk_lab_tech_users1 FOREIGN KEY (user_id) REFERENCES users (user_id)
+);
+
+CREATE TABLE appointments (
+  id int NOT NULL AUTO_INCREMENT,
+  date datetime DEFAULT NULL,
+  status enum('PENDING','CONFIRMED','COMPLETED','CANCELLED') DEFAULT 'PENDING',
+  patient_id int NOT NULL,
+  doctor_id int NOT NULL,
+  PRIMARY KEY (id),
+  CONSTRAINT fk_appointments_doctor1 FOREIGN KEY (doctor_id) REFERENCES doctor (user_id),
+  CONSTRAINT fk_appointments_patient1 FOREIGN KEY (patient_id) REFERENCES patient (user_id)
+);
+CREATE INDEX fk_appointments_patient1_idx ON appointments (patient_id);
+CREATE INDEX fk_appointments_doctor1_idx ON appointments (doctor_id);
+
+CREATE TABLE lab_request (
+  id int NOT NULL AUTO_INCREMENT,
+  status enum('REQUESTED','COMPLETED') DEFAULT 'REQUESTED',
+  test_type varchar(45) DEFAULT NULL,
+  appointments_id int NOT NULL,
+  PRIMARY KEY (id),
+  CONSTRAINT fk_lab_request_appointments1 FOREIGN KEY (appointments_id) REFERENCES appointments (id)
+);
+CREATE INDEX fk_lab_request_appointments1_idx ON lab_request (appointments_id);
+
+CREATE TABLE lab_report (
+  id int NOT NULL AUTO_INCREMENT,
+  report_file varchar(45) DEFAULT NULL,
+  date_issued datetime DEFAULT NULL,
+  lab_tech_labtech_id int NOT NULL,
+  lab_request_id int NOT NULL,
+  PRIMARY KEY (id),
+  CONSTRAINT fk_lab_report_lab_request1 FOREIGN KEY (lab_request_id) REFERENCES lab_request (id),
+  CONSTRAINT fk_lab_report_lab_tech1 FOREIGN KEY (lab_tech_labtech_id) REFERENCES lab_tech (user_id)
+);
+CREATE INDEX fk_lab_report_lab_tech1_idx ON lab_report (lab_tech_labtech_id);
+CREATE INDEX fk_lab_report_lab_request1_idx ON lab_report (lab_request_id);
+
+CREATE TABLE prescription (
+  id int NOT NULL AUTO_INCREMENT,
+  notes varchar(1000) DEFAULT NULL,
+  date_issued datetime DEFAULT NULL,
+  appointments_id int NOT NULL,
+  PRIMARY KEY (id),
+  CONSTRAINT fk_prescription_appointments1 FOREIGN KEY (appointments_id) REFERENCES appointments (id)
+);
+CREATE INDEX fk_prescription_appointments1_idx ON prescription (appointments_id);
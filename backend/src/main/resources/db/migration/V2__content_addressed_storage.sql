@@ -0,0 +1,15 @@
+-- Lab report files are stored by content hash (<sha256>.<ext>), see FileStorageService
+
+ALTER TABLE lab_report MODIFY report_file varchar(255) DEFAULT NULL;
+
+CREATE INDEX idx_lab_report_report_file ON lab_report (report_file);
+
+CREATE TABLE stored_file (
+  hash char(64) NOT NULL,
+  size_bytes bigint NOT NULL,
+  content_type varchar(100) DEFAULT NULL,
+  original_name varchar(255) DEFAULT NULL,
+  ref_count int NOT NULL,
+  created_at datetime DEFAULT NULL,
+  PRIMARY KEY (hash)
+);
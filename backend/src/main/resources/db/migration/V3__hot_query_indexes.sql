@@ -0,0 +1,19 @@
+-- Indexes for the hot repository queries (see QueryPlanTest)
+
+-- Doctor appointment lists and filters: doctor_id + optional status + date range, ordered by date
+CREATE INDEX idx_appointments_doctor_date ON appointments (doctor_id, date);
+CREATE INDEX idx_appointments_doctor_status_date ON appointments (doctor_id, status, date);
+
+-- Patient appointments by status, and the patient timeline (date DESC, id DESC)
+CREATE INDEX idx_appointments_patient_status ON appointments (patient_id, status);
+CREATE INDEX idx_appointments_patient_date ON appointments (patient_id, date);
+
+-- Lab tech work queues
+CREATE INDEX idx_lab_request_status ON lab_request (status);
+CREATE INDEX idx_lab_request_test_type ON lab_request (test_type);
+
+-- Report lists ordered by issue date
+CREATE INDEX idx_lab_report_date_issued ON lab_report (date_issued);
+
+-- Login and registration look users up by email; also stops duplicate accounts
+CREATE UNIQUE INDEX uk_users_email ON users (email);
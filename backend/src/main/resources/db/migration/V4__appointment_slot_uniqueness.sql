@@ -0,0 +1,10 @@
+-- At most one live (not cancelled) appointment per doctor and start time, enforced by the database so
+-- concurrent bookings on any instance cannot double-book. Cancelled rows get NULL, which a unique index
+-- never counts as a duplicate, so a cancelled slot can be booked again.
+ALTER TABLE appointments
+  ADD COLUMN active_slot tinyint GENERATED ALWAYS AS (CASE WHEN status = 'CANCELLED' THEN NULL ELSE 1 END);
+
+CREATE UNIQUE INDEX uk_appointments_doctor_slot ON appointments (doctor_id, date, active_slot);
+
+-- Same leading columns as the unique index
+DROP INDEX idx_appointments_doctor_date ON appointments;
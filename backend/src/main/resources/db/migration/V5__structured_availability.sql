@@ -0,0 +1,34 @@
+-- Structured doctor availability: recurring weekly windows, dated exceptions and a slot length.
+-- doctor.available_times stays as the human readable summary of the weekly windows.
+
+ALTER TABLE doctor ADD COLUMN slot_minutes int DEFAULT NULL;
+
+-- The entity has always allowed 1000 characters
+ALTER TABLE doctor MODIFY available_times varchar(1000) DEFAULT NULL;
+
+CREATE TABLE doctor_availability_window (
+  id int NOT NULL AUTO_INCREMENT,
+  doctor_id int NOT NULL,
+  day_of_week tinyint NOT NULL,
+  start_time time NOT NULL,
+  end_time time NOT NULL,
+  PRIMARY KEY (id),
+  CONSTRAINT fk_availability_window_doctor FOREIGN KEY (doctor_id) REFERENCES doctor (user_id) ON DELETE CASCADE
+);
+CREATE INDEX idx_availability_window_doctor ON doctor_availability_window (doctor_id, day_of_week);
+
+-- available = 0 blocks the range (whole day when the times are NULL), available = 1 adds extra hours
+CREATE TABLE doctor_availability_exception (
+  id int NOT NULL AUTO_INCREMENT,
+  doctor_id int NOT NULL,
+  exception_date date NOT NULL,
+  start_time time DEFAULT NULL,
+  end_time time DEFAULT NULL,
+  available tinyint NOT NULL DEFAULT 0,
+  PRIMARY KEY (id),
+  CONSTRAINT fk_availability_exception_doctor FOREIGN KEY (doctor_id) REFERENCES doctor (user_id) ON DELETE CASCADE
+);
+CREATE INDEX idx_availability_exception_doctor_date ON doctor_availability_exception (doctor_id, exception_date);
+
+-- "Which doctors are free at T" looks at every doctor's bookings around T
+CREATE INDEX idx_appointments_date ON appointments (date);
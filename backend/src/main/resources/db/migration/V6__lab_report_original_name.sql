@@ -0,0 +1,9 @@
+-- The name a lab report was uploaded under, sent as the download file name.
+-- stored_file.original_name is the name of the first upload of that content only, so it can't be used per report.
+
+ALTER TABLE lab_report ADD COLUMN original_name varchar(255) DEFAULT NULL;
+
+-- Best effort for existing reports: the name the content was first uploaded under
+UPDATE lab_report
+SET original_name = (SELECT sf.original_name FROM stored_file sf WHERE sf.hash = LEFT(lab_report.report_file, 64))
+WHERE original_name IS NULL;
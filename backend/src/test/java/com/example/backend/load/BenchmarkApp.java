@@ -0,0 +1,125 @@
+package com.example.backend.load;
+
+import com.example.backend.BackendApplication;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The whole backend on a random port, on its own H2 database (MySQL mode, migrated by Flyway) and its own
+ * upload directory, so several can be started one after another in the same JVM. The database is in memory,
+ * or with -Dbench.database=file in a temporary file, for datasets that don't fit the heap.
+ */
+final class BenchmarkApp implements AutoCloseable {
+
+    private final ConfigurableApplicationContext context;
+    private final String databaseUrl;
+    private final Path workDir;
+    private final String baseUrl;
+    private final HttpClient client = HttpClient.newHttpClient();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private BenchmarkApp(ConfigurableApplicationContext context, String databaseUrl, Path workDir) {
+        this.context = context;
+        this.databaseUrl = databaseUrl;
+        this.workDir = workDir;
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        this.baseUrl = "http://localhost:" + port;
+    }
+
+    static BenchmarkApp start(String name, Map<String, Object> extraProperties) throws IOException {
+        Path workDir = Files.createTempDirectory("diagnote-bench-" + name + "-");
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("server.port", 0);
+        properties.put("management.server.port", 0);
+        String database = "file".equals(System.getProperty("bench.database"))
+                ? "file:" + workDir.resolve("db").resolve("bench").toAbsolutePath()
+                : "mem:bench_" + name;
+        String databaseUrl = "jdbc:h2:" + database + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+        properties.put("spring.datasource.url", databaseUrl);
+        properties.put("file.upload-dir", workDir.resolve("uploads").toString());
+        // Statement logging to stdout would dominate the numbers
+        properties.put("spring.jpa.show-sql", false);
+        properties.put("logging.level.root", "WARN");
+        properties.put("logging.level.com.example.backend.config", "INFO");
+        properties.putAll(extraProperties);
+
+        // As arguments: they must win over application.properties and the h2 profile
+        String[] args = properties.entrySet().stream()
+                .map(property -> "--" + property.getKey() + "=" + property.getValue())
+                .toArray(String[]::new);
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(BackendApplication.class)
+                .profiles("h2")
+                .run(args);
+        return new BenchmarkApp(context, databaseUrl, workDir);
+    }
+
+    <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    URI uri(String pathAndQuery) {
+        return URI.create(baseUrl + pathAndQuery);
+    }
+
+    HttpRequest.Builder get(String pathAndQuery, String token) {
+        return HttpRequest.newBuilder(uri(pathAndQuery)).header("Authorization", "Bearer " + token).GET();
+    }
+
+    HttpRequest.Builder post(String pathAndQuery, String token, Object body) {
+        HttpRequest.Builder request = postJson(pathAndQuery, body);
+        return token == null ? request : request.header("Authorization", "Bearer " + token);
+    }
+
+    private HttpRequest.Builder postJson(String pathAndQuery, Object body) {
+        try {
+            return HttpRequest.newBuilder(uri(pathAndQuery))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    /** Log in through the API and return the access token */
+    String login(String email, String password) throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(
+                postJson("/api/auth/login", Map.of("email", email, "password", password)).build(),
+                HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Login of " + email + " failed: " + response.statusCode() + " " + response.body());
+        }
+        JsonNode json = objectMapper.readTree(response.body());
+        return json.get("accessToken").asText();
+    }
+
+    @Override
+    public void close() throws IOException, SQLException {
+        context.close();
+        // DB_CLOSE_DELAY=-1 keeps the database open for the life of the JVM otherwise
+        try (Connection connection = DriverManager.getConnection(databaseUrl, "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.execute("SHUTDOWN");
+        } finally {
+            FileSystemUtils.deleteRecursively(workDir);
+        }
+    }
+}
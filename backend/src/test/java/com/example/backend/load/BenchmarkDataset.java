@@ -0,0 +1,232 @@
+package com.example.backend.load;
+
+import com.example.backend.service.FileStorageService;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Synthetic data for the load benchmarks, sized by bench.* system properties and bulk inserted with plain
+ * JDBC batches. Ids are assigned here (doctors first, then patients, then the lab tech) and the identity
+ * columns moved past them afterwards, so the app can keep inserting.
+ * Every 3rd appointment has a prescription; lab requests are spread evenly over the appointments, two per
+ * lab report, and every other one has its report. Reports share a small set of stored files, the way identical
+ * uploads share one content-addressed blob.
+ */
+final class BenchmarkDataset {
+
+    static final String PASSWORD = "bench-password";
+
+    private static final int BATCH_SIZE = 5_000;
+    private static final int PROGRESS_EVERY = 250_000;
+    private static final LocalDateTime FIRST_SLOT = LocalDateTime.of(2024, 1, 1, 8, 0);
+    private static final int SLOTS_PER_DAY = 16;
+    private static final String[] SPECIALIZATIONS = {
+            "Cardiologist", "Dermatologist", "Neurologist", "Pediatrician", "General Physician", "Orthopedic Surgeon"};
+
+    final int doctors;
+    final int patients;
+    final int appointments;
+    final int labReports;
+    final int reportFiles;
+    final int reportFileKb;
+
+    private final List<String> storedReportFiles = new ArrayList<>();
+
+    private BenchmarkDataset(int doctors, int patients, int appointments, int labReports, int reportFiles, int reportFileKb) {
+        this.doctors = doctors;
+        this.patients = patients;
+        this.appointments = appointments;
+        // at most one lab request per appointment
+        this.labReports = Math.min(labReports, appointments / 2);
+        this.reportFiles = reportFiles;
+        this.reportFileKb = reportFileKb;
+    }
+
+    /**
+     * Sizes from -Dbench.doctors, -Dbench.patients, -Dbench.appointments, -Dbench.lab-reports,
+     * -Dbench.report-files, -Dbench.report-file-kb
+     */
+    static BenchmarkDataset fromSystemProperties(int doctors, int patients, int appointments, int labReports,
+                                                 int reportFiles, int reportFileKb) {
+        return new BenchmarkDataset(
+                Integer.getInteger("bench.doctors", doctors),
+                Integer.getInteger("bench.patients", patients),
+                Integer.getInteger("bench.appointments", appointments),
+                Integer.getInteger("bench.lab-reports", labReports),
+                Integer.getInteger("bench.report-files", reportFiles),
+                Integer.getInteger("bench.report-file-kb", reportFileKb));
+    }
+
+    int labRequests() {
+        return labReports * 2;
+    }
+
+    /** Future start time no seeded appointment uses, unique per n across all doctors (for bookings) */
+    LocalDateTime freeSlot(long n) {
+        long slot = n / doctors;
+        return FIRST_SLOT.plusYears(10).plusDays(slot / SLOTS_PER_DAY).plusMinutes(30L * (slot % SLOTS_PER_DAY));
+    }
+
+    String doctorEmail(int doctor) {
+        return "doctor" + doctor + "@bench.test";
+    }
+
+    String patientEmail(int patient) {
+        return "patient" + patient + "@bench.test";
+    }
+
+    String labTechEmail() {
+        return "labtech@bench.test";
+    }
+
+    /** References of the stored report files, valid after {@link #seed} */
+    List<String> reportFileReferences() {
+        return storedReportFiles;
+    }
+
+    @Override
+    public String toString() {
+        return doctors + " doctors, " + patients + " patients, " + appointments + " appointments, "
+                + labReports + " lab reports over " + reportFiles + " files of " + reportFileKb + " KB";
+    }
+
+    void seed(BenchmarkApp app) {
+        JdbcTemplate jdbc = app.bean(JdbcTemplate.class);
+        String password = new BCryptPasswordEncoder().encode(PASSWORD);
+        int labTechId = doctors + patients + 1;
+
+        Batch users = new Batch(jdbc, "INSERT INTO users (user_id, name, email, password, role) VALUES (?, ?, ?, ?, ?)");
+        for (int d = 0; d < doctors; d++) {
+            users.add(doctorId(d), "Doctor " + d, doctorEmail(d), password, "DOCTOR");
+        }
+        for (int p = 0; p < patients; p++) {
+            users.add(patientId(p), "Patient " + p, patientEmail(p), password, "PATIENT");
+        }
+        users.add(labTechId, "Lab Tech", labTechEmail(), password, "LABTECH");
+        users.flush();
+
+        Batch doctorRows = new Batch(jdbc, "INSERT INTO doctor (user_id, specilization, license_number, available_times) VALUES (?, ?, ?, ?)");
+        for (int d = 0; d < doctors; d++) {
+            doctorRows.add(doctorId(d), SPECIALIZATIONS[d % SPECIALIZATIONS.length], "LIC-" + d,
+                    "Monday 08:00-16:00, Wednesday 08:00-16:00, Friday 08:00-16:00");
+        }
+        doctorRows.flush();
+
+        Batch patientRows = new Batch(jdbc, "INSERT INTO patient (user_id, gender, address, age) VALUES (?, ?, ?, ?)");
+        for (int p = 0; p < patients; p++) {
+            patientRows.add(patientId(p), p % 2 == 0 ? "Female" : "Male", p + " Main Street", String.valueOf(18 + p % 70));
+        }
+        patientRows.flush();
+        jdbc.update("INSERT INTO lab_tech (user_id, department) VALUES (?, ?)", labTechId, "Pathology");
+
+        storeReportFiles(app);
+
+        LocalDateTime now = LocalDateTime.now();
+        Batch appointmentRows = new Batch(jdbc, "INSERT INTO appointments (id, date, status, patient_id, doctor_id) VALUES (?, ?, ?, ?, ?)");
+        Batch prescriptions = new Batch(jdbc, "INSERT INTO prescription (notes, date_issued, appointments_id) VALUES (?, ?, ?)");
+        Batch labRequestRows = new Batch(jdbc, "INSERT INTO lab_request (id, status, test_type, appointments_id) VALUES (?, ?, ?, ?)");
+        Batch labReportRows = new Batch(jdbc, "INSERT INTO lab_report (report_file, date_issued, lab_tech_labtech_id, lab_request_id) VALUES (?, ?, ?, ?)");
+        int labRequestId = 0;
+        long seedStart = System.nanoTime();
+        for (int a = 1; a <= appointments; a++) {
+            // one slot per doctor and start time, so the slot uniqueness index is respected
+            int slot = (a - 1) / doctors;
+            LocalDateTime date = FIRST_SLOT.plusDays(slot / SLOTS_PER_DAY).plusMinutes(30L * (slot % SLOTS_PER_DAY));
+            String status = a % 10 == 0 ? "CANCELLED" : date.isBefore(now) ? "COMPLETED" : a % 2 == 0 ? "CONFIRMED" : "PENDING";
+            // spread each doctor's appointments over many patients
+            int patient = (int) ((a * 7919L) % patients);
+            appointmentRows.add(a, Timestamp.valueOf(date), status, patientId(patient), doctorId((a - 1) % doctors));
+
+            if (a % 3 == 0) {
+                prescriptions.add("Take one tablet twice a day after meals, review in two weeks (" + a + ")",
+                        Timestamp.valueOf(date.plusMinutes(20)), a);
+            }
+            // the a-th appointment gets a lab request when that moves the evenly spread count past a whole number
+            if ((long) a * labRequests() / appointments > labRequestId) {
+                labRequestId++;
+                boolean reported = labRequestId % 2 == 0;
+                labRequestRows.add(labRequestId, reported ? "COMPLETED" : "REQUESTED", "Blood Test", a);
+                if (reported) {
+                    labReportRows.add(storedReportFiles.get(labRequestId / 2 % storedReportFiles.size()),
+                            Timestamp.valueOf(date.plusDays(1)), labTechId, labRequestId);
+                }
+            }
+            // parents before children; the child batches never hold more rows than this
+            if (a % BATCH_SIZE == 0) {
+                appointmentRows.flush();
+                prescriptions.flush();
+                labRequestRows.flush();
+                labReportRows.flush();
+            }
+            if (a % PROGRESS_EVERY == 0) {
+                System.out.printf("  seeded %d of %d appointments (%d s)%n",
+                        a, appointments, (System.nanoTime() - seedStart) / 1_000_000_000L);
+            }
+        }
+        appointmentRows.flush();
+        prescriptions.flush();
+        labRequestRows.flush();
+        labReportRows.flush();
+
+        restartIdentity(jdbc, "users", "user_id");
+        restartIdentity(jdbc, "appointments", "id");
+        restartIdentity(jdbc, "lab_request", "id");
+    }
+
+    // Through the app's own storage, so references and blobs look exactly like real uploads
+    private void storeReportFiles(BenchmarkApp app) {
+        FileStorageService storage = app.bean(FileStorageService.class);
+        byte[] content = new byte[reportFileKb * 1024];
+        for (int f = 0; f < reportFiles; f++) {
+            byte[] header = ("%PDF-1.4 bench report " + f + "\n").getBytes(StandardCharsets.US_ASCII);
+            Arrays.fill(content, (byte) ('a' + f % 26));
+            System.arraycopy(header, 0, content, 0, Math.min(header.length, content.length));
+            storedReportFiles.add(storage.storeFile(
+                    new MockMultipartFile("file", "report-" + f + ".pdf", "application/pdf", content)));
+        }
+    }
+
+    private static void restartIdentity(JdbcTemplate jdbc, String table, String column) {
+        Long max = jdbc.queryForObject("SELECT COALESCE(MAX(" + column + "), 0) FROM " + table, Long.class);
+        jdbc.execute("ALTER TABLE " + table + " ALTER COLUMN " + column + " RESTART WITH " + (max + 1));
+    }
+
+    int doctorId(int doctor) {
+        return doctor + 1;
+    }
+
+    int patientId(int patient) {
+        return doctors + patient + 1;
+    }
+
+    // Rows of one statement, sent as JDBC batches on flush (callers flush parents before children)
+    private static final class Batch {
+        private final JdbcTemplate jdbc;
+        private final String sql;
+        private final List<Object[]> rows = new ArrayList<>(BATCH_SIZE);
+
+        Batch(JdbcTemplate jdbc, String sql) {
+            this.jdbc = jdbc;
+            this.sql = sql;
+        }
+
+        void add(Object... row) {
+            rows.add(row);
+        }
+
+        void flush() {
+            for (int from = 0; from < rows.size(); from += BATCH_SIZE) {
+                jdbc.batchUpdate(sql, rows.subList(from, Math.min(from + BATCH_SIZE, rows.size())));
+            }
+            rows.clear();
+        }
+    }
+}
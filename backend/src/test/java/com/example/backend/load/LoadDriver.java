@@ -0,0 +1,172 @@
+package com.example.backend.load;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.LongFunction;
+
+/**
+ * Closed-loop HTTP load: each client sends a request, waits for the whole response, and sends the next one,
+ * picking endpoints by weight. Latencies are recorded per client and merged afterwards, so recording never
+ * contends. Only requests that start inside the measured window (after the warm-up) count.
+ */
+final class LoadDriver {
+
+    /** One kind of request; the function gets a running number to vary ids, pages and so on */
+    record Endpoint(String name, int weight, LongFunction<HttpRequest> request) {}
+
+    record Result(String endpoint, long requests, long errors, double perSecond,
+                  double p50Millis, double p90Millis, double p99Millis, double p999Millis, double maxMillis) {
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%-22s %9d req %6d err %9.1f req/s  p50 %8.2f  p90 %8.2f  p99 %8.2f  p99.9 %8.2f  max %8.2f ms",
+                    endpoint, requests, errors, perSecond, p50Millis, p90Millis, p99Millis, p999Millis, maxMillis);
+        }
+    }
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+
+    List<Result> run(List<Endpoint> endpoints, int clients, Duration warmUp, Duration measured) throws InterruptedException {
+        int totalWeight = endpoints.stream().mapToInt(Endpoint::weight).sum();
+        long measureFrom = System.nanoTime() + warmUp.toNanos();
+        long measureUntil = measureFrom + measured.toNanos();
+
+        Samples[][] samples = new Samples[clients][endpoints.size()];
+        CountDownLatch done = new CountDownLatch(clients);
+        List<Thread> threads = new ArrayList<>(clients);
+        for (int c = 0; c < clients; c++) {
+            Samples[] mine = samples[c];
+            for (int e = 0; e < endpoints.size(); e++) {
+                mine[e] = new Samples();
+            }
+            long offset = (long) c << 32;
+            Thread thread = new Thread(() -> {
+                try {
+                    drive(endpoints, totalWeight, mine, offset, measureFrom, measureUntil);
+                } finally {
+                    done.countDown();
+                }
+            }, "load-client-" + c);
+            thread.setDaemon(true);
+            threads.add(thread);
+        }
+        threads.forEach(Thread::start);
+        done.await();
+
+        List<Result> results = new ArrayList<>(endpoints.size() + 1);
+        double seconds = measured.toNanos() / 1e9;
+        Samples all = new Samples();
+        long allErrors = 0;
+        for (int e = 0; e < endpoints.size(); e++) {
+            Samples merged = new Samples();
+            long errors = 0;
+            for (Samples[] perClient : samples) {
+                merged.addAll(perClient[e]);
+                errors += perClient[e].errors;
+            }
+            results.add(result(endpoints.get(e).name(), merged, errors, seconds));
+            all.addAll(merged);
+            allErrors += errors;
+        }
+        if (endpoints.size() > 1) {
+            results.add(result("all", all, allErrors, seconds));
+        }
+        return results;
+    }
+
+    private static Result result(String endpoint, Samples samples, long errors, double seconds) {
+        long[] sorted = samples.sorted();
+        return new Result(endpoint, sorted.length, errors, sorted.length / seconds,
+                millis(percentile(sorted, 0.50)), millis(percentile(sorted, 0.90)),
+                millis(percentile(sorted, 0.99)), millis(percentile(sorted, 0.999)),
+                millis(sorted.length == 0 ? 0 : sorted[sorted.length - 1]));
+    }
+
+    private void drive(List<Endpoint> endpoints, int totalWeight, Samples[] samples, long sequence,
+                       long measureFrom, long measureUntil) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long now;
+        while ((now = System.nanoTime()) < measureUntil) {
+            int e = pick(endpoints, random.nextInt(totalWeight));
+            HttpRequest request = endpoints.get(e).request().apply(sequence++);
+            boolean ok;
+            try {
+                HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                ok = response.statusCode() < 400;
+            } catch (Exception ex) {
+                if (ex instanceof InterruptedException) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                ok = false;
+            }
+            if (now >= measureFrom) {
+                samples[e].add(System.nanoTime() - now);
+                if (!ok) {
+                    samples[e].errors++;
+                }
+            }
+        }
+    }
+
+    private static int pick(List<Endpoint> endpoints, int ticket) {
+        for (int e = 0; e < endpoints.size(); e++) {
+            ticket -= endpoints.get(e).weight();
+            if (ticket < 0) {
+                return e;
+            }
+        }
+        return endpoints.size() - 1;
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(p * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+
+    // Growable long array, owned by one client thread
+    private static final class Samples {
+        private long[] values = new long[1024];
+        private int size;
+        private long errors;
+
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        void addAll(Samples other) {
+            if (size + other.size > values.length) {
+                values = Arrays.copyOf(values, Math.max(values.length * 2, size + other.size));
+            }
+            System.arraycopy(other.values, 0, values, size, other.size);
+            size += other.size;
+        }
+
+        long[] sorted() {
+            long[] copy = Arrays.copyOf(values, size);
+            Arrays.sort(copy);
+            return copy;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.backend.load;
+
+import com.example.backend.load.LoadDriver.Endpoint;
+import com.example.backend.load.LoadDriver.Result;
+import org.junit.jupiter.api.Test;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The app under a mixed workload of patients, doctors and a lab tech, on a seeded H2 database: reads of every
+ * main screen, report downloads, logins and appointment bookings, picked by weight. Prints throughput and
+ * latency percentiles per endpoint, to compare a change against production-sized data before it ships.
+ *
+ * Not part of the normal build:
+ *   mvn -Ploadtest test -Dtest=MixedWorkloadLoadBenchmark -Dbench.clients=64 -Dbench.duration-seconds=60
+ * Production-sized (seeding takes a few minutes; raise -Dbench.heap if it runs out of memory):
+ *   mvn -Ploadtest test -Dtest=MixedWorkloadLoadBenchmark -Dbench.database=file -Dbench.doctors=10000
+ *       -Dbench.patients=100000 -Dbench.appointments=1000000 -Dbench.lab-reports=500000
+ */
+class MixedWorkloadLoadBenchmark {
+
+    private static final String[] SUGGEST_PREFIXES = {"car", "der", "neu", "ped", "gen", "ort", "doctor 1"};
+
+    @Test
+    void mixedWorkload() throws Exception {
+        int clients = Integer.getInteger("bench.clients", 64);
+        int users = Integer.getInteger("bench.logged-in-users", 20);
+        Duration warmUp = Duration.ofSeconds(Long.getLong("bench.warmup-seconds", 10));
+        Duration measured = Duration.ofSeconds(Long.getLong("bench.duration-seconds", 30));
+
+        BenchmarkDataset dataset = BenchmarkDataset.fromSystemProperties(1_000, 20_000, 100_000, 25_000, 50, 128);
+        List<Result> results;
+        try (BenchmarkApp app = BenchmarkApp.start("mixed", Map.of(
+                "spring.datasource.hikari.maximum-pool-size", Integer.getInteger("bench.pool-size", 20)))) {
+            long seedStart = System.nanoTime();
+            dataset.seed(app);
+            System.out.printf("Seeded %s in %d s%n", dataset, (System.nanoTime() - seedStart) / 1_000_000_000L);
+
+            results = new LoadDriver().run(endpoints(app, dataset, users), clients, warmUp, measured);
+        }
+
+        System.out.printf("%nMixed workload, %d clients, %d s measured after %d s warm-up, %s%n",
+                clients, measured.toSeconds(), warmUp.toSeconds(), dataset);
+        results.forEach(result -> System.out.println("  " + result));
+
+        results.forEach(result -> {
+            assertTrue(result.requests() > 0, result::toString);
+            assertEquals(0, result.errors(), result::toString);
+        });
+    }
+
+    private static List<Endpoint> endpoints(BenchmarkApp app, BenchmarkDataset dataset, int users) throws Exception {
+        // Spread the logged in users over the dataset
+        List<Integer> patients = new ArrayList<>();
+        List<String> patientTokens = new ArrayList<>();
+        List<String> doctorTokens = new ArrayList<>();
+        for (int u = 0; u < users; u++) {
+            int patient = (int) ((long) u * dataset.patients / users);
+            patients.add(patient);
+            patientTokens.add(app.login(dataset.patientEmail(patient), BenchmarkDataset.PASSWORD));
+            doctorTokens.add(app.login(dataset.doctorEmail((int) ((long) u * dataset.doctors / users)), BenchmarkDataset.PASSWORD));
+        }
+        String labTechToken = app.login(dataset.labTechEmail(), BenchmarkDataset.PASSWORD);
+        List<String> reports = dataset.reportFileReferences();
+        AtomicLong bookings = new AtomicLong();
+
+        return List.of(
+                // patients
+                new Endpoint("doctor search", 8, n -> app.get("/api/doctors?size=20&name="
+                        + encode("Doctor " + n % dataset.doctors), pick(patientTokens, n)).build()),
+                new Endpoint("doctor suggest", 8, n -> app.get("/api/doctors/suggest?q="
+                        + encode(SUGGEST_PREFIXES[(int) (n % SUGGEST_PREFIXES.length)]), pick(patientTokens, n)).build()),
+                new Endpoint("free slots", 6, n -> app.get("/api/doctors/" + dataset.doctorId((int) (n % dataset.doctors))
+                        + "/free-slots?count=10", pick(patientTokens, n)).build()),
+                new Endpoint("book appointment", 3, n -> {
+                    // a start time nobody has booked, so every booking goes through
+                    long slot = bookings.getAndIncrement();
+                    int user = (int) (n % users);
+                    return app.post("/api/appointments", patientTokens.get(user), Map.of(
+                            "doctorEmail", dataset.doctorEmail((int) (slot % dataset.doctors)),
+                            "patientEmail", dataset.patientEmail(patients.get(user)),
+                            "appointmentDateTime", dataset.freeSlot(slot).toString())).build();
+                }),
+                new Endpoint("patient appointments", 5, n -> app.get("/api/appointments/patient/"
+                        + encode(dataset.patientEmail(patients.get((int) (n % users)))), patientTokens.get((int) (n % users))).build()),
+                new Endpoint("patient prescriptions", 8, n -> app.get("/api/patient/prescriptions", pick(patientTokens, n)).build()),
+                new Endpoint("patient lab reports", 6, n -> app.get("/api/patient/lab-reports", pick(patientTokens, n)).build()),
+                new Endpoint("patient profile", 6, n -> app.get("/api/patient/profile", pick(patientTokens, n)).build()),
+                // doctors
+                new Endpoint("doctor appointments", 10, n -> app.get("/api/doctor/appointments?size=20&page="
+                        + (n % 5), pick(doctorTokens, n)).build()),
+                new Endpoint("patient history", 5, n -> app.get("/api/doctor/patient-history?email="
+                        + encode(dataset.patientEmail((int) (n * 31 % dataset.patients))), pick(doctorTokens, n)).build()),
+                new Endpoint("patient timeline", 4, n -> app.get("/api/doctor/patient-history/timeline?size=20&email="
+                        + encode(dataset.patientEmail((int) (n * 31 % dataset.patients))), pick(doctorTokens, n)).build()),
+                new Endpoint("doctor profile", 4, n -> app.get("/api/doctor/profile", pick(doctorTokens, n)).build()),
+                new Endpoint("report download", 5, n -> app.get("/api/doctor/lab-reports/file/"
+                        + reports.get((int) (n % reports.size())), pick(doctorTokens, n)).build()),
+                // lab tech
+                new Endpoint("lab reports page", 3, n -> app.get("/api/lab-reports?size=20&page="
+                        + (n % 50), labTechToken).build()),
+                // everyone, now and then
+                new Endpoint("login", 1, n -> app.post("/api/auth/login", null, Map.of(
+                        "email", dataset.patientEmail(patients.get((int) (n % users))),
+                        "password", BenchmarkDataset.PASSWORD)).build()));
+    }
+
+    private static String pick(List<String> tokens, long n) {
+        return tokens.get((int) (n % tokens.size()));
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
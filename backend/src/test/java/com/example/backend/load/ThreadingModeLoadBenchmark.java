@@ -0,0 +1,101 @@
+package com.example.backend.load;
+
+import com.example.backend.load.LoadDriver.Endpoint;
+import com.example.backend.load.LoadDriver.Result;
+import org.junit.jupiter.api.Test;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Platform vs virtual request threads on three blocking paths: a patient's full history (JPA),
+ * a doctor's appointment list (JPA, paged) and a lab report download (file I/O). Each mode boots the
+ * whole app on a fresh H2 database with the same seeded data and connection pool size, then gets the
+ * same closed-loop load. Virtual threads need Java 21+; on older JVMs only the platform run happens.
+ *
+ * Not part of the normal build:
+ *   mvn -Ploadtest test -Dtest=ThreadingModeLoadBenchmark -Dbench.clients=400 -Dbench.duration-seconds=60
+ *
+ * H2 runs in-process, so a query never waits on the network the way it does against MySQL; the gap
+ * between the modes is larger against a real database.
+ */
+class ThreadingModeLoadBenchmark {
+
+    private static final int POOL_SIZE = 20;
+
+    @Test
+    void compareThreadingModes() throws Exception {
+        int clients = Integer.getInteger("bench.clients", 256);
+        Duration warmUp = Duration.ofSeconds(Long.getLong("bench.warmup-seconds", 10));
+        Duration measured = Duration.ofSeconds(Long.getLong("bench.duration-seconds", 30));
+        int javaVersion = Runtime.version().feature();
+
+        Map<String, List<Result>> results = new LinkedHashMap<>();
+        results.put("platform", run("platform", false, clients, warmUp, measured));
+        if (javaVersion >= 21) {
+            results.put("virtual", run("virtual", true, clients, warmUp, measured));
+        } else {
+            System.out.println("Java " + javaVersion + ": no virtual threads, skipping the virtual run");
+        }
+
+        System.out.printf("%nThreading modes, %d clients, %d s measured after %d s warm-up, %d connections (Java %d)%n",
+                clients, measured.toSeconds(), warmUp.toSeconds(), POOL_SIZE, javaVersion);
+        results.forEach((mode, endpoints) -> {
+            System.out.println(mode + ":");
+            endpoints.forEach(result -> System.out.println("  " + result));
+        });
+
+        results.values().forEach(endpoints -> endpoints.forEach(result -> {
+            assertTrue(result.requests() > 0, result::toString);
+            assertEquals(0, result.errors(), result::toString);
+        }));
+    }
+
+    private List<Result> run(String mode, boolean virtualThreads, int clients, Duration warmUp, Duration measured)
+            throws Exception {
+        Map<String, Object> properties = Map.of(
+                "spring.threads.virtual.enabled", virtualThreads,
+                "spring.datasource.hikari.maximum-pool-size", POOL_SIZE,
+                "spring.datasource.hikari.minimum-idle", POOL_SIZE,
+                // platform threads: enough Tomcat workers for every client, so threads are not the only difference
+                "server.tomcat.threads.max", Math.max(200, clients));
+
+        BenchmarkDataset dataset = BenchmarkDataset.fromSystemProperties(50, 2_000, 50_000, 6_250, 20, 256);
+        try (BenchmarkApp app = BenchmarkApp.start(mode, properties)) {
+            dataset.seed(app);
+            System.out.println(mode + ": seeded " + dataset);
+
+            List<String> doctorTokens = new ArrayList<>();
+            for (int d = 0; d < Math.min(dataset.doctors, 10); d++) {
+                doctorTokens.add(app.login(dataset.doctorEmail(d), BenchmarkDataset.PASSWORD));
+            }
+            List<String> reports = dataset.reportFileReferences();
+
+            List<Endpoint> endpoints = List.of(
+                    new Endpoint("patient history", 1, n -> app.get("/api/doctor/patient-history?email="
+                            + encode(dataset.patientEmail((int) (n * 31 % dataset.patients))), token(doctorTokens, n)).build()),
+                    new Endpoint("doctor appointments", 1, n -> app.get("/api/doctor/appointments?size=50&page="
+                            + (n % 5), token(doctorTokens, n)).build()),
+                    new Endpoint("report download", 1, n -> app.get("/api/doctor/lab-reports/file/"
+                            + reports.get((int) (n % reports.size())), token(doctorTokens, n)).build()));
+
+            return new LoadDriver().run(endpoints, clients, warmUp, measured);
+        }
+    }
+
+    private static String token(List<String> tokens, long n) {
+        return tokens.get((int) (n % tokens.size()));
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.backend.metrics;
+
+import com.example.backend.dto.AuthRequest;
+import com.example.backend.dto.AuthResponse;
+import com.example.backend.dto.UserRegistrationDto;
+import com.example.backend.model.Role;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalManagementPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.file.Path;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The whole app on H2: requests show up in the Prometheus scrape on the management port with latency
+ * histograms per route and per repository method, and the SQL statements each route sent.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "management.server.port=0",
+        "spring.datasource.url=jdbc:h2:mem:metrics;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false"
+})
+@ActiveProfiles("h2")
+// tests leave metrics export off unless asked
+@AutoConfigureObservability(tracing = false)
+class MetricsEndpointTest {
+
+    @TempDir
+    static Path uploadDir;
+
+    @DynamicPropertySource
+    static void storage(DynamicPropertyRegistry registry) {
+        registry.add("file.upload-dir", () -> uploadDir.toString());
+    }
+
+    @Autowired
+    private TestRestTemplate rest;
+
+    @LocalManagementPort
+    private int managementPort;
+
+    @Test
+    void scrapeHasRouteRepositoryAndSqlMetrics() {
+        rest.postForEntity("/api/auth/register",
+                new UserRegistrationDto("Pat", "metrics@test.com", "secret-password", Role.PATIENT), String.class);
+        AuthResponse auth = rest.postForObject("/api/auth/login",
+                new AuthRequest("metrics@test.com", "secret-password"), AuthResponse.class);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(auth.getAccessToken());
+        ResponseEntity<String> profile = rest.exchange("/api/patient/profile", HttpMethod.GET, new HttpEntity<>(headers), String.class);
+        assertEquals(HttpStatus.OK, profile.getStatusCode());
+
+        String scrape = rest.getForObject("http://localhost:" + managementPort + "/actuator/prometheus", String.class);
+
+        assertTrue(scrape.contains("http_server_requests_seconds_bucket{"), "route latency histogram");
+        assertTrue(scrape.contains("uri=\"/api/patient/profile\""), "route tag");
+        assertTrue(scrape.contains("spring_data_repository_invocations_seconds_bucket{"), "repository latency histogram");
+        assertTrue(scrape.contains("repository=\"UserRepository\""), "repository tag");
+        assertTrue(scrape.contains("storage_uploaded_bytes_count"), "upload size");
+        assertTrue(scrape.contains("storage_downloaded_bytes_count"), "download size");
+        assertTrue(scrape.contains("security_password_hashing_queue"), "hashing queue gauge");
+        assertTrue(scrape.contains("cache_gets_total{cache=\"patient-profiles\""), "profile cache hits/misses");
+
+        // registering and logging in both read and write users
+        assertTrue(sqlStatements(scrape, "POST", "/api/auth/register") > 0);
+        assertTrue(sqlStatements(scrape, "POST", "/api/auth/login") > 0);
+    }
+
+    @Test
+    void scrapeIsNotServedOnTheApplicationPort() {
+        ResponseEntity<String> response = rest.getForEntity("/actuator/prometheus", String.class);
+        assertNotEquals(HttpStatus.OK, response.getStatusCode());
+    }
+
+    private static double sqlStatements(String scrape, String method, String uri) {
+        Matcher m = Pattern.compile("http_server_requests_sql_statements_sum\\{[^}]*method=\"" + method
+                + "\"[^}]*uri=\"" + Pattern.quote(uri) + "\"[^}]*} (\\S+)").matcher(scrape);
+        assertTrue(m.find(), "no SQL count for " + method + " " + uri);
+        return Double.parseDouble(m.group(1));
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.backend.metrics;
+
+import com.example.backend.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * With a zero threshold every statement is logged (by the writer thread): with the repository method that sent it
+ * and the types of its bind parameters, but never their values.
+ */
+@DataJpaTest(properties = {"sql.log.slow-threshold-ms=0", "logging.level.org.hibernate.SQL=WARN"}, showSql = false)
+@ActiveProfiles("h2")
+@Import({JdbcProxyConfig.class, SlowQueryLog.class})
+@ExtendWith(OutputCaptureExtension.class)
+class SlowQueryLogTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void logsRepositoryMethodAndParameterTypesButNotValues(CapturedOutput output) throws InterruptedException {
+        userRepository.findByEmail("private.person@test.com");
+
+        String line = awaitLine(output, "UserRepository.findByEmail");
+        assertTrue(line.contains("Slow SQL"), line);
+        assertTrue(line.contains("params (String)"), line);
+        assertFalse(output.getAll().contains("private.person@test.com"), "bind values must not be logged");
+    }
+
+    @Test
+    void logsBatchesAsOneStatementWithTheirSize(CapturedOutput output) throws InterruptedException {
+        jdbcTemplate.batchUpdate("INSERT INTO users (name, email, password, role) VALUES (?, ?, ?, ?)", List.of(
+                new Object[]{"A", "a@test.com", "x", "PATIENT"},
+                new Object[]{"B", "b@test.com", "x", "PATIENT"},
+                new Object[]{"C", "c@test.com", "x", "PATIENT"}));
+
+        String line = awaitLine(output, "INSERT INTO users (name, email, password, role)");
+        assertTrue(line.contains("params (String, String, String, String) x 3"), line);
+    }
+
+    // The log is written asynchronously
+    private static String awaitLine(CapturedOutput output, String fragment) throws InterruptedException {
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (System.nanoTime() < deadline) {
+            for (String line : output.getAll().split("\\R")) {
+                if (line.contains(fragment) && line.contains("SlowQueryLog")) {
+                    return line;
+                }
+            }
+            Thread.sleep(20);
+        }
+        return fail("No statement log line containing " + fragment + " in:\n" + output.getAll());
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.backend.repository;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the Flyway migrations on the embedded database and EXPLAINs the WHERE / ORDER BY shapes
+ * of the hot repository queries: each one must be answered from an index, never a full table scan.
+ */
+@DataJpaTest
+@ActiveProfiles("h2")
+class QueryPlanTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void migrationsCreateHotQueryIndexes() {
+        List<String> indexes = jdbcTemplate.queryForList(
+                "SELECT LOWER(index_name) FROM information_schema.indexes", String.class);
+
+        assertTrue(indexes.containsAll(List.of(
+                "uk_appointments_doctor_slot",
+                "idx_appointments_doctor_status_date",
+                "idx_appointments_patient_status",
+                "idx_appointments_patient_date",
+                "idx_lab_request_status",
+                "idx_lab_request_test_type",
+                "idx_lab_report_report_file",
+                "idx_lab_report_date_issued",
+                "idx_appointments_date",
+                "uk_users_email")), () -> "Missing indexes, found " + indexes);
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @ValueSource(strings = {
+            // AppointmentRepository
+            "SELECT * FROM appointments WHERE doctor_id = 1 AND date >= TIMESTAMP '2025-01-01 00:00:00' "
+                    + "AND date < TIMESTAMP '2025-02-01 00:00:00' ORDER BY date, id",
+            "SELECT * FROM appointments WHERE doctor_id = 1 AND status = 'CONFIRMED' "
+                    + "AND date >= TIMESTAMP '2025-01-01 00:00:00' ORDER BY date",
+            "SELECT * FROM appointments WHERE doctor_id = 1 AND status IN ('PENDING', 'CONFIRMED')",
+            "SELECT * FROM appointments WHERE patient_id = 1 AND status IN ('PENDING', 'CONFIRMED')",
+            "SELECT * FROM appointments WHERE patient_id = 1 AND (date < TIMESTAMP '2025-01-01 00:00:00' "
+                    + "OR (date = TIMESTAMP '2025-01-01 00:00:00' AND id < 10)) ORDER BY date DESC, id DESC",
+            // LabRequestRepository
+            "SELECT * FROM lab_request WHERE status = 'REQUESTED'",
+            "SELECT * FROM lab_request WHERE test_type = 'Blood'",
+            // UserRepository
+            "SELECT * FROM users WHERE email = 'doctor@hospital.com'",
+            // LabReportRepository / ReportFileIndex
+            "SELECT * FROM lab_report WHERE report_file = 'a.pdf'",
+            "SELECT * FROM lab_report WHERE date_issued >= TIMESTAMP '2025-01-01 00:00:00' "
+                    + "ORDER BY date_issued DESC"
+    })
+    void hotQueryUsesIndex(String sql) {
+        String plan = jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class);
+
+        assertFalse(plan.toLowerCase(Locale.ROOT).contains("tablescan"), () -> "Full scan for " + sql + "\n" + plan);
+    }
+}
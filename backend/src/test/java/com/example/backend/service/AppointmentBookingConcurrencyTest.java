@@ -0,0 +1,190 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.AppointmentRequest;
+import com.example.backend.dto.AppointmentResponse;
+import com.example.backend.model.*;
+import com.example.backend.repository.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Thousands of parallel bookings for a handful of slots must end with exactly one live appointment per slot.
+ * Two AppointmentService instances with their own locks stand in for two backend nodes, so the unique
+ * index has to catch the races the in-process locks cannot see.
+ */
+@DataJpaTest(properties = "logging.level.org.hibernate.SQL=WARN", showSql = false)
+@ActiveProfiles("h2")
+@Import({AppointmentService.class, DoctorSlotLocks.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class AppointmentBookingConcurrencyTest {
+
+    private static final int DOCTORS = 5;
+    private static final int SLOTS_PER_DOCTOR = 4;
+    private static final int PATIENTS = 40;
+    private static final int BOOKINGS = 2000;
+    private static final int THREADS = 32;
+    private static final LocalDateTime FIRST_SLOT = LocalDateTime.of(2030, 1, 7, 9, 0);
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void seed() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            for (int d = 0; d < DOCTORS; d++) {
+                User user = userRepository.save(new User("Doctor " + d, doctorEmail(d), "x", Role.DOCTOR));
+                doctorRepository.save(new Doctor(null, user, "General", "LIC-" + d, null));
+            }
+            for (int p = 0; p < PATIENTS; p++) {
+                User user = userRepository.save(new User("Patient " + p, patientEmail(p), "x", Role.PATIENT));
+                patientRepository.save(new Patient(null, user, "F", "Street " + p, 30));
+            }
+        });
+    }
+
+    @AfterEach
+    void cleanUp() {
+        appointmentRepository.deleteAllInBatch();
+        patientRepository.deleteAllInBatch();
+        doctorRepository.deleteAllInBatch();
+        userRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void exactlyOneWinnerPerSlot() throws Exception {
+        // A second "node": same database, separate locks
+        AppointmentService otherNode = new AppointmentService(appointmentRepository, doctorRepository,
+                patientRepository, userRepository, new DoctorSlotLocks(64, 5000), transactionManager);
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger winners = new AtomicInteger();
+        List<Future<?>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < BOOKINGS; i++) {
+                int n = i;
+                AppointmentService node = n % 2 == 0 ? appointmentService : otherNode;
+                results.add(pool.submit(() -> {
+                    start.await();
+                    AppointmentResponse booked = node.bookAppointment(request(
+                            n % DOCTORS, (n / DOCTORS) % SLOTS_PER_DOCTOR, n % PATIENTS));
+                    if (booked != null) {
+                        winners.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> result : results) {
+                result.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(DOCTORS * SLOTS_PER_DOCTOR, winners.get());
+        List<Map<String, Object>> perSlot = jdbcTemplate.queryForList(
+                "SELECT doctor_id, date, COUNT(*) AS booked FROM appointments GROUP BY doctor_id, date");
+        assertEquals(DOCTORS * SLOTS_PER_DOCTOR, perSlot.size());
+        perSlot.forEach(slot -> assertEquals(1L, ((Number) slot.get("booked")).longValue(), slot::toString));
+    }
+
+    @Test
+    void cancelledSlotCanBeBookedAgain() {
+        AppointmentResponse first = appointmentService.bookAppointment(request(0, 0, 0));
+        assertNotNull(first);
+        assertNull(appointmentService.bookAppointment(request(0, 0, 1)));
+
+        appointmentService.cancelAppointment(first.getAppointmentId());
+        assertNotNull(appointmentService.bookAppointment(request(0, 0, 1)));
+    }
+
+    @Test
+    void databaseRejectsSecondLiveAppointmentInSlot() {
+        AppointmentResponse booked = appointmentService.bookAppointment(request(0, 0, 0));
+        String insert = "INSERT INTO appointments (date, status, patient_id, doctor_id) VALUES (?, ?, ?, ?)";
+
+        assertThrows(DataIntegrityViolationException.class, () -> jdbcTemplate.update(insert,
+                booked.getAppointmentDateTime(), "CONFIRMED", booked.getPatientId(), booked.getDoctorId()));
+        // cancelled rows never collide
+        jdbcTemplate.update(insert, booked.getAppointmentDateTime(), "CANCELLED", booked.getPatientId(), booked.getDoctorId());
+        jdbcTemplate.update(insert, booked.getAppointmentDateTime(), "CANCELLED", booked.getPatientId(), booked.getDoctorId());
+    }
+
+    @Test
+    void otherConstraintViolationsAreNotReportedAsSlotTaken() {
+        // Any constraint besides the slot index, here a made-up one
+        jdbcTemplate.execute("ALTER TABLE appointments ADD CONSTRAINT ck_test_recent CHECK (date >= '2000-01-01')");
+        try {
+            AppointmentRequest request = request(0, 0, 0);
+            request.setAppointmentDateTime(LocalDateTime.of(1999, 12, 31, 9, 0));
+
+            assertThrows(DataIntegrityViolationException.class, () -> appointmentService.bookAppointment(request));
+        } finally {
+            jdbcTemplate.execute("ALTER TABLE appointments DROP CONSTRAINT ck_test_recent");
+        }
+    }
+
+    @Test
+    void rescheduleOntoTakenSlotIsRejected() {
+        AppointmentResponse first = appointmentService.bookAppointment(request(0, 0, 0));
+        AppointmentResponse second = appointmentService.bookAppointment(request(0, 1, 1));
+
+        assertNull(appointmentService.rescheduleAppointment(second.getAppointmentId(), first.getAppointmentDateTime()));
+        assertNotNull(appointmentService.rescheduleAppointment(second.getAppointmentId(), FIRST_SLOT.plusDays(1)));
+    }
+
+    private static AppointmentRequest request(int doctor, int slot, int patient) {
+        AppointmentRequest request = new AppointmentRequest();
+        request.setDoctorEmail(doctorEmail(doctor));
+        request.setPatientId(patientEmail(patient));
+        request.setAppointmentDateTime(FIRST_SLOT.plusMinutes(30L * slot));
+        return request;
+    }
+
+    private static String doctorEmail(int d) {
+        return "doctor" + d + "@test.com";
+    }
+
+    private static String patientEmail(int p) {
+        return "patient" + p + "@test.com";
+    }
+}
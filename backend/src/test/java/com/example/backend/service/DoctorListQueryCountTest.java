@@ -0,0 +1,187 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.AppointmentDto;
+import com.example.backend.dto.PrescriptionResponse;
+import com.example.backend.model.*;
+import com.example.backend.security.AuthenticatedUser;
+import com.example.backend.security.CurrentUser;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The list endpoints must run a fixed number of SQL statements,
+ * however many rows they return (no lazy loading per row).
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN"
+})
+@ActiveProfiles("h2")
+@Import({CurrentUser.class, DoctorLabReportService.class, DoctorLabRequestService.class,
+        LabRequestService.class, PrescriptionService.class, DoctorAppointmentstatService.class})
+class DoctorListQueryCountTest {
+
+    private static final int PATIENTS = 15;
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private DoctorLabReportService doctorLabReportService;
+
+    @Autowired
+    private DoctorLabRequestService doctorLabRequestService;
+
+    @Autowired
+    private LabRequestService labRequestService;
+
+    @Autowired
+    private PrescriptionService prescriptionService;
+
+    @Autowired
+    private DoctorAppointmentstatService doctorAppointmentstatService;
+
+    private Statistics statistics;
+    private Integer firstAppointmentId;
+    private Integer firstPatientId;
+
+    @BeforeEach
+    void seed() {
+        User doctorUser = em.persist(new User("Dr. Test", "doctor@test.com", "x", Role.DOCTOR));
+        Doctor doctor = em.persist(new Doctor(null, doctorUser, "General", "LIC-1", null));
+        User techUser = em.persist(new User("Lab Tech", "tech@test.com", "x", Role.LABTECH));
+        LabTech labTech = em.persist(new LabTech(null, techUser, "Blood"));
+
+        for (int i = 0; i < PATIENTS; i++) {
+            User patientUser = em.persist(new User("Patient " + i, "patient" + i + "@test.com", "x", Role.PATIENT));
+            Patient patient = em.persist(new Patient(null, patientUser, "F", "Street " + i, 30 + i));
+
+            Appointment appointment = new Appointment();
+            appointment.setDoctor(doctor);
+            appointment.setPatient(patient);
+            appointment.setAppointmentDateTime(LocalDateTime.of(2025, 1, 1, 9, 0).plusDays(i));
+            appointment.setStatus(AppointmentStatus.COMPLETED);
+            em.persist(appointment);
+            if (firstAppointmentId == null) {
+                firstAppointmentId = appointment.getId();
+                firstPatientId = patient.getId();
+            }
+
+            for (int j = 0; j < 2; j++) {
+                LabRequest labRequest = em.persist(new LabRequest(LabRequest.Status.COMPLETED, "Test " + j, appointment));
+                em.persist(new LabReport("report-" + i + "-" + j + ".pdf", LocalDateTime.now(), labTech, labRequest));
+
+                Prescription prescription = new Prescription();
+                prescription.setAppointment(appointment);
+                prescription.setNotes("Notes " + i + "-" + j);
+                prescription.setDateIssued(LocalDateTime.now());
+                em.persist(prescription);
+            }
+        }
+        em.flush();
+        em.clear();
+
+        AuthenticatedUser principal = AuthenticatedUser.from(doctorUser);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void clearSecurityContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void doctorLabReportsUseOneStatement() {
+        assertEquals(PATIENTS * 2, doctorLabReportService.getAllLabReportsForDoctor().size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void doctorLabRequestsUseOneStatement() {
+        assertEquals(PATIENTS * 2, doctorLabRequestService.getAllLabRequestsByDoctor().size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+
+        statistics.clear();
+        assertEquals(2, doctorLabRequestService.getLabRequestsByAppointment(firstAppointmentId).size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void labTechLabRequestsUseOneStatement() {
+        assertEquals(PATIENTS * 2, labRequestService.getAllLabRequests().size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+
+        statistics.clear();
+        assertEquals(2, labRequestService.getLabRequestsByAppointment(firstAppointmentId).size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void doctorPrescriptionsUseFixedStatements() {
+        List<?> all = prescriptionService.getAllPrescriptionsByDoctorId();
+        assertEquals(PATIENTS * 2, all.size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+
+        statistics.clear();
+        // rows + ownership check
+        assertEquals(2, prescriptionService.getByAppointmentId(firstAppointmentId).size());
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void doctorAppointmentsUnpagedReturnEveryRowInOneStatement() {
+        Slice<AppointmentDto> all = doctorAppointmentstatService.getAppointmentsForAuthenticatedDoctor(
+                Optional.empty(), null, null, Pageable.unpaged());
+        assertEquals(PATIENTS, all.getContent().size());
+        assertFalse(all.hasNext());
+        assertEquals(1, statistics.getPrepareStatementCount());
+
+        Slice<AppointmentDto> firstPage = doctorAppointmentstatService.getAppointmentsForAuthenticatedDoctor(
+                Optional.empty(), null, null, PageRequest.of(0, 10));
+        assertEquals(10, firstPage.getContent().size());
+        assertTrue(firstPage.hasNext());
+    }
+
+    @Test
+    void patientPrescriptionsUseOneStatement() {
+        List<PrescriptionResponse> prescriptions = prescriptionService.getPrescriptionsForPatient(firstPatientId);
+        assertEquals(2, prescriptions.size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+
+        PrescriptionResponse.AppointmentInfo appointment = prescriptions.get(0).getAppointment();
+        assertEquals(firstAppointmentId, appointment.getId());
+        assertEquals("2025-01-01", appointment.getDate());
+        assertEquals("09:00", appointment.getTime());
+        assertEquals("Dr. Test", appointment.getDoctor().getName());
+        assertEquals("General", appointment.getDoctor().getSpecialization());
+    }
+}
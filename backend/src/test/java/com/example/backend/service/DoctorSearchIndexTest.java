@@ -0,0 +1,94 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.DoctorSearchEntry;
+import com.example.backend.repository.DoctorRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DoctorSearchIndexTest {
+
+    private DoctorRepository doctorRepository;
+    private DoctorSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        doctorRepository = mock(DoctorRepository.class);
+        when(doctorRepository.findAllSearchEntries()).thenReturn(List.of(
+                doctor(1, "Anna Smithson", "Cardiologist"),
+                doctor(2, "Smith", "Dermatologist"),
+                doctor(3, "John Smith", "Cardiologist"),
+                doctor(4, "José Álvarez", "Neurology"),
+                doctor(5, "Blacksmith Jones", "Pediatrics")));
+        index = new DoctorSearchIndex(doctorRepository, 300);
+    }
+
+    @Test
+    void ranksExactThenPrefixThenWordThenSubstring() {
+        assertEquals(List.of(2, 1, 3, 5), ids(index.search("smith", null, PageRequest.of(0, 10))));
+    }
+
+    @Test
+    void combinesNameAndSpecializationFilters() {
+        assertEquals(List.of(1, 3), ids(index.search("smith", "cardio", PageRequest.of(0, 10))));
+        assertEquals(List.of(4), ids(index.search(null, "NEURO", PageRequest.of(0, 10))));
+    }
+
+    @Test
+    void shortTermsMatchWordStarts() {
+        assertEquals(List.of(3, 4, 5), ids(index.search("jo", null, PageRequest.of(0, 10))));
+    }
+
+    @Test
+    void ignoresCaseAndAccents() {
+        assertEquals(List.of(4), ids(index.search("jose alv", null, PageRequest.of(0, 10))));
+    }
+
+    @Test
+    void pagesResults() {
+        Slice<DoctorSearchEntry> first = index.search("smith", null, PageRequest.of(0, 3));
+        Slice<DoctorSearchEntry> second = index.search("smith", null, PageRequest.of(1, 3));
+
+        assertEquals(List.of(2, 1, 3), ids(first));
+        assertTrue(first.hasNext());
+        assertEquals(List.of(5), ids(second));
+        assertFalse(second.hasNext());
+    }
+
+    @Test
+    void suggestPrefersNameHits() {
+        List<DoctorSearchEntry> suggestions = index.suggest("card", 5);
+        assertEquals(List.of(1, 3), suggestions.stream().map(DoctorSearchEntry::getId).toList());
+        assertTrue(index.suggest("  ", 5).isEmpty());
+    }
+
+    @Test
+    void refreshUpdatesAndRemovesDoctors() {
+        index.search(null, null, PageRequest.of(0, 10));
+
+        when(doctorRepository.findSearchEntryById(2)).thenReturn(Optional.of(doctor(2, "Smith", "Oncology")));
+        index.refresh(2);
+        assertEquals(List.of(2), ids(index.search(null, "onco", PageRequest.of(0, 10))));
+        assertTrue(ids(index.search(null, "derma", PageRequest.of(0, 10))).isEmpty());
+
+        when(doctorRepository.findSearchEntryById(2)).thenReturn(Optional.empty());
+        index.refresh(2);
+        assertEquals(List.of(1, 3, 5), ids(index.search("smith", null, PageRequest.of(0, 10))));
+    }
+
+    private static DoctorSearchEntry doctor(int id, String name, String specialization) {
+        return new DoctorSearchEntry(id, name, "doctor" + id + "@test.com", specialization, "LIC-" + id, null);
+    }
+
+    private static List<Integer> ids(Slice<DoctorSearchEntry> slice) {
+        return slice.getContent().stream().map(DoctorSearchEntry::getId).toList();
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.AvailabilityExceptionDto;
+import com.example.backend.dto.AvailabilityScheduleDto;
+import com.example.backend.dto.FreeDoctorDto;
+import com.example.backend.dto.FreeSlotDto;
+import com.example.backend.dto.WeeklyWindowDto;
+import com.example.backend.model.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest
+@ActiveProfiles("h2")
+@Import({FreeSlotEngine.class, AvailabilityService.class, DoctorSearchIndex.class, ProfileCache.class})
+class FreeSlotEngineTest {
+
+    // Monday
+    private static final LocalDate MONDAY = LocalDate.of(2030, 1, 7);
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private FreeSlotEngine freeSlotEngine;
+
+    @Autowired
+    private AvailabilityService availabilityService;
+
+    private Doctor structured;
+    private Doctor legacy;
+    private Patient patient;
+
+    @BeforeEach
+    void seed() {
+        structured = em.persist(new Doctor(null, em.persist(new User("Anna Structured", "anna@test.com", "x", Role.DOCTOR)),
+                "Cardiologist", "LIC-1", null));
+        // Only the old free-text availability, no windows
+        legacy = em.persist(new Doctor(null, em.persist(new User("Bob Legacy", "bob@test.com", "x", Role.DOCTOR)),
+                "Dermatologist", "LIC-2", "Monday 09:00-17:00"));
+        patient = em.persist(new Patient(null, em.persist(new User("Pat", "pat@test.com", "x", Role.PATIENT)), "F", "Street", 30));
+
+        availabilityService.replaceSchedule(structured.getId(), new AvailabilityScheduleDto(30,
+                List.of(new WeeklyWindowDto(DayOfWeek.MONDAY, LocalTime.of(9, 0), LocalTime.of(12, 0)),
+                        new WeeklyWindowDto(DayOfWeek.MONDAY, LocalTime.of(13, 0), LocalTime.of(15, 0)),
+                        new WeeklyWindowDto(DayOfWeek.TUESDAY, LocalTime.of(9, 0), LocalTime.of(10, 0))),
+                List.of(new AvailabilityExceptionDto(MONDAY, LocalTime.of(11, 0), LocalTime.of(12, 0), false),
+                        new AvailabilityExceptionDto(MONDAY.plusDays(1), null, null, false),
+                        new AvailabilityExceptionDto(MONDAY.plusDays(5), LocalTime.of(10, 0), LocalTime.of(11, 0), true))));
+
+        book(structured, MONDAY.atTime(9, 30), AppointmentStatus.PENDING);
+        book(structured, MONDAY.atTime(10, 0), AppointmentStatus.CANCELLED);
+        // off the slot grid: overlaps both 13:00 and 13:30
+        book(structured, MONDAY.atTime(13, 15), AppointmentStatus.CONFIRMED);
+        book(legacy, MONDAY.atTime(9, 45), AppointmentStatus.CONFIRMED);
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    void nextFreeSlotsSkipBookingsAndTimeOff() {
+        List<FreeSlotDto> slots = freeSlotEngine.nextFreeSlots(structured.getId(), MONDAY.atStartOfDay(), 8);
+
+        assertEquals(List.of(
+                MONDAY.atTime(9, 0),
+                MONDAY.atTime(10, 0),
+                MONDAY.atTime(10, 30),
+                MONDAY.atTime(14, 0),
+                MONDAY.atTime(14, 30),
+                MONDAY.plusDays(5).atTime(10, 0),
+                MONDAY.plusDays(5).atTime(10, 30),
+                MONDAY.plusDays(7).atTime(9, 0)), slots.stream().map(FreeSlotDto::getStart).toList());
+        assertEquals(MONDAY.atTime(9, 30), slots.get(0).getEnd());
+    }
+
+    @Test
+    void nextFreeSlotsStartAtFrom() {
+        List<FreeSlotDto> slots = freeSlotEngine.nextFreeSlots(structured.getId(), MONDAY.atTime(10, 10), 2);
+
+        assertEquals(List.of(MONDAY.atTime(10, 30), MONDAY.atTime(14, 0)), slots.stream().map(FreeSlotDto::getStart).toList());
+    }
+
+    @Test
+    void legacyAvailabilityIsParsed() {
+        List<FreeSlotDto> slots = freeSlotEngine.nextFreeSlots(legacy.getId(), MONDAY.atTime(9, 0), 3);
+
+        // the 09:45 booking takes both the 09:30 and the 10:00 slot
+        assertEquals(List.of(MONDAY.atTime(9, 0), MONDAY.atTime(10, 30), MONDAY.atTime(11, 0)),
+                slots.stream().map(FreeSlotDto::getStart).toList());
+    }
+
+    @Test
+    void doctorsFreeAtTime() {
+        assertEquals(List.of("Anna Structured"), names(freeSlotEngine.doctorsFreeAt(MONDAY.atTime(10, 0))));
+        assertEquals(List.of("Anna Structured", "Bob Legacy"), names(freeSlotEngine.doctorsFreeAt(MONDAY.atTime(10, 30))));
+        assertEquals(List.of("Bob Legacy"), names(freeSlotEngine.doctorsFreeAt(MONDAY.atTime(11, 0))));
+        assertEquals(List.of(), names(freeSlotEngine.doctorsFreeAt(MONDAY.plusDays(1).atTime(9, 0))));
+    }
+
+    @Test
+    void scheduleKeepsReadableAvailableTimes() {
+        assertEquals("Monday 09:00-12:00, Monday 13:00-15:00, Tuesday 09:00-10:00",
+                em.find(Doctor.class, structured.getId()).getAvailableTimes());
+    }
+
+    private void book(Doctor doctor, LocalDateTime at, AppointmentStatus status) {
+        Appointment appointment = new Appointment();
+        appointment.setDoctor(doctor);
+        appointment.setPatient(patient);
+        appointment.setAppointmentDateTime(at);
+        appointment.setStatus(status);
+        em.persist(appointment);
+    }
+
+    private static List<String> names(List<FreeDoctorDto> doctors) {
+        return doctors.stream().map(FreeDoctorDto::getName).toList();
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntervalsTest {
+
+    @Test
+    void normalizeSortsAndMerges() {
+        assertArrayEquals(new int[]{60, 180, 200, 240}, Intervals.normalize(new int[]{200, 240, 120, 180, 60, 120, 90, 100, 50, 50}));
+        assertArrayEquals(Intervals.EMPTY, Intervals.normalize(new int[0]));
+    }
+
+    @Test
+    void unionMergesOverlaps() {
+        assertArrayEquals(new int[]{0, 30, 60, 150}, Intervals.union(new int[]{0, 30, 60, 90}, new int[]{80, 150}));
+    }
+
+    @Test
+    void subtractSplitsAndTrims() {
+        int[] open = {540, 720, 780, 900};
+
+        assertArrayEquals(new int[]{540, 600, 630, 720, 780, 900}, Intervals.subtract(open, new int[]{600, 630}));
+        assertArrayEquals(new int[]{540, 660, 840, 900}, Intervals.subtract(open, new int[]{660, 840}));
+        assertArrayEquals(Intervals.EMPTY, Intervals.subtract(open, new int[]{0, 1440}));
+        assertArrayEquals(open, Intervals.subtract(open, new int[]{0, 540, 900, 1440}));
+    }
+
+    @Test
+    void coversNeedsOneInterval() {
+        int[] open = {540, 720, 780, 900};
+
+        assertTrue(Intervals.covers(open, 540, 570));
+        assertTrue(Intervals.covers(open, 870, 900));
+        assertFalse(Intervals.covers(open, 700, 790));
+        assertFalse(Intervals.covers(open, 890, 920));
+        assertFalse(Intervals.covers(open, 500, 530));
+    }
+}
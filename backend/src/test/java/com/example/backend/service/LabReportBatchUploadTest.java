@@ -0,0 +1,459 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.LabReportDto;
+import com.example.backend.dto.UploadJobDto;
+import com.example.backend.model.*;
+import com.example.backend.repository.*;
+import com.example.backend.security.AuthenticatedUser;
+import com.example.backend.security.CurrentUser;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A multi-file upload is all or nothing: rows, request status and the files on disk.
+ * Runs without a test transaction so the service's own transaction commits or rolls back for real.
+ */
+@DataJpaTest(properties = "logging.level.org.hibernate.SQL=WARN", showSql = false)
+@ActiveProfiles("h2")
+@Import({LabReportService.class, LabReportIngestor.class, LabReportUploadJobs.class, FileStorageService.class, ReportFileIndex.class, CurrentUser.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class LabReportBatchUploadTest {
+
+    private static final int FILES = 40;
+
+    @TempDir
+    static Path uploadDir;
+
+    @DynamicPropertySource
+    static void storage(DynamicPropertyRegistry registry) {
+        registry.add("file.upload-dir", () -> uploadDir.toString());
+    }
+
+    @Autowired
+    private LabReportService labReportService;
+
+    @Autowired
+    private LabReportUploadJobs labReportUploadJobs;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private LabTechRepository labTechRepository;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private LabRequestRepository labRequestRepository;
+
+    @Autowired
+    private LabReportRepository labReportRepository;
+
+    @Autowired
+    private StoredFileRepository storedFileRepository;
+
+    @Autowired
+    private FileStorageService fileStorageService;
+
+    @Autowired
+    private ReportFileIndex reportFileIndex;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Integer labRequestId;
+
+    @BeforeEach
+    void seed() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            User techUser = userRepository.save(new User("Tech", "tech@test.com", "x", Role.LABTECH));
+            labTechRepository.save(new LabTech(null, techUser, "Radiology"));
+            Doctor doctor = doctorRepository.save(new Doctor(null,
+                    userRepository.save(new User("Doc", "doc@test.com", "x", Role.DOCTOR)), "General", "LIC-1", null));
+            Patient patient = patientRepository.save(new Patient(null,
+                    userRepository.save(new User("Pat", "pat@test.com", "x", Role.PATIENT)), "F", "Street", 30));
+
+            Appointment appointment = new Appointment();
+            appointment.setDoctor(doctor);
+            appointment.setPatient(patient);
+            appointment.setAppointmentDateTime(LocalDateTime.of(2030, 1, 7, 9, 0));
+            appointment.setStatus(AppointmentStatus.CONFIRMED);
+            appointmentRepository.save(appointment);
+
+            labRequestId = labRequestRepository.save(new LabRequest(LabRequest.Status.REQUESTED, "X-Ray", appointment)).getId();
+
+            AuthenticatedUser principal = new AuthenticatedUser(techUser.getUserId(), "Tech", "tech@test.com", "x", Role.LABTECH);
+            SecurityContextHolder.getContext().setAuthentication(
+                    new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+        });
+    }
+
+    @AfterEach
+    void cleanUp() throws IOException {
+        SecurityContextHolder.clearContext();
+        try (Stream<Path> stored = Files.walk(uploadDir)) {
+            for (Path file : stored.filter(Files::isRegularFile).toList()) {
+                Files.delete(file);
+            }
+        }
+        labReportRepository.deleteAllInBatch();
+        storedFileRepository.deleteAllInBatch();
+        labRequestRepository.deleteAllInBatch();
+        appointmentRepository.deleteAllInBatch();
+        labTechRepository.deleteAllInBatch();
+        patientRepository.deleteAllInBatch();
+        doctorRepository.deleteAllInBatch();
+        userRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void uploadsEveryFileInOneGo() throws IOException {
+        MultipartFile[] files = new MultipartFile[FILES + 1];
+        for (int i = 0; i < FILES; i++) {
+            files[i] = image(i);
+        }
+        // empty parts are skipped
+        files[FILES] = new MockMultipartFile("files", "empty.png", "image/png", new byte[0]);
+
+        List<LabReportDto> reports = labReportService.uploadMultipleReports(files, labRequestId);
+
+        assertEquals(FILES, reports.size());
+        for (int i = 0; i < FILES; i++) {
+            LabReportDto report = reports.get(i);
+            assertNotNull(report.getId());
+            assertTrue(report.getReportFile().endsWith(".png"));
+            assertEquals(labRequestId, report.getLabRequestId());
+            // returned in upload order, each one pointing at its own content
+            assertArrayEquals(files[i].getBytes(), Files.readAllBytes(uploadDir.resolve(blobOf(report))));
+        }
+        assertEquals(reports.stream().map(LabReportDto::getId).toList(),
+                labReportRepository.findDtosByLabRequestId(labRequestId).stream().map(LabReportDto::getId).toList());
+        assertEquals(LabRequest.Status.COMPLETED, labRequestRepository.findById(labRequestId).orElseThrow().getStatus());
+        assertEquals(FILES, storedFileRepository.count());
+    }
+
+    @Test
+    void reportsKeepTheirOwnFileNameWhenContentIsShared() {
+        byte[] content = "same scan".getBytes(StandardCharsets.UTF_8);
+        MultipartFile[] files = {
+                new MockMultipartFile("files", "first-visit.png", "image/png", content),
+                new MockMultipartFile("files", "C:\\scans\\second-visit.png", "image/png", content)
+        };
+
+        List<LabReportDto> reports = labReportService.uploadMultipleReports(files, labRequestId);
+
+        assertEquals(reports.get(0).getReportFile(), reports.get(1).getReportFile());
+        assertEquals("first-visit.png", labReportRepository.findById(reports.get(0).getId()).orElseThrow().getOriginalName());
+        assertEquals("second-visit.png", labReportRepository.findById(reports.get(1).getId()).orElseThrow().getOriginalName());
+        // downloads of the shared file are named after the newest report
+        assertEquals("second-visit.png", reportFileIndex.downloadName(reports.get(0).getReportFile()));
+    }
+
+    @Test
+    void failedFileRollsBackEverything() throws IOException {
+        MultipartFile[] files = new MultipartFile[FILES];
+        for (int i = 0; i < FILES; i++) {
+            files[i] = image(i);
+        }
+        files[FILES / 2] = new MockMultipartFile("files", "broken.png", "image/png", new byte[]{1}) {
+            @Override
+            public InputStream getInputStream() throws IOException {
+                throw new IOException("connection reset");
+            }
+        };
+
+        assertThrows(RuntimeException.class, () -> labReportService.uploadMultipleReports(files, labRequestId));
+
+        assertNothingKept();
+        assertEquals(LabRequest.Status.REQUESTED, labRequestRepository.findById(labRequestId).orElseThrow().getStatus());
+    }
+
+    @Test
+    void rollbackAfterUploadReleasesFiles() throws IOException {
+        MultipartFile[] files = {image(1), image(2), image(3)};
+
+        // e.g. a later step of the caller's transaction failing
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            assertEquals(3, labReportService.uploadMultipleReports(files, labRequestId).size());
+            status.setRollbackOnly();
+        });
+
+        assertNothingKept();
+        assertEquals(LabRequest.Status.REQUESTED, labRequestRepository.findById(labRequestId).orElseThrow().getStatus());
+    }
+
+    @Test
+    void filesStoredByTheCallerAreReleasedOnRollback() throws Exception {
+        // One thread and no queue: while the pool thread waits on the first file, the caller stores the others
+        LabReportIngestor ingestor = new LabReportIngestor(fileStorageService, jdbcTemplate, transactionManager, 1, 0);
+        CountDownLatch callerStored = new CountDownLatch(1);
+        MultipartFile first = new MockMultipartFile("files", "scan-1.png", "image/png", image(1).getBytes()) {
+            @Override
+            public InputStream getInputStream() throws IOException {
+                try {
+                    assertTrue(callerStored.await(10, TimeUnit.SECONDS));
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                }
+                return super.getInputStream();
+            }
+        };
+        String caller = Thread.currentThread().getName();
+        List<String> storingThreads = new CopyOnWriteArrayList<>();
+        Runnable onStored = () -> {
+            storingThreads.add(Thread.currentThread().getName());
+            if (caller.equals(Thread.currentThread().getName())) {
+                callerStored.countDown();
+            }
+        };
+
+        TransactionTemplate requiresNew = new TransactionTemplate(transactionManager);
+        requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                assertEquals(3, ingestor.storeFiles(List.of(first, image(2), image(3)), onStored).size());
+                // every reference is committed on its own, including those counted on this thread
+                Long committed = requiresNew.execute(s -> storedFileRepository.count());
+                assertEquals(3L, committed);
+                status.setRollbackOnly();
+            });
+        } finally {
+            ingestor.shutdown();
+        }
+
+        assertTrue(storingThreads.contains(caller), storingThreads::toString);
+        assertNothingKept();
+    }
+
+    @Test
+    void singleUploadIsReleasedOnRollback() throws IOException {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            LabReportDto report = labReportService.uploadReport(image(1), labRequestId);
+            assertEquals("scan-1.png", labReportRepository.findById(report.getId()).orElseThrow().getOriginalName());
+            status.setRollbackOnly();
+        });
+
+        assertNothingKept();
+        assertEquals(LabRequest.Status.REQUESTED, labRequestRepository.findById(labRequestId).orElseThrow().getStatus());
+    }
+
+    @Test
+    void concurrentSingleUploadsCompleteTheRequestOnce() throws Exception {
+        // Both uploads have seen the request as REQUESTED before either one stores its file
+        CyclicBarrier bothChecked = new CyclicBarrier(2);
+        Authentication labTech = SecurityContextHolder.getContext().getAuthentication();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        List<Future<LabReportDto>> uploads = new ArrayList<>();
+        try {
+            for (int n = 1; n <= 2; n++) {
+                MultipartFile file = new MockMultipartFile("file", "scan-" + n + ".png", "image/png", image(n).getBytes()) {
+                    @Override
+                    public InputStream getInputStream() throws IOException {
+                        try {
+                            bothChecked.await(10, TimeUnit.SECONDS);
+                        } catch (Exception e) {
+                            throw new IOException(e);
+                        }
+                        return super.getInputStream();
+                    }
+                };
+                uploads.add(executor.submit(() -> {
+                    SecurityContextHolder.getContext().setAuthentication(labTech);
+                    try {
+                        return labReportService.uploadReport(file, labRequestId);
+                    } finally {
+                        SecurityContextHolder.clearContext();
+                    }
+                }));
+            }
+
+            int succeeded = 0;
+            for (Future<LabReportDto> upload : uploads) {
+                try {
+                    upload.get(30, TimeUnit.SECONDS);
+                    succeeded++;
+                } catch (ExecutionException e) {
+                    // the loser finds the request already completed and keeps nothing
+                }
+            }
+            assertEquals(1, succeeded);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, labReportRepository.count());
+        assertEquals(1, storedFileRepository.count());
+        assertEquals(LabRequest.Status.COMPLETED, labRequestRepository.findById(labRequestId).orElseThrow().getStatus());
+        try (Stream<Path> stored = Files.walk(uploadDir)) {
+            assertEquals(1, stored.filter(Files::isRegularFile).count());
+        }
+    }
+
+    @Test
+    void completedRequestIsRejected() throws IOException {
+        jdbcTemplate.update("UPDATE lab_request SET status = 'COMPLETED' WHERE id = ?", labRequestId);
+
+        assertThrows(RuntimeException.class,
+                () -> labReportService.uploadMultipleReports(new MultipartFile[]{image(1)}, labRequestId));
+        assertNothingKept();
+    }
+
+    @Test
+    void backgroundUploadReportsProgressAndResult() throws Exception {
+        MultipartFile[] files = {image(1), image(2), image(3)};
+
+        UploadJobDto submitted = labReportUploadJobs.submit(files, labRequestId);
+        assertEquals(3, submitted.getTotalFiles());
+
+        UploadJobDto done = awaitJob(submitted.getJobId());
+        assertEquals("COMPLETED", done.getStatus(), done.getError());
+        assertEquals(3, done.getStoredFiles());
+        assertEquals(3, done.getReports().size());
+        assertNotNull(done.getFinishedAt());
+        assertEquals(3, labReportRepository.count());
+        assertEquals(LabRequest.Status.COMPLETED, labRequestRepository.findById(labRequestId).orElseThrow().getStatus());
+        // spool cleaned up, only the three stored blobs are left
+        try (Stream<Path> stored = Files.walk(uploadDir)) {
+            assertEquals(3, stored.filter(Files::isRegularFile).count());
+        }
+    }
+
+    @Test
+    void failedBackgroundUploadKeepsNothing() throws Exception {
+        // spooled, but gone by the time the worker reads it
+        MultipartFile lost = new MockMultipartFile("files", "lost.png", "image/png", new byte[]{1}) {
+            @Override
+            public void transferTo(File dest) {
+            }
+        };
+
+        UploadJobDto submitted = labReportUploadJobs.submit(new MultipartFile[]{image(1), lost, image(2)}, labRequestId);
+
+        UploadJobDto done = awaitJob(submitted.getJobId());
+        assertEquals("FAILED", done.getStatus());
+        assertNotNull(done.getError());
+        assertNothingKept();
+        assertEquals(LabRequest.Status.REQUESTED, labRequestRepository.findById(labRequestId).orElseThrow().getStatus());
+    }
+
+    @Test
+    void jobsAreOnlyVisibleToTheirLabTech() throws Exception {
+        UploadJobDto submitted = labReportUploadJobs.submit(new MultipartFile[]{image(1)}, labRequestId);
+        awaitJob(submitted.getJobId());
+
+        AuthenticatedUser other = new AuthenticatedUser(-1, "Other", "other@test.com", "x", Role.LABTECH);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(other, null, other.getAuthorities()));
+        assertThrows(ResponseStatusException.class, () -> labReportUploadJobs.getJob(submitted.getJobId()));
+    }
+
+    @Test
+    void backgroundUploadRejectsCompletedRequestUpFront() {
+        jdbcTemplate.update("UPDATE lab_request SET status = 'COMPLETED' WHERE id = ?", labRequestId);
+
+        assertThrows(RuntimeException.class,
+                () -> labReportUploadJobs.submit(new MultipartFile[]{image(1)}, labRequestId));
+    }
+
+    @Test
+    void blobIsDeletedWithItsLastReferenceOnly() throws IOException {
+        String first = fileStorageService.storeFile(image(1));
+        String second = fileStorageService.storeFile(image(1));
+        assertEquals(first, second);
+        Path blob = fileStorageService.getFilePath(first);
+
+        fileStorageService.releaseFile(first);
+        assertTrue(Files.exists(blob));
+        assertEquals(1, storedFileRepository.findById(first.substring(0, 64)).orElseThrow().getRefCount());
+
+        fileStorageService.releaseFile(second);
+        assertFalse(Files.exists(blob));
+        assertEquals(0, storedFileRepository.count());
+    }
+
+    @Test
+    void dedupedStoreWritesTheBlobAgain() throws IOException {
+        // e.g. the file of the last reference deleted by a release just before this store counted its own
+        String reference = fileStorageService.storeFile(image(1));
+        Path blob = fileStorageService.getFilePath(reference);
+        Files.delete(blob);
+
+        assertEquals(reference, fileStorageService.storeFile(image(1)));
+        assertArrayEquals(image(1).getBytes(), Files.readAllBytes(blob));
+        assertEquals(2, storedFileRepository.findById(reference.substring(0, 64)).orElseThrow().getRefCount());
+    }
+
+    private UploadJobDto awaitJob(String jobId) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(30).toNanos();
+        UploadJobDto job = labReportUploadJobs.getJob(jobId);
+        while (("QUEUED".equals(job.getStatus()) || "RUNNING".equals(job.getStatus())) && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+            job = labReportUploadJobs.getJob(jobId);
+        }
+        return job;
+    }
+
+    private void assertNothingKept() throws IOException {
+        assertEquals(0, labReportRepository.count());
+        assertEquals(0, storedFileRepository.count());
+        try (Stream<Path> stored = Files.walk(uploadDir)) {
+            assertEquals(List.of(), stored.filter(Files::isRegularFile).toList());
+        }
+    }
+
+    private static MockMultipartFile image(int n) {
+        return new MockMultipartFile("files", "scan-" + n + ".png", "image/png",
+                ("scan " + n).getBytes(StandardCharsets.UTF_8));
+    }
+
+    // uploads/ab/cd/<hash>
+    private static String blobOf(LabReportDto report) {
+        String hash = report.getReportFile().substring(0, 64);
+        return hash.substring(0, 2) + "/" + hash.substring(2, 4) + "/" + hash;
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.LabReportDto;
+import com.example.backend.model.*;
+import com.example.backend.security.CurrentUser;
+import net.ttddyy.dsproxy.listener.MethodExecutionContext;
+import net.ttddyy.dsproxy.listener.MethodExecutionListener;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.dialect.MySQLDialect;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import javax.sql.DataSource;
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Streaming every report hands rows to the consumer while the result set is still being read,
+ * instead of collecting the whole table first.
+ */
+@DataJpaTest(properties = "logging.level.org.hibernate.SQL=WARN", showSql = false)
+@ActiveProfiles("h2")
+@Import({LabReportService.class, LabReportIngestor.class, FileStorageService.class, ReportFileIndex.class,
+        CurrentUser.class, LabReportStreamTest.RowCounting.class})
+class LabReportStreamTest {
+
+    private static final int REPORTS = 25;
+
+    // Rows the driver has handed to Hibernate so far, and the fetch sizes statements were given
+    private static final AtomicInteger rowsRead = new AtomicInteger();
+    private static final List<Integer> fetchSizes = new CopyOnWriteArrayList<>();
+
+    @TempDir
+    static Path uploadDir;
+
+    @DynamicPropertySource
+    static void storage(DynamicPropertyRegistry registry) {
+        registry.add("file.upload-dir", () -> uploadDir.toString());
+    }
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private LabReportService labReportService;
+
+    private final List<Integer> expectedOrder = new ArrayList<>();
+
+    @BeforeEach
+    void seed() {
+        Doctor doctor = em.persist(new Doctor(null,
+                em.persist(new User("Doctor", "doctor@test.com", "x", Role.DOCTOR)), "General", "LIC-1", null));
+        Patient patient = em.persist(new Patient(null,
+                em.persist(new User("Patient", "patient@test.com", "x", Role.PATIENT)), "F", "Street", 40));
+        LabTech labTech = em.persist(new LabTech(null,
+                em.persist(new User("Lab Tech", "tech@test.com", "x", Role.LABTECH)), "Blood"));
+        Appointment appointment = new Appointment();
+        appointment.setDoctor(doctor);
+        appointment.setPatient(patient);
+        appointment.setAppointmentDateTime(LocalDateTime.of(2025, 3, 10, 9, 0));
+        appointment.setStatus(AppointmentStatus.COMPLETED);
+        em.persist(appointment);
+
+        for (int i = 0; i < REPORTS; i++) {
+            LabRequest request = em.persist(new LabRequest(LabRequest.Status.COMPLETED, "Test " + i, appointment));
+            expectedOrder.add(0, em.persist(new LabReport("report-" + i + ".pdf", LocalDateTime.now(), labTech, request)).getId());
+        }
+        em.flush();
+        em.clear();
+
+        rowsRead.set(0);
+        fetchSizes.clear();
+    }
+
+    @Test
+    void rowsReachTheConsumerBeforeTheQueryIsRead() {
+        List<Integer> seen = new ArrayList<>();
+        List<Integer> readBeforeEach = new ArrayList<>();
+
+        labReportService.streamAllReports(report -> {
+            readBeforeEach.add(rowsRead.get());
+            seen.add(report.getId());
+        });
+
+        assertEquals(expectedOrder, seen);
+        // the first report arrives after one row, not after the whole table
+        assertEquals(1, readBeforeEach.get(0));
+        assertEquals(REPORTS, readBeforeEach.get(REPORTS - 1));
+        assertEquals(List.of(500), fetchSizes);
+    }
+
+    @Test
+    void connectorJStreamsRowByRow() {
+        // a positive size is only honoured with useCursorFetch=true; H2 rejects the MySQL marker
+        assertEquals(Integer.MIN_VALUE, LabReportService.streamFetchSize(new MySQLDialect()));
+        assertEquals(500, LabReportService.streamFetchSize(new H2Dialect()));
+    }
+
+    @TestConfiguration
+    static class RowCounting {
+
+        @Bean
+        static BeanPostProcessor rowCountingDataSource() {
+            MethodExecutionListener listener = new MethodExecutionListener() {
+                @Override
+                public void beforeMethod(MethodExecutionContext context) {
+                    if (context.getTarget() instanceof Statement && context.getMethod().getName().equals("setFetchSize")) {
+                        fetchSizes.add((Integer) context.getMethodArgs()[0]);
+                    }
+                }
+
+                @Override
+                public void afterMethod(MethodExecutionContext context) {
+                    if (context.getTarget() instanceof ResultSet && context.getMethod().getName().equals("next")
+                            && Boolean.TRUE.equals(context.getResult())) {
+                        rowsRead.incrementAndGet();
+                    }
+                }
+            };
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)) {
+                        return ProxyDataSourceBuilder.create(beanName, dataSource)
+                                .proxyResultSet()
+                                .methodListener(listener)
+                                .build();
+                    }
+                    return bean;
+                }
+            };
+        }
+    }
+}
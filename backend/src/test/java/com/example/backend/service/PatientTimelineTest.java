@@ -0,0 +1,173 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.PatientTimelineDto;
+import com.example.backend.dto.TimelineAppointmentDto;
+import com.example.backend.model.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Keyset paging of a patient's timeline: every appointment exactly once, newest first,
+ * including runs of equal timestamps and undated appointments across page boundaries.
+ */
+@DataJpaTest(properties = "logging.level.org.hibernate.SQL=WARN", showSql = false)
+@ActiveProfiles("h2")
+@Import({DoctorPatientHistoryService.class, FileStorageService.class, ReportFileIndex.class})
+class PatientTimelineTest {
+
+    private static final LocalDateTime SAME_SLOT = LocalDateTime.of(2025, 3, 10, 9, 0);
+
+    @TempDir
+    static Path uploadDir;
+
+    @DynamicPropertySource
+    static void storage(DynamicPropertyRegistry registry) {
+        registry.add("file.upload-dir", () -> uploadDir.toString());
+    }
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private DoctorPatientHistoryService historyService;
+
+    private final List<Integer> expectedOrder = new ArrayList<>();
+    private Integer nestedAppointmentId;
+
+    @BeforeEach
+    void seed() {
+        List<Doctor> doctors = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            doctors.add(em.persist(new Doctor(null,
+                    em.persist(new User("Dr. " + i, "doctor" + i + "@test.com", "x", Role.DOCTOR)), "General", "LIC-" + i, null)));
+        }
+        Doctor doctor = doctors.get(0);
+        LabTech labTech = em.persist(new LabTech(null,
+                em.persist(new User("Lab Tech", "tech@test.com", "x", Role.LABTECH)), "Blood"));
+        Patient patient = em.persist(new Patient(null,
+                em.persist(new User("Patient", "patient@test.com", "x", Role.PATIENT)), "F", "Street", 40));
+
+        // Newest first: one later visit, five with different doctors at the same time, one earlier visit, two undated
+        Appointment latest = appointment(doctor, patient, SAME_SLOT.plusDays(1));
+        List<Appointment> sameSlot = new ArrayList<>();
+        for (Doctor each : doctors) {
+            sameSlot.add(appointment(each, patient, SAME_SLOT));
+        }
+        Appointment earlier = appointment(doctor, patient, SAME_SLOT.minusDays(1));
+        List<Appointment> undated = List.of(appointment(doctor, patient, null), appointment(doctor, patient, null));
+
+        // Equal timestamps are ordered by id, highest first
+        expectedOrder.add(latest.getId());
+        for (int i = sameSlot.size() - 1; i >= 0; i--) {
+            expectedOrder.add(sameSlot.get(i).getId());
+        }
+        expectedOrder.add(earlier.getId());
+        expectedOrder.add(undated.get(1).getId());
+        expectedOrder.add(undated.get(0).getId());
+
+        Appointment nested = sameSlot.get(2);
+        nestedAppointmentId = nested.getId();
+        for (int j = 0; j < 2; j++) {
+            Prescription prescription = new Prescription();
+            prescription.setAppointment(nested);
+            prescription.setNotes("Notes " + j);
+            prescription.setDateIssued(SAME_SLOT.plusMinutes(j));
+            em.persist(prescription);
+        }
+        LabRequest withReport = em.persist(new LabRequest(LabRequest.Status.COMPLETED, "Blood count", nested));
+        em.persist(new LabReport("report.pdf", SAME_SLOT.plusDays(1), labTech, withReport));
+        em.persist(new LabRequest(LabRequest.Status.REQUESTED, "X-Ray", nested));
+
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    void pagesVisitEveryAppointmentOnceNewestFirst() {
+        for (int size = 1; size <= expectedOrder.size() + 1; size++) {
+            List<Integer> seen = new ArrayList<>();
+            String cursor = null;
+            int pages = 0;
+            do {
+                PatientTimelineDto page = historyService.getPatientTimeline("patient@test.com", cursor, size);
+                assertTrue(page.getAppointments().size() <= size);
+                page.getAppointments().forEach(a -> seen.add(a.getAppointmentId()));
+                cursor = page.getNextCursor();
+                assertTrue(++pages <= expectedOrder.size(), "paging does not terminate at size " + size);
+            } while (cursor != null);
+
+            assertEquals(expectedOrder, seen, "page size " + size);
+        }
+    }
+
+    @Test
+    void prescriptionsAndLabReportsAreNestedUnderTheirAppointment() {
+        PatientTimelineDto timeline = historyService.getPatientTimeline("patient@test.com", null, 100);
+
+        for (TimelineAppointmentDto appointment : timeline.getAppointments()) {
+            if (appointment.getAppointmentId().equals(nestedAppointmentId)) {
+                assertEquals(2, appointment.getPrescriptions().size());
+                assertTrue(appointment.getPrescriptions().stream()
+                        .allMatch(p -> nestedAppointmentId.equals(p.getAppointmentId())));
+                assertEquals(2, appointment.getLabReports().size());
+                assertEquals(1, appointment.getLabReports().stream()
+                        .filter(r -> "report.pdf".equals(r.getReportFile())).count());
+            } else {
+                assertTrue(appointment.getPrescriptions().isEmpty());
+                assertTrue(appointment.getLabReports().isEmpty());
+            }
+        }
+    }
+
+    @Test
+    void cursorRoundTrips() {
+        DoctorPatientHistoryService.TimelineCursor dated =
+                new DoctorPatientHistoryService.TimelineCursor(SAME_SLOT, 42);
+        assertEquals(dated, DoctorPatientHistoryService.TimelineCursor.decode(dated.encode()));
+
+        DoctorPatientHistoryService.TimelineCursor undated =
+                new DoctorPatientHistoryService.TimelineCursor(null, 7);
+        assertEquals(undated, DoctorPatientHistoryService.TimelineCursor.decode(undated.encode()));
+    }
+
+    @Test
+    void malformedCursorIsBadRequest() {
+        for (String cursor : List.of("%%%", encode("no-separator"), encode("yesterday|1"), encode("2025-03-10T09:00|x"))) {
+            ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                    () -> historyService.getPatientTimeline("patient@test.com", cursor, 5), cursor);
+            assertEquals(HttpStatus.BAD_REQUEST, e.getStatusCode());
+        }
+    }
+
+    private Appointment appointment(Doctor doctor, Patient patient, LocalDateTime dateTime) {
+        Appointment appointment = new Appointment();
+        appointment.setDoctor(doctor);
+        appointment.setPatient(patient);
+        appointment.setAppointmentDateTime(dateTime);
+        appointment.setStatus(AppointmentStatus.COMPLETED);
+        return em.persist(appointment);
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
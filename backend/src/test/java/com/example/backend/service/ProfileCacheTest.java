@@ -0,0 +1,162 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.DoctorProfileResponse;
+import com.example.backend.dto.PatientDetailsDto;
+import com.example.backend.dto.PatientProfileResponse;
+import com.example.backend.model.*;
+import com.example.backend.repository.*;
+import com.example.backend.security.AuthenticatedUser;
+import com.example.backend.security.CurrentUser;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Profiles are read from the database once and then from memory, until their own service changes them.
+ * Runs without a test transaction so evictions happen on a real commit.
+ */
+@DataJpaTest(properties = "logging.level.org.hibernate.SQL=WARN", showSql = false)
+@ActiveProfiles("h2")
+@Import({PatientService.class, DoctorService.class, DoctorAppointmentService.class, AvailabilityService.class,
+        FreeSlotEngine.class, DoctorSearchIndex.class, ProfileCache.class, CurrentUser.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ProfileCacheTest {
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private DoctorService doctorService;
+
+    @Autowired
+    private DoctorAppointmentService doctorAppointmentService;
+
+    @Autowired
+    private ProfileCache profileCache;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private AvailabilityWindowRepository availabilityWindowRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User patientUser;
+    private User doctorUser;
+
+    @BeforeEach
+    void seed() {
+        profileCache.clear();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            patientUser = userRepository.save(new User("Pat", "pat@test.com", "x", Role.PATIENT));
+            patientRepository.save(new Patient(null, patientUser, "F", "1 Old Street", 30));
+            doctorUser = userRepository.save(new User("Doc", "doc@test.com", "x", Role.DOCTOR));
+            doctorRepository.save(new Doctor(null, doctorUser, "General", "LIC-1", "Monday 09:00-12:00"));
+        });
+    }
+
+    @AfterEach
+    void cleanUp() {
+        SecurityContextHolder.clearContext();
+        availabilityWindowRepository.deleteAllInBatch();
+        patientRepository.deleteAllInBatch();
+        doctorRepository.deleteAllInBatch();
+        userRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void secondReadIsServedFromMemory() {
+        signIn(patientUser, Role.PATIENT);
+        CacheStats before = profileCache.stats().get("patient-profiles");
+
+        assertEquals("1 Old Street", patientService.getPatientProfile().getAddress());
+        // a change behind the service's back is not seen until the entry is evicted or expires
+        jdbcTemplate.update("UPDATE patient SET address = ? WHERE user_id = ?", "2 Elsewhere", patientUser.getUserId());
+        assertEquals("1 Old Street", patientService.getPatientProfile().getAddress());
+
+        CacheStats delta = profileCache.stats().get("patient-profiles").minus(before);
+        assertEquals(1, delta.missCount());
+        assertEquals(1, delta.hitCount());
+    }
+
+    @Test
+    void savingTheProfileEvictsIt() {
+        signIn(patientUser, Role.PATIENT);
+        assertEquals(30, patientService.getPatientProfile().getAge());
+
+        patientService.saveOrUpdatePatientDetails(new PatientDetailsDto("F", "3 New Road", 31));
+
+        PatientProfileResponse profile = patientService.getPatientProfile();
+        assertEquals("3 New Road", profile.getAddress());
+        assertEquals(31, profile.getAge());
+    }
+
+    @Test
+    void deletingTheProfileEvictsIt() {
+        signIn(patientUser, Role.PATIENT);
+        assertTrue(patientService.getPatientProfile().isProfileComplete());
+
+        patientService.deletePatientProfile();
+
+        assertFalse(patientService.getPatientProfile().isProfileComplete());
+    }
+
+    @Test
+    void availabilityChangesEvictTheDoctorProfile() {
+        signIn(doctorUser, Role.DOCTOR);
+        assertEquals("Monday 09:00-12:00", doctorService.getDoctorProfile().getAvailableTimes());
+
+        doctorAppointmentService.updateAvailableTimes("Tuesday 10:00-14:00");
+        DoctorProfileResponse profile = doctorService.getDoctorProfile();
+        assertEquals("Tuesday 10:00-14:00", profile.getAvailableTimes());
+
+        doctorAppointmentService.clearAvailableTimes();
+        assertNull(doctorService.getDoctorProfile().getAvailableTimes());
+    }
+
+    @Test
+    void rolledBackChangeKeepsTheCachedProfile() {
+        signIn(patientUser, Role.PATIENT);
+        patientService.getPatientProfile();
+        CacheStats before = profileCache.stats().get("patient-profiles");
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            patientService.saveOrUpdatePatientDetails(new PatientDetailsDto("F", "Never Saved", 99));
+            status.setRollbackOnly();
+        });
+
+        assertEquals("1 Old Street", patientService.getPatientProfile().getAddress());
+        assertEquals(1, profileCache.stats().get("patient-profiles").minus(before).hitCount());
+    }
+
+    private static void signIn(User user, Role role) {
+        AuthenticatedUser principal = new AuthenticatedUser(user.getUserId(), user.getName(), user.getEmail(), "x", role);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+}
@@ -0,0 +1,165 @@
+package com.example.backend.service;
+
+import com.example.backend.repository.StoredFileRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Conditional and partial downloads of a stored report file.
+ */
+class ReportFileStreamerTest {
+
+    private static final String HASH = "3fa2c9e1b7d4" + "0".repeat(52);
+    private static final String REFERENCE = HASH + ".pdf";
+    private static final String ETAG = "\"" + HASH + "\"";
+    private static final int SIZE = 1000;
+
+    @TempDir
+    Path uploadDir;
+
+    private ReportFileStreamer streamer;
+    private byte[] content;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        ObjectProvider<MeterRegistry> registry = new StaticListableBeanFactory(
+                Map.of("meterRegistry", new SimpleMeterRegistry())).getBeanProvider(MeterRegistry.class);
+        FileStorageService fileStorageService = new FileStorageService(uploadDir.toString(), "content-addressed",
+                mock(StoredFileRepository.class), registry);
+
+        content = new byte[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            content[i] = (byte) i;
+        }
+        Path blob = fileStorageService.getFilePath(REFERENCE);
+        Files.createDirectories(blob.getParent());
+        Files.write(blob, content);
+
+        ReportFileIndex reportFileIndex = mock(ReportFileIndex.class);
+        when(reportFileIndex.downloadName(REFERENCE)).thenReturn("blood count.pdf");
+
+        streamer = new ReportFileStreamer(fileStorageService, reportFileIndex, registry);
+    }
+
+    @Test
+    void wholeFile() throws IOException {
+        MockHttpServletResponse response = stream(new MockHttpServletRequest("GET", "/file"));
+
+        assertEquals(HttpStatus.OK.value(), response.getStatus());
+        assertArrayEquals(content, response.getContentAsByteArray());
+        assertEquals(SIZE, response.getContentLengthLong());
+        assertEquals("application/pdf", response.getContentType());
+        assertEquals(ETAG, response.getHeader(HttpHeaders.ETAG));
+        assertEquals("bytes", response.getHeader(HttpHeaders.ACCEPT_RANGES));
+        assertTrue(response.getHeader(HttpHeaders.CACHE_CONTROL).contains("immutable"));
+        // sent under the uploaded name, not the hash
+        assertTrue(response.getHeader(HttpHeaders.CONTENT_DISPOSITION).startsWith("inline; filename="));
+        assertTrue(response.getHeader(HttpHeaders.CONTENT_DISPOSITION).contains("blood"));
+        assertFalse(response.getHeader(HttpHeaders.CONTENT_DISPOSITION).contains(HASH));
+    }
+
+    @Test
+    void singleRange() throws IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/file");
+        request.addHeader(HttpHeaders.RANGE, "bytes=100-199");
+
+        MockHttpServletResponse response = stream(request);
+
+        assertEquals(HttpStatus.PARTIAL_CONTENT.value(), response.getStatus());
+        assertEquals("bytes 100-199/1000", response.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertEquals(100, response.getContentLengthLong());
+        assertArrayEquals(Arrays.copyOfRange(content, 100, 200), response.getContentAsByteArray());
+    }
+
+    @Test
+    void suffixRange() throws IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/file");
+        request.addHeader(HttpHeaders.RANGE, "bytes=-100");
+
+        MockHttpServletResponse response = stream(request);
+
+        assertEquals(HttpStatus.PARTIAL_CONTENT.value(), response.getStatus());
+        assertEquals("bytes 900-999/1000", response.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertArrayEquals(Arrays.copyOfRange(content, 900, SIZE), response.getContentAsByteArray());
+    }
+
+    @Test
+    void unsatisfiableRange() throws IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/file");
+        request.addHeader(HttpHeaders.RANGE, "bytes=2000-2999");
+
+        MockHttpServletResponse response = stream(request);
+
+        assertEquals(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value(), response.getStatus());
+        assertEquals("bytes */1000", response.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    void staleIfRangeGetsTheWholeFile() throws IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/file");
+        request.addHeader(HttpHeaders.RANGE, "bytes=100-199");
+        request.addHeader(HttpHeaders.IF_RANGE, "\"some-older-version\"");
+
+        MockHttpServletResponse response = stream(request);
+
+        assertEquals(HttpStatus.OK.value(), response.getStatus());
+        assertNull(response.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertArrayEquals(content, response.getContentAsByteArray());
+    }
+
+    @Test
+    void matchingIfRangeGetsTheRange() throws IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/file");
+        request.addHeader(HttpHeaders.RANGE, "bytes=100-199");
+        request.addHeader(HttpHeaders.IF_RANGE, ETAG);
+
+        assertEquals(HttpStatus.PARTIAL_CONTENT.value(), stream(request).getStatus());
+    }
+
+    @Test
+    void notModified() throws IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/file");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"other\", " + ETAG);
+
+        MockHttpServletResponse response = stream(request);
+
+        assertEquals(HttpStatus.NOT_MODIFIED.value(), response.getStatus());
+        assertEquals(ETAG, response.getHeader(HttpHeaders.ETAG));
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    void unknownReferenceIsNotFound() {
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> streamer.stream("0".repeat(64) + ".pdf", false,
+                        new MockHttpServletRequest("GET", "/file"), new MockHttpServletResponse()));
+        assertEquals(HttpStatus.NOT_FOUND, e.getStatusCode());
+    }
+
+    private MockHttpServletResponse stream(MockHttpServletRequest request) throws IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        streamer.stream(REFERENCE, false, request, response);
+        return response;
+    }
+}
@@ -17,6 +17,17 @@ USE `diagnote`;
 /*!40101 SET @OLD_SQL_MODE=@@SQL_MODE, SQL_MODE='NO_AUTO_VALUE_ON_ZERO' */;
 /*!40111 SET @OLD_SQL_NOTES=@@SQL_NOTES, SQL_NOTES=0 */;
 
+--
+-- This dump holds the V1 schema (backend/src/main/resources/db/migration) plus demo data.
+-- Tables created by later migrations are dropped with Flyway's history, so the backend
+-- baselines the restored database at V1 and applies the newer migrations on startup.
+--
+
+DROP TABLE IF EXISTS `flyway_schema_history`;
+DROP TABLE IF EXISTS `stored_file`;
+DROP TABLE IF EXISTS `doctor_availability_window`;
+DROP TABLE IF EXISTS `doctor_availability_exception`;
+
 --
 -- Table structure for table `appointments`
 --
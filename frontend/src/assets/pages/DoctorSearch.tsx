@@ -13,12 +13,18 @@ interface Doctor {
   availableTimes: string;
 }
 
+// Results come back one page at a time; "Load more" fetches the next one
+const PAGE_SIZE = 20;
+
 export default function DoctorSearch() {
   const [search, setSearch] = useState("");
   const [specializationFilter, setSpecializationFilter] = useState("");
   const [results, setResults] = useState<Doctor[]>([]);
   const [loading, setLoading] = useState(false);
   const [hasSearched, setHasSearched] = useState(false);
+  const [page, setPage] = useState(0);
+  const [hasMore, setHasMore] = useState(false);
+  const [loadingMore, setLoadingMore] = useState(false);
 
   // Booking modal states
   const [selectedDoctor, setSelectedDoctor] = useState<Doctor | null>(null);
@@ -44,18 +50,26 @@ export default function DoctorSearch() {
     "Surgery",
   ];
 
+  const fetchDoctors = async (pageToLoad: number) => {
+    const params = new URLSearchParams();
+    if (search.trim()) params.append("name", search);
+    if (specializationFilter)
+      params.append("specialization", specializationFilter);
+    params.append("page", String(pageToLoad));
+    params.append("size", String(PAGE_SIZE));
+
+    const res = await API.get<Doctor[]>(`/doctors?${params.toString()}`);
+    setPage(pageToLoad);
+    setHasMore(res.headers["x-has-next-page"] === "true");
+    return res.data;
+  };
+
   const handleSearch = async () => {
     if (!search.trim() && !specializationFilter) return;
     setLoading(true);
     setHasSearched(true);
     try {
-      const params = new URLSearchParams();
-      if (search.trim()) params.append("name", search);
-      if (specializationFilter)
-        params.append("specialization", specializationFilter);
-
-      const res = await API.get<Doctor[]>(`/doctors?${params.toString()}`);
-      setResults(res.data);
+      setResults(await fetchDoctors(0));
     } catch (err) {
       console.error("Error fetching doctors:", err);
       alert("Failed to fetch doctors. Check console for details.");
@@ -64,11 +78,26 @@ export default function DoctorSearch() {
     }
   };
 
+  const handleLoadMore = async () => {
+    setLoadingMore(true);
+    try {
+      const more = await fetchDoctors(page + 1);
+      setResults((prev) => [...prev, ...more]);
+    } catch (err) {
+      console.error("Error fetching doctors:", err);
+      alert("Failed to fetch doctors. Check console for details.");
+    } finally {
+      setLoadingMore(false);
+    }
+  };
+
   const handleClear = () => {
     setSearch("");
     setSpecializationFilter("");
     setResults([]);
     setHasSearched(false);
+    setPage(0);
+    setHasMore(false);
     setSuccess("");
     setError("");
   };
@@ -290,7 +319,7 @@ export default function DoctorSearch() {
                 >
                   <path d="M9 6a3 3 0 11-6 0 3 3 0 016 0zM17 6a3 3 0 11-6 0 3 3 0 016 0zM12.93 17c.046-.327.07-.66.07-1a6.97 6.97 0 00-1.5-4.33A5 5 0 0119 16v1h-6.07zM6 11a5 5 0 015 5v1H1v-1a5 5 0 015-5z" />
                 </svg>
-                Available Doctors {results.length > 0 && `(${results.length})`}
+                Available Doctors {results.length > 0 && `(${results.length}${hasMore ? "+" : ""})`}
               </h3>
             </div>
             <div className="p-8 grid grid-cols-1 md:grid-cols-2 lg:grid-cols-3 gap-6">
@@ -397,6 +426,17 @@ export default function DoctorSearch() {
                 </div>
               )}
             </div>
+            {hasMore && (
+              <div className="px-8 pb-8 flex justify-center">
+                <button
+                  onClick={handleLoadMore}
+                  disabled={loadingMore}
+                  className="px-6 py-2 bg-white text-indigo-700 border border-indigo-200 rounded-xl font-semibold shadow hover:shadow-md hover:bg-indigo-50 disabled:opacity-50 transition-all duration-200"
+                >
+                  {loadingMore ? "Loading..." : "Load more doctors"}
+                </button>
+              </div>
+            )}
           </div>
         )}
 
@@ -32,6 +32,33 @@ export interface DoctorPatientHistoryDto {
   labReports: any[];
 }
 
+export interface TimelinePrescription {
+  id: number;
+  notes: string;
+  dateIssued: string;
+  appointmentId: number;
+}
+
+export interface TimelineAppointment {
+  appointmentId: number;
+  doctorName: string;
+  appointmentDate: string;
+  status: string;
+  prescriptions: TimelinePrescription[];
+  labReports: LabReportInfo[];
+}
+
+export interface PatientTimelineDto {
+  patientName: string;
+  patientEmail: string;
+  gender: string;
+  age: number;
+  address: string;
+  appointments: TimelineAppointment[];
+  nextCursor: string | null;
+  hasMore: boolean;
+}
+
 export const doctorPatientHistoryService = {
   getPatientHistoryByPatientEmail: async (email: string): Promise<DoctorPatientHistoryDto> => {
     const response = await api.get(`/doctor/patient-history`, {
@@ -40,6 +67,14 @@ export const doctorPatientHistoryService = {
     return response.data;
   },
 
+  // Paginated history, newest first; pass the previous page's nextCursor to load older appointments
+  getPatientTimeline: async (email: string, cursor?: string | null, size = 20): Promise<PatientTimelineDto> => {
+    const response = await api.get(`/doctor/patient-history/timeline`, {
+      params: { email, cursor: cursor ?? undefined, size }
+    });
+    return response.data;
+  },
+
   // Download lab report file - updated to match your backend endpoint
   downloadLabReport: async (fileName: string): Promise<Blob> => {
     const response = await api.get(`/doctor/lab-reports/file/${fileName}`, {
@@ -26,7 +26,8 @@ API.interceptors.request.use(
 API.interceptors.response.use(
   (response) => response,
   (error) => {
-    if (error.response?.status === 401) {
+    // A 401 from /auth/login means wrong credentials, not an expired session
+    if (error.response?.status === 401 && !error.config?.url?.startsWith('/auth/')) {
       // Token expired or invalid
       logout();
       window.location.href = '/login';